@@ -1,11 +1,63 @@
 additionalSettings {
     pointsForActivenessPerWeek 2
     repositoriesPath "repositories"
-    runInParallel true
+    executionMode "VIRTUAL"
+    buildThreads 0
     cleanUp false
+    useCheckCache true
+    checkCachePath ".cache/checks"
+    collectTestCases false
+    localCommitsActivity true
+    cloneStrategy "FULL"
+    useMirrorCache false
+    mirrorCachePath ".cache/mirrors"
+    reportPrettyPrint true
+    reportGzip false
+    journalPath ".cache/journal.jsonl"
+    metricsPath "./metrics"
+    logLevel "INFO"
+    logJsonPath ".cache/log.jsonl"
     controlPoints getStringArrayList("2023-10-21", "2023-12-21")
     githubToken ''
 
+    pipeline {
+        downloadThreads 4
+        activityThreads 2
+        queueCapacity 8
+        logInterval 10
+        virtualThreads 64
+    }
+
+    gradle {
+        reuseConnections true
+        daemonIdleTimeout 120
+        minFreeMemory 0.1
+        offline false
+    }
+
+    github {
+        apiUrl "https://api.github.com"
+        useResponseCache true
+        responseCachePath ".cache/github"
+        burst 30
+    }
+
+    timeouts {
+        download 300
+        build 600
+        student 1800
+    }
+
+    distributed {
+        port 7077
+        bindAddress '127.0.0.1'
+        secret ''
+        heartbeatInterval 5
+        heartbeatTimeout 30
+        maxAttempts 3
+        unitsPerWorker 4
+    }
+
     marksMap {
         excellent 20
         good 17
@@ -66,6 +118,13 @@ additionalSettings {
 
     toCheckPlagiarism {
         plagiarismReportFolder 'reports'
+        plagiarismTasks getTasksList(getTaskByName('Task_1_1_1'), getTaskByName('Task_1_1_2'))
+        plagiarismThreads 2
+        plagiarismPrefilter false
+        plagiarismThreshold 0.5
+        plagiarismMaxGroupSize 32
+        plagiarismCachePath ".cache/plagiarism"
+        plagiarismTopPairs 10
         source {
             suspectedStudent getStudentByName('h1km4t1ll0')
         }
@@ -0,0 +1,61 @@
+package ru.nsu.dolgov.taskchecker.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.nsu.dolgov.taskchecker.git.CommitActivity;
+import ru.nsu.dolgov.taskchecker.models.results.CommitsCheckResult;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucketing of the commits of a student into the weeks of the semester.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class CommitActivityBenchmark {
+    private static final LocalDate START = LocalDate.of(2023, 9, 1);
+    private static final LocalDate END = LocalDate.of(2023, 12, 28);
+
+    @Param({"100", "5000"})
+    public int commits;
+
+    private int[] commitTimes;
+
+    /**
+     * Creates the commit times, a tenth of them outside of the semester.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long start = START.minusWeeks(2).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long end = END.plusWeeks(2).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        this.commitTimes = new int[this.commits];
+        for (int i = 0; i < this.commits; i++) {
+            this.commitTimes[i] = (int) (start + (long) (random.nextDouble() * (end - start)));
+        }
+    }
+
+    /**
+     * Splits the semester into weeks, buckets the commits and builds the result.
+     *
+     * @return result of the check.
+     */
+    @Benchmark
+    public CommitsCheckResult bucket() {
+        CommitActivity activity = new CommitActivity(START, END);
+        return activity.toResult(activity.countCommits(this.commitTimes, this.commitTimes.length));
+    }
+}
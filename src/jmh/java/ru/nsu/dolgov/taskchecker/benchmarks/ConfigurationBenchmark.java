@@ -0,0 +1,98 @@
+package ru.nsu.dolgov.taskchecker.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.nsu.dolgov.taskchecker.exceptions.NoSuchStudentException;
+import ru.nsu.dolgov.taskchecker.exceptions.NoSuchTaskException;
+import ru.nsu.dolgov.taskchecker.models.core.Configuration;
+import ru.nsu.dolgov.taskchecker.models.core.Group;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups of the students and the tasks by name in a frozen configuration,
+ * as done for every entry of the toCheck and plagiarism lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ConfigurationBenchmark {
+    @Param({"100", "2000"})
+    public int students;
+
+    private Configuration configuration;
+    private String[] nicknames;
+    private String[] taskIds;
+
+    /**
+     * Creates the configuration with 20 groups and 30 tasks.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.configuration = new Configuration();
+        List<Student> cohort = new ArrayList<>();
+        this.nicknames = new String[this.students];
+        for (int i = 0; i < this.students; i++) {
+            Student student = new Student();
+            student.nickname = "student" + i;
+            student.groupName = "group" + (i % 20);
+            cohort.add(student);
+            this.nicknames[i] = student.nickname;
+        }
+        for (int i = 0; i < 20; i++) {
+            Group group = new Group();
+            group.name = "group" + i;
+            this.configuration.groups.add(group);
+        }
+        this.configuration.addStudents(cohort);
+
+        this.taskIds = new String[30];
+        for (int i = 0; i < this.taskIds.length; i++) {
+            Task task = new Task();
+            task.id = "Task_" + (i / 5 + 1) + "_" + (i % 5 + 1);
+            this.configuration.tasks.add(task);
+            this.taskIds[i] = task.id;
+        }
+        this.configuration.freeze();
+    }
+
+    /**
+     * Looks up every student once.
+     *
+     * @param blackhole sink of the found students.
+     * @throws NoSuchStudentException is thrown when a student is not found.
+     */
+    @Benchmark
+    public void studentLookups(Blackhole blackhole) throws NoSuchStudentException {
+        for (String nickname : this.nicknames) {
+            blackhole.consume(this.configuration.getStudentByName(nickname));
+        }
+    }
+
+    /**
+     * Looks up every task once.
+     *
+     * @param blackhole sink of the found tasks.
+     * @throws NoSuchTaskException is thrown when a task is not found.
+     */
+    @Benchmark
+    public void taskLookups(Blackhole blackhole) throws NoSuchTaskException {
+        for (String taskId : this.taskIds) {
+            blackhole.consume(this.configuration.getTaskByName(taskId));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ru.nsu.dolgov.taskchecker.benchmarks;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.PipelineSettings;
+import ru.nsu.dolgov.taskchecker.models.core.ExecutionMode;
+import ru.nsu.dolgov.taskchecker.pipeline.PipelineStage;
+import ru.nsu.dolgov.taskchecker.pipeline.StageSink;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wall time of the fetch phase in the PLATFORM and VIRTUAL execution modes.
+ * Every repository is a blocking request to a local server that answers
+ * after the given latency, which stands for the round trip to GitHub, so
+ * the phase is bound by waiting and not by the processor. Both modes run
+ * the same amount of workers, so only the kind of the threads differs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FetchPhaseBenchmark {
+    @Param({"100", "400"})
+    public int repositories;
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    public ExecutionMode mode;
+
+    @Param({"4", "64"})
+    public int workers;
+
+    @Param({"50"})
+    public int latencyMillis;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private OkHttpClient client;
+    private String url;
+
+    /**
+     * Starts the local server and the client.
+     *
+     * @throws IOException when the server cant be bound.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Logger.configure(Logger.LogLevel.ERROR, null);
+        this.serverExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        this.server.createContext("/", exchange -> {
+            try {
+                Thread.sleep(this.latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{}".getBytes();
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream stream = exchange.getResponseBody()) {
+                stream.write(body);
+            }
+        });
+        this.server.setExecutor(this.serverExecutor);
+        this.server.start();
+        this.url = "http://127.0.0.1:" + this.server.getAddress().getPort() + "/repos/";
+        this.client = new OkHttpClient();
+    }
+
+    /**
+     * Stops the server and the client.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+        this.client.dispatcher().executorService().shutdown();
+        this.client.connectionPool().evictAll();
+    }
+
+    /**
+     * Passes all the repositories through a download stage with the given
+     * amount of workers.
+     *
+     * @return total size of the received bodies.
+     * @throws InterruptedException when interrupted while waiting.
+     */
+    @Benchmark
+    public long fetch() throws InterruptedException {
+        PipelineSettings pipeline = new PipelineSettings();
+        boolean virtualThreads = this.mode == ExecutionMode.VIRTUAL;
+        AtomicLong bytes = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(1);
+        PipelineStage<Integer> stage = new PipelineStage<>(
+                "download",
+                this.workers,
+                pipeline.queueCapacity,
+                (repository, workerName) -> {
+                    Request request = new Request.Builder().url(this.url + repository).build();
+                    try (Response response = this.client.newCall(request).execute()) {
+                        bytes.addAndGet(response.body().bytes().length);
+                    }
+                },
+                new StageSink<>() {
+                    @Override
+                    public void put(Integer item) {
+                    }
+
+                    @Override
+                    public void finish() {
+                        done.countDown();
+                    }
+                },
+                virtualThreads
+        );
+        stage.start();
+        for (int i = 0; i < this.repositories; i++) {
+            stage.put(i);
+        }
+        stage.finish();
+        done.await();
+        return bytes.get();
+    }
+}
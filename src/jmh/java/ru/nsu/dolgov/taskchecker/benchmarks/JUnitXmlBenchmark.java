@@ -0,0 +1,98 @@
+package ru.nsu.dolgov.taskchecker.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import ru.nsu.dolgov.taskchecker.gradle.JUnitXmlAggregator;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parsing of the JUnit XML reports, which is used when the Gradle of
+ * a project does not report the test events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class JUnitXmlBenchmark {
+    @Param({"10", "100"})
+    public int reports;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Path directory;
+    private JUnitXmlAggregator aggregator;
+
+    /**
+     * Writes the reports, 20 test cases each.
+     *
+     * @throws IOException is thrown when a report cant be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.directory = Files.createTempDirectory("junit-xml");
+        this.aggregator = new JUnitXmlAggregator(this.parallel, true);
+        for (int i = 0; i < this.reports; i++) {
+            StringBuilder report = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            report.append("<testsuite name=\"ru.nsu.Test").append(i)
+                    .append("\" tests=\"20\" skipped=\"1\" failures=\"2\" errors=\"0\" time=\"0.5\">\n");
+            for (int j = 0; j < 20; j++) {
+                report.append("  <testcase name=\"test").append(j).append("\" classname=\"ru.nsu.Test").append(i)
+                        .append("\" time=\"0.025\">");
+                if (j == 3 || j == 7) {
+                    report.append("<failure message=\"expected 1\">org.opentest4j.AssertionFailedError</failure>");
+                } else if (j == 11) {
+                    report.append("<skipped/>");
+                }
+                report.append("</testcase>\n");
+            }
+            report.append("  <system-out><![CDATA[]]></system-out>\n</testsuite>\n");
+            Files.writeString(this.directory.resolve("TEST-ru.nsu.Test" + i + ".xml"), report);
+        }
+    }
+
+    /**
+     * Deletes the reports.
+     *
+     * @throws IOException is thrown when a report cant be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(this.directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Reads all the reports into a fresh result.
+     *
+     * @return filled result.
+     * @throws IOException        is thrown when a report cant be read.
+     * @throws XMLStreamException is thrown when a report is broken.
+     */
+    @Benchmark
+    public TaskTestResult aggregate() throws IOException, XMLStreamException {
+        TaskTestResult result = new TaskTestResult();
+        this.aggregator.aggregate(this.directory.toFile(), result);
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.nsu.dolgov.taskchecker.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import ru.nsu.dolgov.taskchecker.Logger;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the Logger when all the workers log at once. The console is
+ * replaced with a discarding stream before the Logger starts its writer, so
+ * the terminal does not limit the result. With the ERROR level the messages
+ * are filtered out and only the cost of the check is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(8)
+public class LoggerBenchmark {
+    @Param({"INFO", "ERROR"})
+    public String level;
+
+    private PrintStream console;
+
+    /**
+     * Discards the console output.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        Logger.configure(Logger.LogLevel.valueOf(this.level), null);
+    }
+
+    /**
+     * Writes the remaining messages and restores the console.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Logger.flush();
+        System.setOut(this.console);
+    }
+
+    /**
+     * Logs a single message.
+     */
+    @Benchmark
+    public void log() {
+        Logger.log(Logger.LogLevel.INFO, "Checked Task_1_1 of student", "TASK RUNNER");
+    }
+}
@@ -0,0 +1,148 @@
+package ru.nsu.dolgov.taskchecker.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.Group;
+import ru.nsu.dolgov.taskchecker.models.core.JSONReportObject;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.DeadlinesCheckResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+import ru.nsu.dolgov.taskchecker.models.results.TestCaseResult;
+import ru.nsu.dolgov.taskchecker.reportbuilder.JSONReportBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming of the JSON report for cohorts of different size. The report is
+ * written to a counting stream, so the disk does not affect the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ReportSerializationBenchmark {
+    @Param({"10", "100", "500", "2000"})
+    public int students;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private JSONReportObject report;
+    private JSONReportBuilder builder;
+
+    /**
+     * Creates the report of the cohort with 10 tasks and 20 test cases per task.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.builder = new JSONReportBuilder("", false, this.gzip);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task();
+            task.id = "Task_1_" + i;
+            task.title = "Task " + i;
+            task.points = 1;
+            task.softDeadline = LocalDate.of(2023, 10, 1).plusWeeks(i);
+            task.hardDeadline = task.softDeadline.plusWeeks(1);
+            tasks.add(task);
+        }
+
+        Group group = new Group();
+        group.name = "22214";
+        List<TaskRunnerResult> results = new ArrayList<>();
+        for (int i = 0; i < this.students; i++) {
+            Student student = new Student();
+            student.nickname = "student" + i;
+            student.studentName = "Student " + i;
+            student.repository = "https://github.com/student" + i + "/OOP";
+            student.groupName = group.name;
+            group.students.add(student);
+
+            TaskRunnerResult result = new TaskRunnerResult();
+            result.student = student;
+            result.tasksResults = new ArrayList<>();
+            for (Task task : tasks) {
+                result.tasksResults.add(createTaskResult(task));
+            }
+            results.add(result);
+        }
+
+        this.report = new JSONReportObject();
+        this.report.tasks = tasks;
+        this.report.groups = List.of(group);
+        this.report.students = group.students;
+        this.report.additionalSettings = new AdditionalSettings();
+        this.report.taskRunnerResults = results;
+    }
+
+    /**
+     * Creates the result of a single task.
+     *
+     * @param task checked task.
+     * @return result.
+     */
+    private static TaskTestResult createTaskResult(Task task) {
+        TaskTestResult result = new TaskTestResult();
+        result.task = task;
+        result.build = true;
+        result.javadoc = true;
+        result.points = 1;
+        result.deadlinesCheckResult = new DeadlinesCheckResult();
+        for (int i = 0; i < 20; i++) {
+            TestCaseResult testCase = new TestCaseResult();
+            testCase.className = "ru.nsu." + task.id + "Test";
+            testCase.name = "test" + i;
+            testCase.durationMillis = 25L;
+            testCase.outcome = i == 7 ? TestCaseResult.Outcome.FAILED : TestCaseResult.Outcome.PASSED;
+            result.testCases.add(testCase);
+            result.totalTests++;
+        }
+        return result;
+    }
+
+    /**
+     * Streams the report.
+     *
+     * @return amount of the written bytes.
+     * @throws IOException is thrown when the report cant be written.
+     */
+    @Benchmark
+    public long serialize() throws IOException {
+        CountingOutputStream output = new CountingOutputStream();
+        this.builder.write(this.report, output);
+        return output.count;
+    }
+
+    /**
+     * Stream that only counts the bytes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count = 0;
+
+        @Override
+        public void write(int value) {
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            this.count += length;
+        }
+    }
+}
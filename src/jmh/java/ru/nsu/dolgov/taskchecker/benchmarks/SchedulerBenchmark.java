@@ -0,0 +1,94 @@
+package ru.nsu.dolgov.taskchecker.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.SchedulerStatistics;
+import ru.nsu.dolgov.taskchecker.scheduler.CheckUnit;
+import ru.nsu.dolgov.taskchecker.scheduler.WorkStealingScheduler;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduling overhead of the work-stealing scheduler. The cost of a unit is
+ * skewed like real builds: most tasks are cheap and a few are very expensive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class SchedulerBenchmark {
+    @Param({"30", "300"})
+    public int students;
+
+    @Param({"4"})
+    public int workers;
+
+    private List<List<CheckUnit>> units;
+    private Map<CheckUnit, Long> costs;
+
+    /**
+     * Creates the students with 10 tasks each and the cost of every task.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Logger.configure(Logger.LogLevel.ERROR, null);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Task task = new Task();
+            task.id = "Task_1_" + i;
+            tasks.add(task);
+        }
+
+        Random random = new Random(42);
+        this.units = new ArrayList<>();
+        this.costs = new IdentityHashMap<>();
+        for (int i = 0; i < this.students; i++) {
+            Student student = new Student();
+            student.nickname = "student" + i;
+            StudentWithTasks studentWithTasks = new StudentWithTasks();
+            studentWithTasks.student = student;
+            studentWithTasks.tasks = tasks;
+            List<CheckUnit> studentUnits = new ArrayList<>();
+            for (int j = 0; j < tasks.size(); j++) {
+                CheckUnit unit = new CheckUnit(studentWithTasks, j);
+                studentUnits.add(unit);
+                this.costs.put(unit, random.nextDouble() < 0.1 ? 20_000L : 500L);
+            }
+            this.units.add(studentUnits);
+        }
+    }
+
+    /**
+     * Schedules all the units and waits for them.
+     *
+     * @return statistics of the run.
+     */
+    @Benchmark
+    public SchedulerStatistics schedule() {
+        WorkStealingScheduler scheduler = new WorkStealingScheduler(this.workers);
+        for (List<CheckUnit> studentUnits : this.units) {
+            scheduler.submit(studentUnits);
+        }
+        scheduler.close();
+        scheduler.start((unit, workerName) -> Blackhole.consumeCPU(this.costs.get(unit)));
+        return scheduler.await();
+    }
+}
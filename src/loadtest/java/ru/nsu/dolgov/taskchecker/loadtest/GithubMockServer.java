@@ -0,0 +1,270 @@
+package ru.nsu.dolgov.taskchecker.loadtest;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import ru.nsu.dolgov.taskchecker.checker.GithubAPI;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local imitation of the GitHub commits API used to measure the amount
+ * of requests and the wall time without touching the real rate limit.
+ * Supports pagination, ETag/If-None-Match and the X-RateLimit-* headers.
+ */
+public class GithubMockServer implements AutoCloseable {
+    private static final LocalDate FIRST_COMMIT_DAY = LocalDate.parse("2023-09-01");
+    private static final LocalDate LAST_COMMIT_DAY = LocalDate.parse("2024-06-30");
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final int rateLimit;
+    private final int maxCommitsPerDay;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final long resetSeconds;
+
+    /**
+     * Constructor.
+     *
+     * @param port             port to listen on, 0 to choose a free one.
+     * @param rateLimit        amount of requests allowed before 403 is returned.
+     * @param maxCommitsPerDay maximal amount of generated commits per day.
+     * @throws IOException when the server cant be bound.
+     */
+    public GithubMockServer(int port, int rateLimit, int maxCommitsPerDay) throws IOException {
+        this.rateLimit = rateLimit;
+        this.maxCommitsPerDay = maxCommitsPerDay;
+        this.remaining = new AtomicInteger(rateLimit);
+        this.resetSeconds = Instant.now().getEpochSecond() + 3600;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.createContext("/repos/", this::handle);
+        this.server.setExecutor(this.executor);
+    }
+
+    /**
+     * Starts the server.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Getter for the url that should be used as apiUrl.
+     *
+     * @return base url of the server.
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + this.server.getAddress().getPort();
+    }
+
+    /**
+     * Getter for the amount of received requests.
+     *
+     * @return amount of requests.
+     */
+    public int getRequestCount() {
+        return this.requests.get();
+    }
+
+    /**
+     * Getter for the amount of requests answered with 304.
+     *
+     * @return amount of 304 responses.
+     */
+    public int getNotModifiedCount() {
+        return this.notModified.get();
+    }
+
+    /**
+     * Handles /repos/{owner}/{repo}/commits requests.
+     *
+     * @param exchange HTTP exchange.
+     * @throws IOException when the response cant be sent.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        this.requests.incrementAndGet();
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        if (path.length != 5 || !path[4].equals("commits")) {
+            this.send(exchange, 404, "{\"message\":\"Not Found\"}");
+            return;
+        }
+        String repository = path[2] + "/" + path[3];
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int perPage = Math.min(100, Integer.parseInt(query.getOrDefault("per_page", "30")));
+        int page = Integer.parseInt(query.getOrDefault("page", "1"));
+        Instant since = Instant.parse(query.getOrDefault("since", "1970-01-01T00:00:00Z"));
+        Instant until = Instant.parse(query.getOrDefault("until", "2100-01-01T00:00:00Z"));
+
+        JsonArray commits = this.generateCommits(repository, since, until);
+        JsonArray pageCommits = new JsonArray();
+        for (int i = (page - 1) * perPage; i < Math.min(commits.size(), page * perPage); i++) {
+            pageCommits.add(commits.get(i));
+        }
+        String body = pageCommits.toString();
+        String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("X-RateLimit-Limit", String.valueOf(this.rateLimit));
+        exchange.getResponseHeaders().set("X-RateLimit-Reset", String.valueOf(this.resetSeconds));
+        if (page * perPage < commits.size()) {
+            String next = this.getUrl() + exchange.getRequestURI().getPath() + "?" +
+                    exchange.getRequestURI().getRawQuery().replaceAll("(^|&)page=\\d+", "") + "&page=" + (page + 1);
+            exchange.getResponseHeaders().set("Link", "<" + next + ">; rel=\"next\"");
+        }
+
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            this.notModified.incrementAndGet();
+            exchange.getResponseHeaders().set("X-RateLimit-Remaining", String.valueOf(Math.max(0, this.remaining.get())));
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        int left = this.remaining.decrementAndGet();
+        exchange.getResponseHeaders().set("X-RateLimit-Remaining", String.valueOf(Math.max(0, left)));
+        if (left < 0) {
+            this.send(exchange, 403, "{\"message\":\"API rate limit exceeded\"}");
+            return;
+        }
+        this.send(exchange, 200, body);
+    }
+
+    /**
+     * Generates the same commits of the repository on every call.
+     *
+     * @param repository repository in the "owner/name" format.
+     * @param since      first moment to include.
+     * @param until      last moment to include.
+     * @return commits sorted from the newest to the oldest one, like GitHub does.
+     */
+    private JsonArray generateCommits(String repository, Instant since, Instant until) {
+        JsonArray commits = new JsonArray();
+        for (LocalDate day = LAST_COMMIT_DAY; !day.isBefore(FIRST_COMMIT_DAY); day = day.minusDays(1)) {
+            int commitsCount = Math.floorMod((repository + day).hashCode(), this.maxCommitsPerDay + 1);
+            for (int i = commitsCount - 1; i >= 0; i--) {
+                Instant time = day.atTime(12, 0).toInstant(ZoneOffset.UTC).plusSeconds(i * 60L);
+                if (time.isBefore(since) || time.isAfter(until)) {
+                    continue;
+                }
+                JsonObject committer = new JsonObject();
+                committer.addProperty("date", time.toString());
+                JsonObject commit = new JsonObject();
+                commit.add("committer", committer);
+                JsonObject entry = new JsonObject();
+                entry.addProperty("sha", Integer.toHexString((repository + time).hashCode()));
+                entry.add("commit", commit);
+                commits.add(entry);
+            }
+        }
+        return commits;
+    }
+
+    /**
+     * Sends the response.
+     *
+     * @param exchange HTTP exchange.
+     * @param code     status code.
+     * @param body     body of the response.
+     * @throws IOException when the response cant be sent.
+     */
+    private void send(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * Parses the query string.
+     *
+     * @param rawQuery query string or null.
+     * @return parameters.
+     */
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(
+                        parameter.substring(0, separator),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8)
+                );
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Stops the server.
+     */
+    @Override
+    public void close() {
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Runs the commits activity of a synthetic cohort against the server twice,
+     * with a cold and a warm response cache, and prints the amount of requests
+     * and the wall time of every run.
+     * Usage: GithubMockServer [students] [maxCommitsPerDay].
+     *
+     * @param args command line arguments.
+     * @throws Exception when the measurement fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        int maxCommitsPerDay = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+
+        try (GithubMockServer server = new GithubMockServer(0, 5000, maxCommitsPerDay)) {
+            server.start();
+            AdditionalSettings settings = new AdditionalSettings();
+            settings.setControlPoints(List.of("2023-10-21", "2023-12-21"));
+            settings.localCommitsActivity = false;
+            settings.github.apiUrl = server.getUrl();
+            settings.github.responseCachePath = Files.createTempDirectory("github-cache").toString();
+
+            for (String run : List.of("cold", "warm")) {
+                int requestsBefore = server.getRequestCount();
+                int notModifiedBefore = server.getNotModifiedCount();
+                long start = System.nanoTime();
+                for (int i = 0; i < students; i++) {
+                    Student student = new Student();
+                    student.nickname = "student" + i;
+                    student.repository = "https://github.com/student" + i + "/OOP/";
+                    new GithubAPI("repositories", student, settings).getCommitsActivity();
+                }
+                System.out.printf(
+                        "%s cache: %d students, %d requests, %d not modified, %d ms%n",
+                        run,
+                        students,
+                        server.getRequestCount() - requestsBefore,
+                        server.getNotModifiedCount() - notModifiedBefore,
+                        (System.nanoTime() - start) / 1_000_000
+                );
+            }
+        }
+    }
+}
@@ -0,0 +1,450 @@
+package ru.nsu.dolgov.taskchecker.loadtest;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.checker.CheckRunner;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator.Outcome;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator.TaskSpec;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.ServerSocket;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.SUCCESS;
+
+/**
+ * Offline end-to-end load test. Generates the repositories of synthetic
+ * students, writes a configuration that points at them with file:// urls,
+ * runs CheckRunner on it and reports the throughput, the peak memory of the
+ * harness and of the processes it starts, and the time of every stage. Usage:
+ * LoadHarness [--students 20] [--tasks 4] [--fail-ratio 0.15] [--hang-ratio 0.05]
+ * [--build-timeout 60] [--seed 42] [--output build/loadtest] [--gradle-home path] [--plagiarism]
+ * [--mode PLATFORM] [--workers 0] [--kill-worker-after 0]
+ * With --workers the check runs in the coordinator mode and the workers are
+ * started as separate processes; --kill-worker-after kills the first worker
+ * after the given amount of seconds to test the reassignment.
+ */
+public class LoadHarness {
+    private static final String MARKER = ".loadtest";
+    private static final LocalDate SEMESTER_START = LocalDate.of(2023, 9, 1);
+    private static final LocalDate SEMESTER_END = LocalDate.of(2023, 12, 28);
+    private static final long MEMORY_SAMPLE_MILLIS = 250;
+    private final int students;
+    private final int tasks;
+    private final double failRatio;
+    private final double hangRatio;
+    private final int buildTimeout;
+    private final long seed;
+    private final Path output;
+    private final String gradleHome;
+    private final boolean plagiarism;
+    private final String executionMode;
+    private final int workers;
+    private final int killWorkerAfter;
+    private int coordinatorPort;
+
+    /**
+     * Constructor.
+     *
+     * @param arguments command line arguments.
+     */
+    public LoadHarness(List<String> arguments) {
+        this.students = Integer.parseInt(getOption(arguments, "--students", "20"));
+        this.tasks = Integer.parseInt(getOption(arguments, "--tasks", "4"));
+        this.failRatio = Double.parseDouble(getOption(arguments, "--fail-ratio", "0.15"));
+        this.hangRatio = Double.parseDouble(getOption(arguments, "--hang-ratio", "0.05"));
+        this.buildTimeout = Integer.parseInt(getOption(arguments, "--build-timeout", "60"));
+        this.seed = Long.parseLong(getOption(arguments, "--seed", "42"));
+        this.output = Paths.get(getOption(arguments, "--output", "build/loadtest")).normalize();
+        this.gradleHome = getOption(arguments, "--gradle-home", null);
+        this.plagiarism = arguments.contains("--plagiarism");
+        this.executionMode = getOption(arguments, "--mode", "PLATFORM").toUpperCase();
+        this.workers = Integer.parseInt(getOption(arguments, "--workers", "0"));
+        this.killWorkerAfter = Integer.parseInt(getOption(arguments, "--kill-worker-after", "0"));
+    }
+
+    /**
+     * Starts the worker processes with the classpath of the harness. The
+     * output of every worker goes to its own log in the output folder.
+     *
+     * @return started workers, empty if the check runs in a single process.
+     * @throws IOException is thrown when a worker cant be started.
+     */
+    private List<Process> startWorkers() throws IOException {
+        List<Process> processes = new ArrayList<>();
+        String java = ProcessHandle.current().info().command().orElse("java");
+        for (int i = 1; i <= this.workers; i++) {
+            processes.add(new ProcessBuilder(
+                    java,
+                    "-cp",
+                    System.getProperty("java.class.path"),
+                    "ru.nsu.dolgov.taskchecker.Main",
+                    "--worker",
+                    "127.0.0.1:" + this.coordinatorPort,
+                    "--config",
+                    this.output.resolve("configuration").toString()
+            )
+                    .redirectErrorStream(true)
+                    .redirectOutput(this.output.resolve("worker-" + i + ".log").toFile())
+                    .start());
+        }
+        if (!processes.isEmpty()) {
+            Logger.log(INFO, "Started " + processes.size() + " workers", "LOAD TEST");
+        }
+        return processes;
+    }
+
+    /**
+     * Entry point.
+     *
+     * @param args command line arguments.
+     * @throws Exception is thrown when the repositories cant be generated or the run fails.
+     */
+    public static void main(String[] args) throws Exception {
+        new LoadHarness(List.of(args)).run();
+    }
+
+    /**
+     * Generates the data, runs the check and reports the results.
+     *
+     * @throws IOException          is thrown when a file cant be written.
+     * @throws GitAPIException      is thrown when a repository cant be generated.
+     * @throws InterruptedException is thrown when the run is interrupted.
+     */
+    public void run() throws IOException, GitAPIException, InterruptedException {
+        this.prepareOutput();
+        List<TaskSpec> taskSpecs = new ArrayList<>();
+        for (int i = 0; i < this.tasks; i++) {
+            taskSpecs.add(new TaskSpec(
+                    "Task_" + (i / 3 + 1) + "_" + (i % 3 + 1),
+                    SEMESTER_START.plusWeeks(3L + i * 12L / Math.max(1, this.tasks))
+            ));
+        }
+
+        long generationStart = System.nanoTime();
+        Map<Outcome, Integer> expected = new EnumMap<>(Outcome.class);
+        StudentRepositoryGenerator generator = new StudentRepositoryGenerator(
+                this.getJUnitLibraries(),
+                SEMESTER_START,
+                this.failRatio,
+                this.hangRatio
+        );
+        Random random = new Random(this.seed);
+        List<String> nicknames = new ArrayList<>();
+        for (int i = 0; i < this.students; i++) {
+            String nickname = String.format("student%04d", i);
+            nicknames.add(nickname);
+            for (Outcome outcome : generator.generate(this.output.resolve("remotes").resolve(nickname), nickname, taskSpecs, random)) {
+                expected.merge(outcome, 1, Integer::sum);
+            }
+        }
+        long generationMillis = (System.nanoTime() - generationStart) / 1_000_000;
+        Logger.log(INFO, "Generated " + this.students + " repositories in " + generationMillis + " ms", "LOAD TEST");
+
+        if (this.workers > 0) {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                this.coordinatorPort = socket.getLocalPort();
+            }
+        }
+        this.writeConfiguration(nicknames, taskSpecs);
+        ProcessTreeMemorySampler memory = new ProcessTreeMemorySampler(MEMORY_SAMPLE_MILLIS);
+        long runStart = System.nanoTime();
+        CheckRunner runner = new CheckRunner(
+                false,
+                this.output.resolve("configuration").toString(),
+                this.output.resolve("report").toString(),
+                this.workers > 0
+        );
+        runner.start();
+        List<Process> workerProcesses = this.startWorkers();
+        if (this.killWorkerAfter > 0 && !workerProcesses.isEmpty()) {
+            runner.join(this.killWorkerAfter * 1000L);
+            if (runner.isAlive()) {
+                workerProcesses.get(0).destroyForcibly();
+                Logger.log(INFO, "Killed the first worker", "LOAD TEST");
+            }
+        }
+        runner.join();
+        long runMillis = (System.nanoTime() - runStart) / 1_000_000;
+        for (Process worker : workerProcesses) {
+            if (!worker.waitFor(30, TimeUnit.SECONDS)) {
+                worker.destroyForcibly();
+            }
+        }
+        memory.close();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("students", this.students);
+        report.put("tasks", this.tasks);
+        report.put("seed", this.seed);
+        report.put("executionMode", this.executionMode);
+        report.put("workers", this.workers);
+        report.put("generationMillis", generationMillis);
+        report.put("runMillis", runMillis);
+        report.put("studentsPerMinute", runMillis == 0 ? 0 : this.students * 60_000.0 / runMillis);
+        report.put("peakRssKb", getPeakRssKb());
+        report.put("peakProcessTreeRssKb", memory.getPeakTotalRssKb());
+        report.put("peakGradleRssKb", memory.getPeakGradleRssKb());
+        report.put("peakProcesses", memory.getPeakProcesses());
+        report.put("expectedOutcomes", expected);
+        report.put("checkedOutcomes", this.countOutcomes());
+        report.put("stages", MetricsRegistry.getInstance().getSummary("load test").get("stages"));
+        Path reportPath = this.output.resolve("load-report.json");
+        Files.writeString(reportPath, new GsonBuilder().setPrettyPrinting().create().toJson(report));
+
+        Logger.log(
+                SUCCESS,
+                String.format(
+                        "%d students in %d ms: %.1f students/min, peak RSS %d kB, with Gradle and workers %d kB, report at %s",
+                        this.students,
+                        runMillis,
+                        report.get("studentsPerMinute"),
+                        (Long) report.get("peakRssKb"),
+                        memory.getPeakTotalRssKb(),
+                        reportPath
+                ),
+                "LOAD TEST"
+        );
+        Logger.flush();
+    }
+
+    /**
+     * Deletes the output of the previous run. Refuses to touch a
+     * folder that was not created by the harness.
+     *
+     * @throws IOException is thrown when the folder cant be deleted.
+     */
+    private void prepareOutput() throws IOException {
+        if (Files.exists(this.output)) {
+            if (!Files.exists(this.output.resolve(MARKER))) {
+                throw new IOException(this.output + " exists and was not created by the load test");
+            }
+            try (Stream<Path> paths = Files.walk(this.output)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+        Files.createDirectories(this.output.resolve("report"));
+        Files.createFile(this.output.resolve(MARKER));
+    }
+
+    /**
+     * Writes groups.groovy, tasks.groovy and additional.groovy of the generated course.
+     *
+     * @param nicknames nicknames of the students.
+     * @param taskSpecs tasks of the course.
+     * @throws IOException is thrown when a file cant be written.
+     */
+    private void writeConfiguration(List<String> nicknames, List<TaskSpec> taskSpecs) throws IOException {
+        Path configuration = this.output.resolve("configuration");
+        Files.createDirectories(configuration);
+
+        StringBuilder groups = new StringBuilder("groups {\n    group {\n        name 'loadtest'\n        students {\n");
+        for (String nickname : nicknames) {
+            groups.append("            student {\n")
+                    .append("                nickname '").append(nickname).append("'\n")
+                    .append("                studentName '").append(nickname).append("'\n")
+                    .append("                repository '")
+                    .append(this.output.resolve("remotes").resolve(nickname).toAbsolutePath().toUri())
+                    .append("'\n            }\n");
+        }
+        groups.append("        }\n    }\n}\n");
+        Files.writeString(configuration.resolve("groups.groovy"), groups);
+
+        StringBuilder tasksScript = new StringBuilder();
+        StringBuilder taskList = new StringBuilder();
+        for (TaskSpec task : taskSpecs) {
+            tasksScript.append("task {\n")
+                    .append("    id '").append(task.id()).append("'\n")
+                    .append("    title '").append(task.id()).append("'\n")
+                    .append("    points 1\n")
+                    .append("    softDeadline '").append(task.deadline()).append("'\n")
+                    .append("    hardDeadline '").append(task.deadline().plusWeeks(1)).append("'\n")
+                    .append("}\n\n");
+            taskList.append(taskList.isEmpty() ? "" : ", ").append("getTaskByName('").append(task.id()).append("')");
+        }
+        Files.writeString(configuration.resolve("tasks.groovy"), tasksScript);
+
+        StringBuilder additional = new StringBuilder("additionalSettings {\n");
+        additional.append("    pointsForActivenessPerWeek 2\n")
+                .append("    repositoriesPath '").append(this.path("repositories")).append("'\n")
+                .append("    executionMode '").append(this.executionMode).append("'\n")
+                .append("    cleanUp false\n")
+                .append("    useCheckCache false\n")
+                .append("    checkCachePath '").append(this.path("cache/checks")).append("'\n")
+                .append("    localCommitsActivity true\n")
+                .append("    cloneStrategy 'FULL'\n")
+                .append("    useMirrorCache false\n")
+                .append("    reportPrettyPrint false\n")
+                .append("    journalPath '").append(this.path("journal.jsonl")).append("'\n")
+                .append("    metricsPath '").append(this.path("metrics")).append("'\n")
+                .append("    logLevel 'INFO'\n")
+                .append("    logJsonPath '").append(this.path("log.jsonl")).append("'\n")
+                .append("    controlPoints getStringArrayList('").append(SEMESTER_START).append("', '")
+                .append(SEMESTER_END).append("')\n")
+                .append("    githubToken ''\n\n")
+                .append("    gradle {\n")
+                .append("        reuseConnections true\n")
+                .append("        daemonIdleTimeout 60\n");
+        if (this.gradleHome != null) {
+            additional.append("        installation '").append(this.gradleHome.replace('\\', '/')).append("'\n")
+                    .append("        offline true\n");
+        }
+        additional.append("    }\n\n");
+        if (this.workers > 0) {
+            additional.append("    distributed {\n")
+                    .append("        port ").append(this.coordinatorPort).append("\n")
+                    .append("        secret '").append(Long.toHexString(new Random().nextLong())).append("'\n")
+                    .append("        heartbeatInterval 2\n")
+                    .append("        heartbeatTimeout 10\n")
+                    .append("        maxAttempts 3\n")
+                    .append("        unitsPerWorker 4\n")
+                    .append("    }\n\n");
+        }
+        additional.append("    timeouts {\n")
+                .append("        download 60\n")
+                .append("        build ").append(this.buildTimeout).append("\n")
+                .append("        student 0\n")
+                .append("    }\n\n")
+                .append("    marksMap {\n        excellent 20\n        good 17\n        satisfactory 15\n    }\n\n")
+                .append("    checks {\n");
+        for (String nickname : nicknames) {
+            additional.append("        toCheck {\n")
+                    .append("            student getStudentByName('").append(nickname).append("')\n")
+                    .append("            tasksToCheck getTasksList(").append(taskList).append(")\n")
+                    .append("        }\n");
+        }
+        additional.append("    }\n");
+        if (this.plagiarism) {
+            additional.append("\n    toCheckPlagiarism {\n")
+                    .append("        plagiarismReportFolder '").append(this.path("plagiarism")).append("'\n")
+                    .append("        plagiarismTasks getTasksList(").append(taskList).append(")\n")
+                    .append("        plagiarismPrefilter true\n")
+                    .append("        plagiarismCachePath '").append(this.path("cache/plagiarism")).append("'\n")
+                    .append("    }\n");
+        }
+        additional.append("}\n");
+        Files.writeString(configuration.resolve("additional.groovy"), additional);
+    }
+
+    /**
+     * Returns the path inside the output folder as it is written to the configuration.
+     *
+     * @param relative path inside the output folder.
+     * @return path with forward slashes.
+     */
+    private String path(String relative) {
+        return this.output.resolve(relative).toString().replace('\\', '/');
+    }
+
+    /**
+     * Counts the outcomes of the checked tasks in the JSON report.
+     *
+     * @return amount of the built, passed, failed and timed out tasks.
+     * @throws IOException is thrown when the report cant be read.
+     */
+    private Map<String, Integer> countOutcomes() throws IOException {
+        Map<String, Integer> outcomes = new LinkedHashMap<>();
+        Path reportPath = this.output.resolve("report").resolve("task-checker-report.json");
+        if (!Files.exists(reportPath)) {
+            Logger.log(ERROR, "No report at " + reportPath, "LOAD TEST");
+            return outcomes;
+        }
+        try (Reader reader = Files.newBufferedReader(reportPath, StandardCharsets.UTF_8)) {
+            JsonObject report = JsonParser.parseReader(reader).getAsJsonObject();
+            for (JsonElement student : report.getAsJsonArray("taskRunnerResults")) {
+                for (JsonElement task : student.getAsJsonObject().getAsJsonArray("tasksResults")) {
+                    JsonObject result = task.getAsJsonObject();
+                    String outcome;
+                    if (result.has("timedOut") && result.get("timedOut").getAsBoolean()) {
+                        outcome = "timedOut";
+                    } else if (!result.get("build").getAsBoolean()) {
+                        outcome = "notBuilt";
+                    } else if (result.get("failedTests").getAsInt() > 0) {
+                        outcome = "failed";
+                    } else {
+                        outcome = "passed";
+                    }
+                    outcomes.merge(outcome, 1, Integer::sum);
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Finds the jars of JUnit 4 and hamcrest on the classpath of the harness.
+     *
+     * @return paths of the jars.
+     * @throws IOException is thrown when a jar is not found.
+     */
+    private List<Path> getJUnitLibraries() throws IOException {
+        List<Path> libraries = new ArrayList<>();
+        for (String className : List.of("org.junit.Test", "org.hamcrest.Matcher")) {
+            try {
+                libraries.add(Paths.get(
+                        Class.forName(className).getProtectionDomain().getCodeSource().getLocation().toURI()
+                ));
+            } catch (ReflectiveOperationException | URISyntaxException e) {
+                throw new IOException("Cant find " + className + " on the classpath", e);
+            }
+        }
+        return libraries;
+    }
+
+    /**
+     * Returns the peak resident set size of the harness itself.
+     *
+     * @return VmHWM in kB, -1 if it is not available.
+     */
+    private static long getPeakRssKb() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmHWM:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(-1L);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the value that follows the option.
+     *
+     * @param arguments    command line arguments.
+     * @param option       name of the option.
+     * @param defaultValue value used when the option is not given.
+     * @return value of the option.
+     */
+    private static String getOption(List<String> arguments, String option, String defaultValue) {
+        int index = arguments.indexOf(option);
+        return index >= 0 && index + 1 < arguments.size() ? arguments.get(index + 1) : defaultValue;
+    }
+}
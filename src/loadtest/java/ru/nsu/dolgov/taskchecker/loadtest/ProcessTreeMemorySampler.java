@@ -0,0 +1,166 @@
+package ru.nsu.dolgov.taskchecker.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Samples the resident memory of everything a run starts. The checker does
+ * most of its work outside of its own process: the builds run in Gradle
+ * daemons and the distributed mode starts worker processes, so the peak of
+ * the harness alone says little. Every sample sums VmRSS of the harness,
+ * of its descendants and of the Gradle daemons started after the sampler,
+ * which the Tooling API may detach from the process tree.
+ */
+public class ProcessTreeMemorySampler implements AutoCloseable {
+    private static final String GRADLE_DAEMON = "GradleDaemon";
+    private final long intervalMillis;
+    private final Instant started = Instant.now();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile long peakTotalRssKb;
+    private volatile long peakGradleRssKb;
+    private volatile int peakProcesses;
+
+    /**
+     * Constructor, starts sampling right away.
+     *
+     * @param intervalMillis time between the samples.
+     */
+    public ProcessTreeMemorySampler(long intervalMillis) {
+        this.intervalMillis = intervalMillis;
+        this.thread = new Thread(this::run, "memory-sampler");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Returns the highest sampled sum over all the processes of the run.
+     *
+     * @return kB, 0 if nothing could be sampled.
+     */
+    public long getPeakTotalRssKb() {
+        return this.peakTotalRssKb;
+    }
+
+    /**
+     * Returns the highest sampled sum over the Gradle daemons of the run.
+     *
+     * @return kB.
+     */
+    public long getPeakGradleRssKb() {
+        return this.peakGradleRssKb;
+    }
+
+    /**
+     * Returns the highest number of processes seen in one sample.
+     *
+     * @return number of processes.
+     */
+    public int getPeakProcesses() {
+        return this.peakProcesses;
+    }
+
+    /**
+     * Takes the last sample and stops the sampler.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        this.thread.interrupt();
+        try {
+            this.thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.sample();
+    }
+
+    /**
+     * Body of the sampling thread.
+     */
+    private void run() {
+        while (this.running) {
+            this.sample();
+            try {
+                Thread.sleep(this.intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sums the memory of the processes of the run and updates the peaks.
+     */
+    private synchronized void sample() {
+        Set<Long> seen = new HashSet<>();
+        long total = 0;
+        long gradle = 0;
+        ProcessHandle current = ProcessHandle.current();
+        seen.add(current.pid());
+        total += getRssKb(current.pid());
+        try (Stream<ProcessHandle> descendants = current.descendants()) {
+            for (ProcessHandle process : (Iterable<ProcessHandle>) descendants::iterator) {
+                if (seen.add(process.pid())) {
+                    long rss = getRssKb(process.pid());
+                    total += rss;
+                    if (this.isGradleDaemon(process, false)) {
+                        gradle += rss;
+                    }
+                }
+            }
+        }
+        try (Stream<ProcessHandle> processes = ProcessHandle.allProcesses()) {
+            for (ProcessHandle process : (Iterable<ProcessHandle>) processes::iterator) {
+                if (!seen.contains(process.pid()) && this.isGradleDaemon(process, true)) {
+                    seen.add(process.pid());
+                    long rss = getRssKb(process.pid());
+                    total += rss;
+                    gradle += rss;
+                }
+            }
+        }
+        this.peakTotalRssKb = Math.max(this.peakTotalRssKb, total);
+        this.peakGradleRssKb = Math.max(this.peakGradleRssKb, gradle);
+        this.peakProcesses = Math.max(this.peakProcesses, seen.size());
+    }
+
+    /**
+     * Tells whether the process is a Gradle daemon.
+     *
+     * @param process         process to check.
+     * @param startedByTheRun whether only the daemons started after the sampler count.
+     * @return true if it is.
+     */
+    private boolean isGradleDaemon(ProcessHandle process, boolean startedByTheRun) {
+        ProcessHandle.Info info = process.info();
+        if (startedByTheRun && info.startInstant().map(start -> start.isBefore(this.started)).orElse(true)) {
+            return false;
+        }
+        return info.commandLine().map(commandLine -> commandLine.contains(GRADLE_DAEMON)).orElse(false);
+    }
+
+    /**
+     * Returns the current resident set size of a process.
+     *
+     * @param pid id of the process.
+     * @return VmRSS in kB, 0 if the process is gone or it is not available.
+     */
+    private static long getRssKb(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try (Stream<String> lines = Files.lines(status)) {
+            return lines.filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(0L);
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package ru.nsu.dolgov.taskchecker.loadtest;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Generates the repository of a synthetic student. Every task is a small
+ * Gradle project whose tests pass, fail or hang, and the history of every
+ * task is a few commits spread over the weeks before its deadline. The
+ * projects only depend on the jars committed to libs/, so they are built
+ * without the network.
+ */
+public class StudentRepositoryGenerator {
+    private final List<Path> libraries;
+    private final LocalDate semesterStart;
+    private final double failRatio;
+    private final double hangRatio;
+
+    /**
+     * Constructor.
+     *
+     * @param libraries     jars of JUnit 4 and hamcrest that the projects are compiled with.
+     * @param semesterStart date of the first commit.
+     * @param failRatio     share of the tasks with a failing test.
+     * @param hangRatio     share of the tasks with a test that never finishes.
+     */
+    public StudentRepositoryGenerator(List<Path> libraries, LocalDate semesterStart, double failRatio, double hangRatio) {
+        this.libraries = libraries;
+        this.semesterStart = semesterStart;
+        this.failRatio = failRatio;
+        this.hangRatio = hangRatio;
+    }
+
+    /**
+     * Outcome of the tests of a task.
+     */
+    public enum Outcome {
+        PASS, FAIL, HANG
+    }
+
+    /**
+     * Creates the repository.
+     *
+     * @param directory directory of the repository, must not exist.
+     * @param nickname  nickname of the student.
+     * @param tasks     ids of the tasks with their deadlines.
+     * @param random    source of the outcomes and the commit times.
+     * @return outcomes of the tasks in the order of the ids.
+     * @throws IOException     is thrown when a file cant be written.
+     * @throws GitAPIException is thrown when a commit fails.
+     */
+    public Outcome[] generate(Path directory, String nickname, List<TaskSpec> tasks, Random random) throws
+            IOException,
+            GitAPIException {
+        Outcome[] outcomes = new Outcome[tasks.size()];
+        Files.createDirectories(directory);
+        try (Git git = Git.init().setDirectory(directory.toFile()).setInitialBranch("main").call()) {
+            Path libs = directory.resolve("libs");
+            Files.createDirectories(libs);
+            for (Path library : this.libraries) {
+                Files.copy(library, libs.resolve(library.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.writeString(directory.resolve(".gitignore"), "build/\n.gradle/\n");
+            git.add().addFilepattern(".").call();
+            this.commit(git, nickname, "Initial commit", this.semesterStart.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+
+            for (int i = 0; i < tasks.size(); i++) {
+                TaskSpec task = tasks.get(i);
+                double roll = random.nextDouble();
+                outcomes[i] = roll < this.hangRatio ? Outcome.HANG :
+                        roll < this.hangRatio + this.failRatio ? Outcome.FAIL : Outcome.PASS;
+
+                long deadline = task.deadline().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+                long start = Math.max(
+                        this.semesterStart.atStartOfDay().toEpochSecond(ZoneOffset.UTC),
+                        deadline - 21L * 24 * 60 * 60
+                );
+                int commits = 2 + random.nextInt(4);
+                long[] times = new long[commits];
+                for (int j = 0; j < commits; j++) {
+                    times[j] = start + (long) (random.nextDouble() * (deadline + 3L * 24 * 60 * 60 - start));
+                }
+                Arrays.sort(times);
+
+                Path project = directory.resolve(task.id());
+                for (int j = 0; j < commits; j++) {
+                    this.writeProject(project, nickname, task.id(), j == commits - 1 ? outcomes[i] : Outcome.FAIL, j);
+                    git.add().addFilepattern(task.id()).call();
+                    this.commit(git, nickname, task.id() + ": step " + (j + 1), times[j]);
+                }
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Writes the Gradle project of a task.
+     *
+     * @param project  directory of the project.
+     * @param nickname nickname of the student, used as the package.
+     * @param taskId   id of the task.
+     * @param outcome  outcome of the tests.
+     * @param revision number of the commit, changes the sources a bit.
+     * @throws IOException is thrown when a file cant be written.
+     */
+    private void writeProject(Path project, String nickname, String taskId, Outcome outcome, int revision) throws
+            IOException {
+        String packageName = "ru.nsu." + nickname.replaceAll("[^A-Za-z0-9]", "").toLowerCase();
+        Path sources = project.resolve("src/main/java/" + packageName.replace('.', '/'));
+        Path tests = project.resolve("src/test/java/" + packageName.replace('.', '/'));
+        Files.createDirectories(sources);
+        Files.createDirectories(tests);
+
+        StringBuilder dependencies = new StringBuilder();
+        for (Path library : this.libraries) {
+            dependencies.append("    testImplementation files('../libs/").append(library.getFileName()).append("')\n");
+        }
+        Files.writeString(project.resolve("settings.gradle"), "rootProject.name = '" + taskId + "'\n");
+        Files.writeString(project.resolve("build.gradle"), """
+                plugins {
+                    id 'java'
+                }
+
+                dependencies {
+                %s}
+
+                test {
+                    useJUnit()
+                }
+                """.formatted(dependencies));
+
+        Files.writeString(sources.resolve("Solution.java"), """
+                package %s;
+
+                /**
+                 * Solution of %s, revision %d.
+                 */
+                public class Solution {
+                    /**
+                     * Sums the numbers.
+                     *
+                     * @param numbers numbers to sum.
+                     * @return sum.
+                     */
+                    public static long sum(int... numbers) {
+                        long sum = 0;
+                        for (int number : numbers) {
+                            sum += number;
+                        }
+                        return sum;
+                    }
+                }
+                """.formatted(packageName, taskId, revision));
+
+        String lastTest = switch (outcome) {
+            case PASS -> "Assert.assertEquals(0, Solution.sum());";
+            case FAIL -> "Assert.assertEquals(1, Solution.sum());";
+            case HANG -> "while (true) {\n            Thread.sleep(1000);\n        }";
+        };
+        Files.writeString(tests.resolve("SolutionTest.java"), """
+                package %s;
+
+                import org.junit.Assert;
+                import org.junit.Test;
+
+                public class SolutionTest {
+                    @Test
+                    public void sumsNumbers() {
+                        Assert.assertEquals(6, Solution.sum(1, 2, 3));
+                    }
+
+                    @Test
+                    public void sumsNothing() throws Exception {
+                        %s
+                    }
+                }
+                """.formatted(packageName, lastTest));
+    }
+
+    /**
+     * Commits the staged changes at the given time.
+     *
+     * @param git      repository.
+     * @param nickname nickname of the student.
+     * @param message  message of the commit.
+     * @param time     time of the commit in seconds since the epoch.
+     * @throws GitAPIException is thrown when the commit fails.
+     */
+    private void commit(Git git, String nickname, String message, long time) throws GitAPIException {
+        PersonIdent author = new PersonIdent(
+                nickname,
+                nickname + "@example.com",
+                new Date(time * 1000),
+                TimeZone.getTimeZone("UTC")
+        );
+        git.commit().setMessage(message).setAuthor(author).setCommitter(author).setSign(false).call();
+    }
+
+    /**
+     * Task of the generated course.
+     *
+     * @param id       id of the task, also the name of its directory.
+     * @param deadline deadline of the task.
+     */
+    public record TaskSpec(String id, LocalDate deadline) {
+    }
+}
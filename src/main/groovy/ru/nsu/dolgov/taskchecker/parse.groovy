@@ -1,8 +1,15 @@
 package ru.nsu.dolgov.taskchecker
 
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.DistributedSettings
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.GithubSettings
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.GradleSettings
 import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.MarksMap
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.PipelineSettings
 import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.PlagiarismCandidate
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.TimeoutSettings
 import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings
+import ru.nsu.dolgov.taskchecker.models.core.CloneStrategy
+import ru.nsu.dolgov.taskchecker.models.core.ExecutionMode
 import ru.nsu.dolgov.taskchecker.models.core.Group
 import ru.nsu.dolgov.taskchecker.models.core.Student
 import ru.nsu.dolgov.taskchecker.models.core.Task
@@ -175,6 +182,78 @@ class AdditionalDelegate {
         settings.marksMap = marksMap
     }
 
+    /**
+     * Parser of the pipeline object.
+     *
+     * @param cl closure that describes thread counts and queue sizes of the pipeline stages.
+     */
+    void pipeline(Closure cl) {
+        PipelineSettings pipelineSettings = new PipelineSettings()
+        cl.delegate = pipelineSettings
+        cl.resolveStrategy = Closure.DELEGATE_FIRST
+        cl.call()
+
+        settings.pipeline = pipelineSettings
+    }
+
+    /**
+     * Parser of the gradle object.
+     *
+     * @param cl closure that describes how the Gradle connections and daemons are managed.
+     */
+    void gradle(Closure cl) {
+        GradleSettings gradleSettings = new GradleSettings()
+        cl.delegate = gradleSettings
+        cl.resolveStrategy = Closure.DELEGATE_FIRST
+        cl.call()
+
+        settings.gradle = gradleSettings
+    }
+
+    /**
+     * Parser of the github object.
+     *
+     * @param cl closure that describes how GitHub API is accessed.
+     */
+    void github(Closure cl) {
+        GithubSettings githubSettings = new GithubSettings()
+        cl.delegate = githubSettings
+        cl.resolveStrategy = Closure.DELEGATE_FIRST
+        cl.call()
+
+        settings.github = githubSettings
+    }
+
+    /**
+     * Parser of the timeouts object.
+     *
+     * @param cl closure that describes the time budgets in seconds, 0 disables a budget.
+     */
+    void timeouts(Closure cl) {
+        TimeoutSettings timeoutSettings = new TimeoutSettings()
+        cl.delegate = timeoutSettings
+        cl.resolveStrategy = Closure.DELEGATE_FIRST
+        cl.call()
+
+        settings.timeouts = timeoutSettings
+    }
+
+    /**
+     * Parser of the distributed object.
+     *
+     * @param cl closure that describes the address of the coordinator, the secret the workers must
+     *           present and how the dead workers are detected. The coordinator listens on the
+     *           loopback only unless bindAddress says otherwise, set a secret before opening it.
+     */
+    void distributed(Closure cl) {
+        DistributedSettings distributedSettings = new DistributedSettings()
+        cl.delegate = distributedSettings
+        cl.resolveStrategy = Closure.DELEGATE_FIRST
+        cl.call()
+
+        settings.distributed = distributedSettings
+    }
+
     /**
      * Parser of the control points.
      *
@@ -194,12 +273,30 @@ class AdditionalDelegate {
     }
 
     /**
-     * Parser of a runInParallel property.
+     * Parser of a runInParallel property, kept for the old configurations.
      *
-     * @param parallelRun Boolean, describes whether app should run in parallel or not.
+     * @param parallelRun Boolean, true is the same as the PLATFORM execution mode.
      */
     void runInParallel(Boolean parallelRun) {
-        settings.runInParallel = parallelRun
+        settings.executionMode = parallelRun ? ExecutionMode.PLATFORM : ExecutionMode.SEQUENTIAL
+    }
+
+    /**
+     * Parses the execution mode: SEQUENTIAL, PLATFORM or VIRTUAL.
+     *
+     * @param mode String, name of the mode the stages of the check run in.
+     */
+    void executionMode(String mode) {
+        settings.executionMode = ExecutionMode.valueOf(mode.toUpperCase())
+    }
+
+    /**
+     * Parses the amount of the parallel builds.
+     *
+     * @param threads Integer, size of the build pool, 0 for the amount of the processors.
+     */
+    void buildThreads(Integer threads) {
+        settings.buildThreads = threads
     }
 
     /**
@@ -239,6 +336,69 @@ class AdditionalDelegate {
         settings.plagiarismReportFolder = path
     }
 
+    /**
+     * Parses the tasks that will be checked for the plagiarism.
+     *
+     * @param tasks List<Task>, every task is compared in a separate JPlag run.
+     */
+    void plagiarismTasks(List<Task> tasks) {
+        settings.plagiarismTasks = tasks
+    }
+
+    /**
+     * Parses the amount of the JPlag runs that work at the same time.
+     *
+     * @param threads Integer, size of the pool of the plagiarism checks.
+     */
+    void plagiarismThreads(Integer threads) {
+        settings.plagiarismThreads = threads
+    }
+
+    /**
+     * Parses the plagiarismPrefilter property.
+     *
+     * @param prefilter Boolean, if true only the submissions with similar fingerprints are compared by JPlag.
+     */
+    void plagiarismPrefilter(Boolean prefilter) {
+        settings.plagiarismPrefilter = prefilter
+    }
+
+    /**
+     * Parses the minimal estimated similarity of a candidate pair.
+     *
+     * @param threshold Double, from 0 to 1.
+     */
+    void plagiarismThreshold(Double threshold) {
+        settings.plagiarismThreshold = threshold
+    }
+
+    /**
+     * Parses the maximal amount of the submissions compared by one JPlag run of the prefilter.
+     *
+     * @param size Integer, larger groups of similar submissions are split into batches.
+     */
+    void plagiarismMaxGroupSize(Integer size) {
+        settings.plagiarismMaxGroupSize = size
+    }
+
+    /**
+     * Parses folder that will be used to store the fingerprints and the similarities of the submissions.
+     *
+     * @param path String, folder that SignatureStore and SimilarityStore will use.
+     */
+    void plagiarismCachePath(String path) {
+        settings.plagiarismCachePath = path
+    }
+
+    /**
+     * Parses the amount of the most similar pairs shown in the report.
+     *
+     * @param topPairs Integer, amount of the pairs per task.
+     */
+    void plagiarismTopPairs(Integer topPairs) {
+        settings.plagiarismTopPairs = topPairs
+    }
+
     /**
      * Parses the cleanUp property.
      *
@@ -248,6 +408,125 @@ class AdditionalDelegate {
         settings.cleanUp = cleanup
     }
 
+    /**
+     * Parses the useCheckCache property.
+     *
+     * @param useCache Boolean, if true unchanged tasks are not built again.
+     */
+    void useCheckCache(Boolean useCache) {
+        settings.useCheckCache = useCache
+    }
+
+    /**
+     * Parses the collectTestCases property.
+     *
+     * @param collect Boolean, if true the name, outcome and duration of every test case are reported.
+     */
+    void collectTestCases(Boolean collect) {
+        settings.collectTestCases = collect
+    }
+
+    /**
+     * Parses folder that will be used to store the check results cache.
+     *
+     * @param path String, folder that CheckCache will use.
+     */
+    void checkCachePath(String path) {
+        settings.checkCachePath = path
+    }
+
+    /**
+     * Parses the localCommitsActivity property.
+     *
+     * @param local Boolean, if true the activity is computed from the cloned repository instead of GitHub API.
+     */
+    void localCommitsActivity(Boolean local) {
+        settings.localCommitsActivity = local
+    }
+
+    /**
+     * Parses the clone strategy: FULL, SHALLOW, PARTIAL or SPARSE.
+     *
+     * @param strategy String, name of the strategy used to download the repositories.
+     */
+    void cloneStrategy(String strategy) {
+        settings.cloneStrategy = CloneStrategy.valueOf(strategy.toUpperCase())
+    }
+
+    /**
+     * Parses the useMirrorCache property.
+     *
+     * @param useCache Boolean, if true repositories are fetched into persistent mirrors.
+     *                 The mirrors keep the whole history, so the SHALLOW and PARTIAL
+     *                 strategies do not apply to them.
+     */
+    void useMirrorCache(Boolean useCache) {
+        settings.useMirrorCache = useCache
+    }
+
+    /**
+     * Parses folder that will be used to store the mirrors of the repositories.
+     *
+     * @param path String, folder that MirrorCache will use.
+     */
+    void mirrorCachePath(String path) {
+        settings.mirrorCachePath = path
+    }
+
+    /**
+     * Parses the reportPrettyPrint property.
+     *
+     * @param prettyPrint Boolean, if false the JSON report is written without indentation.
+     */
+    void reportPrettyPrint(Boolean prettyPrint) {
+        settings.reportPrettyPrint = prettyPrint
+    }
+
+    /**
+     * Parses the reportGzip property.
+     *
+     * @param gzip Boolean, if true the JSON report is compressed.
+     */
+    void reportGzip(Boolean gzip) {
+        settings.reportGzip = gzip
+    }
+
+    /**
+     * Parses file that will be used as the journal of the results.
+     *
+     * @param path String, file that ResultJournal will append the results to.
+     */
+    void journalPath(String path) {
+        settings.journalPath = path
+    }
+
+    /**
+     * Parses the folder of the metrics.
+     *
+     * @param path String, folder of the Prometheus file and the JSON summaries, empty to skip the export.
+     */
+    void metricsPath(String path) {
+        settings.metricsPath = path
+    }
+
+    /**
+     * Parses the minimal level of the logged messages.
+     *
+     * @param level String, one of INFO, SUCCESS, WARNING and ERROR.
+     */
+    void logLevel(String level) {
+        settings.logLevel = Logger.LogLevel.valueOf(level.toUpperCase())
+    }
+
+    /**
+     * Parses the file the log is written to as JSON lines.
+     *
+     * @param path String, file of the log, empty to write only to the console.
+     */
+    void logJsonPath(String path) {
+        settings.logJsonPath = path
+    }
+
     /**
      * Parses the student that will be checked for the plagiarism.
      *
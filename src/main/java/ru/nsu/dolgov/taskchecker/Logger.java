@@ -1,33 +1,89 @@
 package ru.nsu.dolgov.taskchecker;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
 
 import static ru.nsu.dolgov.taskchecker.Logger.Colors.*;
 
 /**
- * Logger implementation.
+ * Logger implementation. The callers only put the message into a lock free
+ * ring buffer, and a single background thread formats it and writes it to the
+ * console and, if configured, to a JSON lines file. When the buffer is full
+ * the callers wait, so no message is ever dropped. The writer thread parks
+ * while there is nothing to write and is unparked by the next message.
  */
 public class Logger {
-    private static String getCurrentDate() {
-        return new SimpleDateFormat("HH:mm:ss.SSS").format(new Date());
+    private static final int CAPACITY = 1 << 14;
+    private static final int MASK = CAPACITY - 1;
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter JSON_TIME_FORMATTER = DateTimeFormatter.ISO_OFFSET_DATE_TIME
+            .withZone(ZoneId.systemDefault());
+    private static final Event[] EVENTS = new Event[CAPACITY];
+    private static final AtomicLongArray SEQUENCES = new AtomicLongArray(CAPACITY);
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static final AtomicLong FLUSHED = new AtomicLong();
+    private static final AtomicLong FLUSH_REQUESTED = new AtomicLong();
+    private static final Object JSON_LOCK = new Object();
+    private static volatile boolean writerParked;
+    private static volatile LogLevel minimalLevel = LogLevel.INFO;
+    private static volatile Writer jsonWriter;
+    private static final Thread WRITER;
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            EVENTS[i] = new Event();
+            SEQUENCES.set(i, i);
+        }
+        WRITER = new Thread(Logger::drain, "logger");
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Logger::close, "logger-shutdown"));
     }
 
     /**
-     * Color token getter.
+     * Applies the configuration of the run.
      *
-     * @param level level of the log.
-     * @return String, color token.
+     * @param level    minimal level of the logged messages.
+     * @param jsonPath file the messages are appended to as JSON lines, null or empty to disable it.
      */
-    private static String getColorToken(LogLevel level) {
-        String firstColorToken = RED;
-        switch (level) {
-            case INFO -> firstColorToken = BLUE;
-            case ERROR -> firstColorToken = RED;
-            case WARNING -> firstColorToken = YELLOW;
-            case SUCCESS -> firstColorToken = GREEN;
+    public static synchronized void configure(LogLevel level, String jsonPath) {
+        minimalLevel = level;
+        flush();
+        closeJsonWriter();
+        if (jsonPath == null || jsonPath.isBlank()) {
+            return;
+        }
+        try {
+            Path path = Paths.get(jsonPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Writer json = Files.newBufferedWriter(
+                    path,
+                    StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND
+            );
+            synchronized (JSON_LOCK) {
+                jsonWriter = json;
+            }
+        } catch (IOException e) {
+            log(LogLevel.ERROR, "Cant open the log file " + jsonPath, "LOGGER");
         }
-        return firstColorToken;
     }
 
     /**
@@ -37,11 +93,7 @@ public class Logger {
      * @param message message.
      */
     public static void log(LogLevel level, String message) {
-        System.out.printf(
-                "%s[%s][%s]%s %s%s%s\n",
-                YELLOW_BOLD_BRIGHT, getCurrentDate(), "SYSTEM", RESET,
-                getColorToken(level), message, RESET
-        );
+        log(level, message, "SYSTEM");
     }
 
     /**
@@ -52,15 +104,255 @@ public class Logger {
      * @param source source of the log.
      */
     public static void log(LogLevel level, String message, String source) {
-        System.out.printf(
-                "%s[%s][%s]%s %s%s%s\n",
-                YELLOW_BOLD_BRIGHT, getCurrentDate(), source.toUpperCase(), RESET,
-                getColorToken(level), message, RESET
-        );
+        if (level.severity < minimalLevel.severity) {
+            return;
+        }
+        long time = System.currentTimeMillis();
+        long position = claim();
+        Event event = EVENTS[(int) (position & MASK)];
+        event.time = time;
+        event.level = level;
+        event.source = source == null ? "SYSTEM" : source;
+        event.message = message;
+        event.thread = Thread.currentThread().getName();
+        SEQUENCES.set((int) (position & MASK), position + 1);
+        if (writerParked) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    /**
+     * Waits until every message logged before the call is written and flushed.
+     * Messages logged meanwhile by other threads do not delay it, the writer
+     * flushes as soon as it passes the requested position.
+     */
+    public static void flush() {
+        long target = TAIL.get();
+        FLUSH_REQUESTED.accumulateAndGet(target, Math::max);
+        while (FLUSHED.get() < target && WRITER.isAlive()) {
+            LockSupport.unpark(WRITER);
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Claims a slot of the ring buffer, waiting while it is full.
+     *
+     * @return position of the slot.
+     */
+    private static long claim() {
+        while (true) {
+            long position = TAIL.get();
+            long sequence = SEQUENCES.get((int) (position & MASK));
+            if (sequence == position) {
+                if (TAIL.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (sequence < position) {
+                LockSupport.unpark(WRITER);
+                Thread.yield();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Body of the writer thread. Writes the published messages in order,
+     * flushes the output whenever the buffer is drained or a flush asked for
+     * a position it has passed, and parks while there is nothing to write.
+     */
+    private static void drain() {
+        Writer console = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        StringBuilder line = new StringBuilder(256);
+        long head = 0;
+        while (true) {
+            int index = (int) (head & MASK);
+            if (SEQUENCES.get(index) != head + 1) {
+                flushOutput(console, head);
+                writerParked = true;
+                if (SEQUENCES.get(index) != head + 1) {
+                    LockSupport.park();
+                }
+                writerParked = false;
+                continue;
+            }
+
+            Event event = EVENTS[index];
+            try {
+                line.setLength(0);
+                appendConsoleLine(line, event);
+                console.append(line);
+                if (jsonWriter != null) {
+                    synchronized (JSON_LOCK) {
+                        Writer json = jsonWriter;
+                        if (json != null) {
+                            line.setLength(0);
+                            appendJsonLine(line, event);
+                            json.append(line);
+                        }
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+            event.message = null;
+            event.source = null;
+            event.thread = null;
+            SEQUENCES.lazySet(index, head + CAPACITY);
+            head++;
+            if (FLUSH_REQUESTED.get() > FLUSHED.get() && FLUSH_REQUESTED.get() <= head) {
+                flushOutput(console, head);
+            }
+        }
     }
 
+    /**
+     * Flushes the console and the JSON lines file and publishes the position
+     * everything before which is written.
+     *
+     * @param console console writer of the writer thread.
+     * @param head    position of the next message to write.
+     */
+    private static void flushOutput(Writer console, long head) {
+        try {
+            console.flush();
+            synchronized (JSON_LOCK) {
+                Writer json = jsonWriter;
+                if (json != null) {
+                    json.flush();
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        FLUSHED.set(head);
+    }
+
+    /**
+     * Writes the remaining messages when the process exits.
+     */
+    private static void close() {
+        flush();
+        closeJsonWriter();
+    }
+
+    /**
+     * Closes the JSON lines file if it is open.
+     */
+    private static void closeJsonWriter() {
+        synchronized (JSON_LOCK) {
+            Writer json = jsonWriter;
+            jsonWriter = null;
+            if (json != null) {
+                try {
+                    json.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Formats the colored console line.
+     *
+     * @param line  builder the line is appended to.
+     * @param event logged message.
+     */
+    private static void appendConsoleLine(StringBuilder line, Event event) {
+        line.append(YELLOW_BOLD_BRIGHT).append('[');
+        TIME_FORMATTER.formatTo(Instant.ofEpochMilli(event.time), line);
+        line.append("][").append(event.source.toUpperCase()).append(']').append(RESET).append(' ')
+                .append(getColorToken(event.level)).append(event.message).append(RESET).append('\n');
+    }
+
+    /**
+     * Formats the JSON line.
+     *
+     * @param line  builder the line is appended to.
+     * @param event logged message.
+     */
+    private static void appendJsonLine(StringBuilder line, Event event) {
+        line.append("{\"time\":\"");
+        JSON_TIME_FORMATTER.formatTo(Instant.ofEpochMilli(event.time), line);
+        line.append("\",\"level\":\"").append(event.level.name()).append("\",\"source\":");
+        appendJsonString(line, event.source.toUpperCase());
+        line.append(",\"thread\":");
+        appendJsonString(line, event.thread);
+        line.append(",\"message\":");
+        appendJsonString(line, event.message);
+        line.append("}\n");
+    }
+
+    /**
+     * Appends the value as a quoted and escaped JSON string.
+     *
+     * @param line  builder the value is appended to.
+     * @param value value, null is written as null.
+     */
+    private static void appendJsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char current = value.charAt(i);
+            switch (current) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (current < 0x20) {
+                        line.append(String.format("\\u%04x", (int) current));
+                    } else {
+                        line.append(current);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    /**
+     * Color token getter.
+     *
+     * @param level level of the log.
+     * @return String, color token.
+     */
+    private static String getColorToken(LogLevel level) {
+        String firstColorToken = RED;
+        switch (level) {
+            case INFO -> firstColorToken = BLUE;
+            case ERROR -> firstColorToken = RED;
+            case WARNING -> firstColorToken = YELLOW;
+            case SUCCESS -> firstColorToken = GREEN;
+        }
+        return firstColorToken;
+    }
+
+    /**
+     * Levels of the log, the messages below the configured severity are skipped.
+     */
     public enum LogLevel {
-        ERROR, INFO, WARNING, SUCCESS
+        ERROR(3), INFO(0), WARNING(2), SUCCESS(1);
+
+        private final int severity;
+
+        LogLevel(int severity) {
+            this.severity = severity;
+        }
+    }
+
+    /**
+     * Slot of the ring buffer, reused for every message that passes through it.
+     */
+    private static class Event {
+        private long time;
+        private LogLevel level;
+        private String source;
+        private String message;
+        private String thread;
     }
 
     /**
@@ -75,4 +367,4 @@ public class Logger {
         public static final String BLUE = "\033[0;34m";
         public static final String YELLOW_BOLD_BRIGHT = "\033[1;93m";
     }
-}
\ No newline at end of file
+}
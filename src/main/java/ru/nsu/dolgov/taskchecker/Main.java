@@ -1,11 +1,46 @@
 package ru.nsu.dolgov.taskchecker;
 
 import ru.nsu.dolgov.taskchecker.checker.CheckRunner;
+import ru.nsu.dolgov.taskchecker.distributed.Worker;
+
+import java.util.Arrays;
+import java.util.List;
 
 public class Main {
     public static void main(String[] args) throws InterruptedException {
-        CheckRunner runner = new CheckRunner();
+        List<String> arguments = Arrays.asList(args);
+        String configurationPath = getOption(arguments, "--config", CheckRunner.DEFAULT_CONFIGURATION_PATH);
+        String coordinatorAddress = getOption(arguments, "--worker", null);
+        if (coordinatorAddress != null) {
+            int separator = coordinatorAddress.lastIndexOf(':');
+            new Worker(
+                    coordinatorAddress.substring(0, separator),
+                    Integer.parseInt(coordinatorAddress.substring(separator + 1)),
+                    configurationPath
+            ).run();
+            return;
+        }
+
+        CheckRunner runner = new CheckRunner(
+                arguments.contains("--resume"),
+                configurationPath,
+                getOption(arguments, "--report", CheckRunner.DEFAULT_REPORT_PATH),
+                arguments.contains("--coordinator")
+        );
         runner.start();
         runner.join();
     }
+
+    /**
+     * Returns the value that follows the option.
+     *
+     * @param arguments    arguments of the app.
+     * @param option       name of the option.
+     * @param defaultValue value used when the option is not given.
+     * @return value of the option.
+     */
+    private static String getOption(List<String> arguments, String option, String defaultValue) {
+        int index = arguments.indexOf(option);
+        return index >= 0 && index + 1 < arguments.size() ? arguments.get(index + 1) : defaultValue;
+    }
 }
@@ -0,0 +1,180 @@
+package ru.nsu.dolgov.taskchecker.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.git.TaskTree;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.CacheStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+import ru.nsu.dolgov.taskchecker.reportbuilder.LocalDateTypeAdapter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
+
+/**
+ * Persistent cache of the task check results. A result is keyed by the git
+ * tree id of the task directory, the task definition and the checker version,
+ * so an unchanged submission is never built again. Students with the same
+ * tree share an entry, so only the build, javadoc and test results are
+ * stored: the deadlines and the points depend on the history of every
+ * student and are counted again on a hit.
+ */
+public class CheckCache {
+    /**
+     * Must be changed whenever the way the tasks are checked or counted changes.
+     */
+    public static final String CHECKER_VERSION = "2";
+    private final Path cachePath;
+    private final boolean enabled;
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+            .create();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param cachePath folder where the results are stored.
+     * @param enabled   false to always check the tasks.
+     */
+    public CheckCache(String cachePath, boolean enabled) {
+        this.cachePath = Paths.get(cachePath);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Tells if the results are looked up in the cache at all.
+     *
+     * @return false if the tasks are always checked.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Computes the cache key of the task.
+     *
+     * @param repository root of the student's repository.
+     * @param task       task to check.
+     * @return key or null if the cache is disabled or the task directory is not found.
+     */
+    public String getKey(File repository, Task task) {
+        if (!this.enabled) {
+            return null;
+        }
+        String treeId = TaskTree.getTreeId(repository, task.id);
+        if (treeId == null) {
+            return null;
+        }
+
+        String keySource = String.join(
+                "\n",
+                CHECKER_VERSION, treeId, task.id, task.title,
+                String.valueOf(task.points), String.valueOf(task.softDeadline), String.valueOf(task.hardDeadline)
+        );
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(keySource.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the stored result of the task.
+     *
+     * @param key  cache key of the task.
+     * @param task task the result belongs to.
+     * @return stored result or null on a cache miss.
+     */
+    public TaskTestResult get(String key, Task task) {
+        if (key == null) {
+            return null;
+        }
+        Path entry = this.getEntryPath(key);
+        if (Files.exists(entry)) {
+            try {
+                TaskTestResult result = this.gson.fromJson(Files.readString(entry), TaskTestResult.class);
+                result.task = task;
+                result.cacheHit = true;
+                this.hits.incrementAndGet();
+                return result;
+            } catch (IOException | JsonParseException e) {
+                Logger.log(WARNING, "Broken cache entry " + entry + ", checking again", "CHECK CACHE");
+            }
+        }
+        this.misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the build, javadoc and test results of the task.
+     *
+     * @param key    cache key of the task.
+     * @param result result of the check.
+     */
+    public void put(String key, TaskTestResult result) {
+        if (key == null) {
+            return;
+        }
+        Path entry = this.getEntryPath(key);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temporary = Files.createTempFile(entry.getParent(), key, ".tmp");
+            JsonObject stored = this.gson.toJsonTree(result).getAsJsonObject();
+            stored.remove("deadlinesCheckResult");
+            stored.remove("points");
+            stored.remove("cacheHit");
+            Files.writeString(temporary, this.gson.toJson(stored));
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.log(WARNING, "Unable to store the result in the cache", "CHECK CACHE");
+        }
+    }
+
+    /**
+     * Returns hits and misses of the cache and logs them.
+     *
+     * @return cache statistics.
+     */
+    public CacheStatistics getStatistics() {
+        CacheStatistics statistics = new CacheStatistics();
+        statistics.hits = this.hits.get();
+        statistics.misses = this.misses.get();
+        if (this.enabled) {
+            Logger.log(
+                    INFO,
+                    statistics.hits + " hits, " + statistics.misses + " misses",
+                    "CHECK CACHE"
+            );
+        }
+        return statistics;
+    }
+
+    /**
+     * Returns the file of the cache entry.
+     *
+     * @param key cache key.
+     * @return path of the entry.
+     */
+    private Path getEntryPath(String key) {
+        return this.cachePath.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+}
@@ -1,14 +1,19 @@
 package ru.nsu.dolgov.taskchecker.checker;
 
-import de.jplag.exceptions.ExitException;
 import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.distributed.Coordinator;
 import ru.nsu.dolgov.taskchecker.exceptions.NotEnoughPlagiarismCandidatesException;
+import ru.nsu.dolgov.taskchecker.github.GithubClient;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
 import ru.nsu.dolgov.taskchecker.models.core.Configuration;
 import ru.nsu.dolgov.taskchecker.models.core.JSONReportObject;
 import ru.nsu.dolgov.taskchecker.plagiarism.PlagiarismChecker;
 import ru.nsu.dolgov.taskchecker.reportbuilder.JSONReportBuilder;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.*;
 
@@ -16,56 +21,178 @@ import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.*;
  * An utility class used to start processing tasks.
  */
 public class CheckRunner extends Thread {
+    public static final String DEFAULT_CONFIGURATION_PATH = "./configuration";
+    public static final String DEFAULT_REPORT_PATH = "./src/main/typescript/public/";
+    private static final String PARSER_SCRIPT = "./src/main/groovy/ru/nsu/dolgov/taskchecker/parse.groovy";
+    private static final String DSL_SCRIPT = "./src/main/groovy/ru/nsu/dolgov/taskchecker/dsl.groovy";
+    private static final String CONFIGURATION_CACHE_PATH = "./.cache/config";
+    private final boolean resume;
+    private final String configurationPath;
+    private final String reportPath;
+    private final boolean coordinator;
+
     /**
-     * An overriding of the Thread method that starts the thread.
+     * Constructor of a fresh run.
      */
-    @Override
-    public void run() {
+    public CheckRunner() {
+        this(false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param resume true to continue the run recorded in the journal.
+     */
+    public CheckRunner(boolean resume) {
+        this(resume, DEFAULT_CONFIGURATION_PATH, DEFAULT_REPORT_PATH);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param resume            true to continue the run recorded in the journal.
+     * @param configurationPath folder with groups.groovy, tasks.groovy and additional.groovy.
+     * @param reportPath        folder the JSON report is written to.
+     */
+    public CheckRunner(boolean resume, String configurationPath, String reportPath) {
+        this(resume, configurationPath, reportPath, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param resume            true to continue the run recorded in the journal.
+     * @param configurationPath folder with groups.groovy, tasks.groovy and additional.groovy.
+     * @param reportPath        folder the JSON report is written to.
+     * @param coordinator       true to give the students to the worker processes instead of checking them here.
+     */
+    public CheckRunner(boolean resume, String configurationPath, String reportPath, boolean coordinator) {
+        this.resume = resume;
+        this.configurationPath = configurationPath;
+        this.reportPath = reportPath.endsWith("/") ? reportPath : reportPath + "/";
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * Parses the configuration scripts of the folder.
+     *
+     * @param configurationPath folder with groups.groovy, tasks.groovy and additional.groovy.
+     * @return parsed configuration.
+     * @throws IOException is thrown when a script cant be read or compiled.
+     */
+    public static Configuration parseConfiguration(String configurationPath) throws IOException {
         GroovyParser parser = new GroovyParser(
-                "./src/main/groovy/ru/nsu/dolgov/taskchecker/process.groovy"
+                List.of(
+                        PARSER_SCRIPT,
+                        configurationPath + "/groups.groovy",
+                        configurationPath + "/tasks.groovy",
+                        DSL_SCRIPT,
+                        configurationPath + "/additional.groovy"
+                ),
+                CONFIGURATION_CACHE_PATH
         );
         Logger.log(INFO, "Initialized configuration");
+        return parser.parse();
+    }
+
+    /**
+     * An overriding of the Thread method that starts the thread.
+     */
+    @Override
+    public void run() {
         Configuration config;
         try {
-            config = parser.parse();
+            config = parseConfiguration(this.configurationPath);
         } catch (IOException e) {
-            Logger.log(ERROR, "Error when parsing configuration!");
+            Logger.log(ERROR, "Error when parsing configuration! " + e.getMessage());
             return;
         }
+        Logger.configure(config.additionalSettings.logLevel, config.additionalSettings.logJsonPath);
         Logger.log(INFO, "Parsed configuration");
         config.additionalSettings.setToCheckList();
         JSONReportObject jsonReportObject = new JSONReportObject();
+        RepositoryDownloads downloads = new RepositoryDownloads(config.additionalSettings);
+        long start = System.nanoTime();
 
-        if (!config.additionalSettings.plagiarismCandidateList.isEmpty()) {
-            PlagiarismChecker plagiarismChecker = new PlagiarismChecker(config.additionalSettings);
-            try {
-                jsonReportObject.plagiarismReportPath = plagiarismChecker.checkForPlagiarism();
-            } catch (NotEnoughPlagiarismCandidatesException e) {
-                Logger.log(ERROR, e.getMessage(), "PLAGIARISM SERVICE");
-            } catch (IOException e) {
-                Logger.log(ERROR, "Error when creating plagiarism report!", "PLAGIARISM SERVICE");
-            } catch (ExitException e) {
-                Logger.log(ERROR, "Error when running JPlag!", "PLAGIARISM SERVICE");
-            }
+        Thread plagiarismThread = null;
+        AtomicLong plagiarismNanos = new AtomicLong();
+        if (!config.additionalSettings.plagiarismCandidateList.isEmpty() ||
+                config.additionalSettings.plagiarismPrefilter) {
+            PlagiarismChecker plagiarismChecker = new PlagiarismChecker(config.additionalSettings, downloads);
+            CompletableFuture<Void> plagiarismDone = new CompletableFuture<>();
+            downloads.holdUntil(plagiarismChecker.getCandidateNicknames(), plagiarismDone);
+            plagiarismThread = new Thread(() -> {
+                try {
+                    jsonReportObject.plagiarismReportPath = plagiarismChecker.checkForPlagiarism();
+                    jsonReportObject.plagiarismResults = plagiarismChecker.getResults();
+                    Logger.log(SUCCESS, "Created plagiarism report at " + jsonReportObject.plagiarismReportPath);
+                } catch (NotEnoughPlagiarismCandidatesException e) {
+                    Logger.log(ERROR, e.getMessage(), "PLAGIARISM SERVICE");
+                } catch (IOException e) {
+                    Logger.log(ERROR, "Error when creating plagiarism report!", "PLAGIARISM SERVICE");
+                } finally {
+                    plagiarismNanos.set(System.nanoTime() - start);
+                    plagiarismDone.complete(null);
+                }
+            }, "plagiarism");
+            plagiarismThread.start();
+            Logger.log(INFO, "Started the plagiarism check");
         }
-        Logger.log(SUCCESS, "Created plagiarism report at ./" +
-                config.additionalSettings.plagiarismReportFolder);
 
-        TaskRunnerWrapper taskRunner = new TaskRunnerWrapper(config.additionalSettings);
-        Logger.log(INFO, "Initialized the task runner");
-        JSONReportBuilder jsonReportBuilder = new JSONReportBuilder("./src/main/typescript/public/");
+        JSONReportBuilder jsonReportBuilder = new JSONReportBuilder(
+                this.reportPath,
+                config.additionalSettings.reportPrettyPrint,
+                config.additionalSettings.reportGzip
+        );
         Logger.log(INFO, "Initialized JSONReport builder");
         jsonReportObject.additionalSettings = config.additionalSettings;
         jsonReportObject.groups = config.groups;
         jsonReportObject.students = config.students;
         jsonReportObject.tasks = config.tasks;
         Logger.log(INFO, "Checking tasks...");
-        jsonReportObject.taskRunnerResults = taskRunner.checkTasks();
+        if (this.coordinator) {
+            Coordinator coordinator = new Coordinator(config.additionalSettings, this.resume);
+            jsonReportObject.taskRunnerResults = coordinator.checkTasks();
+        } else {
+            TaskRunnerWrapper taskRunner = new TaskRunnerWrapper(config.additionalSettings, this.resume, downloads);
+            Logger.log(INFO, "Initialized the task runner");
+            jsonReportObject.taskRunnerResults = taskRunner.checkTasks();
+            jsonReportObject.schedulerStatistics = taskRunner.getSchedulerStatistics();
+            jsonReportObject.checkCacheStatistics = taskRunner.getCheckCacheStatistics();
+            jsonReportObject.cloneStatistics = taskRunner.getCloneStatistics();
+        }
+        long checkNanos = System.nanoTime() - start;
+
+        if (plagiarismThread != null) {
+            try {
+                plagiarismThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Logger.log(ERROR, "Interrupted while waiting for the plagiarism check");
+                return;
+            }
+            Logger.log(
+                    INFO,
+                    String.format(
+                            "Checks took %d ms and plagiarism %d ms, overlapped in %d ms instead of %d ms",
+                            checkNanos / 1_000_000,
+                            plagiarismNanos.get() / 1_000_000,
+                            (System.nanoTime() - start) / 1_000_000,
+                            (checkNanos + plagiarismNanos.get()) / 1_000_000
+                    )
+            );
+        }
+        jsonReportObject.githubStatistics = GithubClient.getSharedStatistics();
         Logger.log(
                 INFO,
                 "Started building JSON report"
         );
         jsonReportBuilder.serialize(jsonReportObject);
+        MetricsRegistry.getInstance().recordSince("run", null, null, start);
+        String metricsPath = config.additionalSettings.metricsPath;
+        if (metricsPath != null && !metricsPath.isBlank()) {
+            MetricsRegistry.getInstance().export(metricsPath);
+        }
         Logger.log(
                 SUCCESS,
                 "All is done!"
@@ -1,30 +1,41 @@
 package ru.nsu.dolgov.taskchecker.checker;
 
 import com.google.gson.JsonArray;
-import com.google.gson.JsonParser;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
+import org.eclipse.jgit.api.CheckoutCommand;
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
 import ru.nsu.dolgov.taskchecker.Logger;
 import ru.nsu.dolgov.taskchecker.exceptions.WrongDatesForActivityReportException;
+import ru.nsu.dolgov.taskchecker.git.CommitActivity;
+import ru.nsu.dolgov.taskchecker.git.DiskUsage;
+import ru.nsu.dolgov.taskchecker.git.MirrorCache;
+import ru.nsu.dolgov.taskchecker.github.GithubClient;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
 import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.CloneStrategy;
 import ru.nsu.dolgov.taskchecker.models.core.Student;
 import ru.nsu.dolgov.taskchecker.models.core.Task;
 import ru.nsu.dolgov.taskchecker.models.results.CommitsCheckResult;
-import ru.nsu.dolgov.taskchecker.models.results.DeadlinesCheckResult;
 
 import java.io.File;
 import java.io.IOException;
-import java.time.Instant;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -34,6 +45,7 @@ public class GithubAPI {
     private final Student student;
     private final File currentStudentRepository;
     private final AdditionalSettings additionalSettings;
+    private long receivedBytes;
 
     /**
      * Constructor.
@@ -49,7 +61,17 @@ public class GithubAPI {
     ) {
         this.student = student;
         this.additionalSettings = additionalSettings;
-        this.currentStudentRepository = new File("./" + allRepositoriesPath + "/" + this.student.nickname);
+        this.currentStudentRepository = new File(allRepositoriesPath, this.student.nickname);
+    }
+
+    /**
+     * Getter for the amount of data received by the last download, measured
+     * as the growth of the object store of the repository.
+     *
+     * @return amount of received bytes.
+     */
+    public long getReceivedBytes() {
+        return this.receivedBytes;
     }
 
     /**
@@ -69,119 +91,302 @@ public class GithubAPI {
     }
 
     /**
-     * Method used to compute the deadlines using the last commit in the repository.
-     *
-     * @param task                     task for which deadlines will be computed.
-     * @param currentStudentRepository current repository.
-     * @return DeadlineCheckResult describing the result of the check.
+     * Method used to clone/pull the whole repository.
      */
-    public static DeadlinesCheckResult checkDeadlines(Task task, String currentStudentRepository) {
-        DeadlinesCheckResult deadlinesCheckResult = new DeadlinesCheckResult();
+    public void downloadRepository() {
+        this.downloadRepository(null);
+    }
 
+    /**
+     * Method used to clone/pull the repository using the configured clone strategy.
+     *
+     * @param tasks tasks which directories are needed, null if the whole repository is needed.
+     * @return false if the repository could not be downloaded.
+     */
+    public boolean downloadRepository(List<Task> tasks) {
+        String stage = this.additionalSettings.useMirrorCache ? "mirror" :
+                this.currentStudentRepository.exists() ? "pull" : "clone";
+        long start = System.nanoTime();
         try {
-            Iterable<RevCommit> commits = Git
-                    .open(new File(currentStudentRepository))
-                    .log()
-                    .addPath(task.id)
-                    .call();
-            LocalDate firstCommitDate = null;
-            int lastCommitDate = 0;
-            for (RevCommit commit : commits) {
-                if (firstCommitDate == null) {
-                    firstCommitDate = LocalDate.ofInstant(
-                            Instant.ofEpochSecond(commit.getCommitTime()), ZoneId.systemDefault()
-                    );
-                }
-                lastCommitDate = commit.getCommitTime();
-            }
-            if (firstCommitDate == null) {
-                Logger.log(Logger.LogLevel.INFO, "No commits with this project found", "GITHUB API");
-                return deadlinesCheckResult;
-            }
-            LocalDate lastDate = LocalDate.ofInstant(Instant.ofEpochSecond(lastCommitDate), ZoneId.systemDefault());
-
-            deadlinesCheckResult.softDeadlinePass = firstCommitDate.isBefore(task.softDeadline);
-            deadlinesCheckResult.hardDeadlinePass = lastDate.isBefore(task.hardDeadline);
-        } catch (Exception ignored) {
+            return this.download(tasks);
+        } finally {
+            MetricsRegistry.getInstance().recordSince(stage, this.student.nickname, null, start);
         }
-
-        return deadlinesCheckResult;
     }
 
     /**
-     * Method used to clone/pull the repository.
+     * Clones or pulls the repository, choosing the way by the clone strategy.
+     *
+     * @param tasks tasks which directories are needed, null if the whole repository is needed.
+     * @return false if the repository could not be downloaded.
      */
-    public void downloadRepository() {
+    private boolean download(List<Task> tasks) {
+        CloneStrategy strategy = this.additionalSettings.cloneStrategy;
+        if (strategy == CloneStrategy.SPARSE && tasks == null) {
+            strategy = CloneStrategy.FULL;
+        }
+        if (strategy == CloneStrategy.SHALLOW && this.additionalSettings.controlPoints.isEmpty()) {
+            strategy = CloneStrategy.FULL;
+        }
+
+        if (this.additionalSettings.useMirrorCache) {
+            return this.checkoutFromMirror(strategy == CloneStrategy.SPARSE ? tasks : null);
+        }
+
+        File directory = this.currentStudentRepository;
+        Path objects = directory.toPath().resolve(".git").resolve("objects");
+        long objectsSize = DiskUsage.getSize(objects);
         try {
-            File directory = this.currentStudentRepository;
-            Git repository;
+            if (strategy == CloneStrategy.PARTIAL) {
+                if (this.partialClone(directory)) {
+                    return true;
+                }
+                Logger.log(
+                        Logger.LogLevel.WARNING,
+                        "Partial clone of " + this.student.nickname + " failed, cloning it again with JGit",
+                        "GITHUB API"
+                );
+                cleanUpHelper(directory);
+                objectsSize = 0;
+            }
+
             if (!directory.exists()) {
-                repository = Git.cloneRepository()
+                CloneCommand cloneCommand = Git.cloneRepository()
                         .setURI(this.student.repository)
                         .setDirectory(directory)
-                        .call();
-            } else {
-                try {
-                    repository = Git.open(directory);
-                } catch (IOException e) {
-                    Logger.log(
-                            Logger.LogLevel.ERROR,
-                            "Error when downloading repository!",
-                            "GITHUB API"
-                    );
-                    return;
+                        .setNoCheckout(strategy == CloneStrategy.SPARSE)
+                        .setTimeout(this.additionalSettings.timeouts.download);
+                if (strategy == CloneStrategy.SHALLOW) {
+                    LocalDate since = Collections.min(this.additionalSettings.controlPoints);
+                    cloneCommand.setShallowSince(since.atStartOfDay(ZoneOffset.UTC).toInstant());
+                }
+                try (Git repository = cloneCommand.call()) {
+                    if (strategy == CloneStrategy.SPARSE) {
+                        this.checkoutTasks(repository, tasks);
+                    }
                 }
+                return true;
             }
 
-            if (repository != null) {
-                repository.pull().call();
+            try (Git repository = Git.open(directory)) {
+                if (strategy == CloneStrategy.SPARSE) {
+                    ObjectId previousTree = repository.getRepository().resolve(Constants.HEAD + "^{tree}");
+                    repository.fetch().setTimeout(this.additionalSettings.timeouts.download).call();
+                    repository.reset()
+                            .setMode(ResetCommand.ResetType.MIXED)
+                            .setRef(this.getRemoteBranch(repository))
+                            .call();
+                    this.deleteRemovedFiles(repository, previousTree, tasks);
+                    this.checkoutTasks(repository, tasks);
+                } else {
+                    repository.pull().setTimeout(this.additionalSettings.timeouts.download).call();
+                }
+                return true;
+            } catch (IOException e) {
+                Logger.log(
+                        Logger.LogLevel.ERROR,
+                        "Error when downloading repository!",
+                        "GITHUB API"
+                );
+                return false;
             }
-
         } catch (GitAPIException e) {
             Logger.log(Logger.LogLevel.ERROR, "Error when downloading repository!", "GITHUB API");
+            return false;
+        } finally {
+            this.receivedBytes = Math.max(0, DiskUsage.getSize(objects) - objectsSize);
+        }
+    }
+
+    /**
+     * Fetches the new commits into the mirror of the repository and
+     * creates a fresh working tree from it. The mirror is always complete,
+     * so only the SPARSE strategy is applied to the working tree.
+     *
+     * @param tasks tasks which directories are needed, null if the whole repository is needed.
+     * @return false if the repository could not be downloaded.
+     */
+    private boolean checkoutFromMirror(List<Task> tasks) {
+        MirrorCache mirrorCache = new MirrorCache(
+                this.additionalSettings.mirrorCachePath,
+                this.additionalSettings.timeouts.download
+        );
+        Path objects = mirrorCache.getMirror(this.student.repository, this.student.nickname).toPath().resolve("objects");
+        long objectsSize = DiskUsage.getSize(objects);
+        try {
+            File mirror = mirrorCache.update(this.student.repository, this.student.nickname);
+            this.receivedBytes = Math.max(0, DiskUsage.getSize(objects) - objectsSize);
+            mirrorCache.checkout(
+                    mirror,
+                    this.currentStudentRepository,
+                    this.student.repository,
+                    tasks == null ? null : tasks.stream().map(task -> task.id).toList()
+            );
+            return true;
+        } catch (IOException | GitAPIException e) {
+            Logger.log(Logger.LogLevel.ERROR, "Error when downloading repository!", "GITHUB API");
+            return false;
+        }
+    }
+
+    /**
+     * Clones or pulls the repository without the file contents of the history,
+     * the system git fetches only the blobs of the checked out commit.
+     *
+     * @param directory directory of the repository.
+     * @return true if the repository was downloaded, false if it should be cloned again with JGit.
+     */
+    private boolean partialClone(File directory) {
+        String path = directory.getPath();
+        if (!directory.exists()) {
+            return this.runGit(List.of(
+                    "git", "clone", "--filter=blob:none", "--quiet", this.student.repository, path
+            ));
         }
+        return this.runGit(List.of("git", "-C", path, "pull", "--ff-only", "--quiet"));
+    }
+
+    /**
+     * Deletes the files of the tasks that were removed by the fetched commits,
+     * as a hard reset would do, without writing the other directories.
+     *
+     * @param repository   repository already reset to the fetched commit.
+     * @param previousTree tree of the commit before the fetch, null if there was none.
+     * @param tasks        tasks which directories are checked out.
+     * @throws IOException     is thrown when the trees cant be read or a file cant be deleted.
+     * @throws GitAPIException is thrown when the trees cant be compared.
+     */
+    private void deleteRemovedFiles(Git repository, ObjectId previousTree, List<Task> tasks) throws
+            IOException,
+            GitAPIException {
+        ObjectId currentTree = repository.getRepository().resolve(Constants.HEAD + "^{tree}");
+        if (previousTree == null || currentTree == null) {
+            return;
+        }
+        try (ObjectReader reader = repository.getRepository().newObjectReader()) {
+            CanonicalTreeParser previous = new CanonicalTreeParser();
+            previous.reset(reader, previousTree);
+            CanonicalTreeParser current = new CanonicalTreeParser();
+            current.reset(reader, currentTree);
+            List<DiffEntry> changes = repository.diff()
+                    .setOldTree(previous)
+                    .setNewTree(current)
+                    .setPathFilter(PathFilterGroup.createFromStrings(tasks.stream().map(task -> task.id).toList()))
+                    .setShowNameAndStatusOnly(true)
+                    .call();
+            for (DiffEntry change : changes) {
+                if (change.getChangeType() == DiffEntry.ChangeType.DELETE) {
+                    Files.deleteIfExists(this.currentStudentRepository.toPath().resolve(change.getOldPath()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes only the directories of the tasks to the working tree.
+     *
+     * @param repository repository without a checkout.
+     * @param tasks      tasks which directories are needed.
+     * @throws GitAPIException is thrown when the checkout fails.
+     */
+    private void checkoutTasks(Git repository, List<Task> tasks) throws GitAPIException {
+        CheckoutCommand checkoutCommand = repository.checkout().setStartPoint(Constants.HEAD);
+        for (Task task : tasks) {
+            checkoutCommand.addPath(task.id);
+        }
+        checkoutCommand.call();
+    }
+
+    /**
+     * Returns the remote tracking branch of the current branch.
+     *
+     * @param repository repository.
+     * @return name of the remote tracking branch.
+     * @throws IOException is thrown when the current branch cant be read.
+     */
+    private String getRemoteBranch(Git repository) throws IOException {
+        return Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + repository.getRepository().getBranch();
+    }
+
+    /**
+     * Runs the system git, used for the features JGit does not support.
+     *
+     * @param command command with the arguments.
+     * The command is killed when the download budget runs out.
+     *
+     * @return true if the command succeeded, false if JGit should be used instead.
+     */
+    private boolean runGit(List<String> command) {
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            int timeout = this.additionalSettings.timeouts.download;
+            if (timeout > 0 && !process.waitFor(timeout, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+                Logger.log(Logger.LogLevel.WARNING, "git timed out after " + timeout + " s, using JGit", "GITHUB API");
+                return false;
+            }
+            if (process.waitFor() == 0) {
+                return true;
+            }
+            Logger.log(Logger.LogLevel.WARNING, "git exited with " + process.exitValue() + ", using JGit", "GITHUB API");
+        } catch (IOException e) {
+            Logger.log(Logger.LogLevel.WARNING, "git is not available, using JGit", "GITHUB API");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
     }
 
     /**
      * Method that makes a request to the Github API to get commits between two dates.
+     * All pages of the response are requested.
      *
      * @param startDate start date.
      * @param endDate   end date.
-     * @return Response object from the Github API.
+     * @return JsonArray of commits, empty if the request was not successful.
      * @throws IOException when request cant be done.
      */
-    private Response request(LocalDate startDate, LocalDate endDate) throws IOException {
-        OkHttpClient client = new OkHttpClient();
+    private JsonArray request(LocalDate startDate, LocalDate endDate) throws IOException {
+        GithubClient client = GithubClient.getInstance(this.additionalSettings);
         String url = String.format(
-                "https://api.github.com/repos/%s/OOP/commits?since=%sT00:00:00Z&until=%sT23:59:59Z",
-                this.student.nickname,
+                "%s/repos/%s/commits?since=%sT00:00:00Z&until=%sT23:59:59Z&per_page=100",
+                client.getApiUrl(),
+                this.getRepositoryPath(),
                 startDate.format(DateTimeFormatter.ISO_LOCAL_DATE),
                 endDate.format(DateTimeFormatter.ISO_LOCAL_DATE)
         );
-        Request request = new Request.Builder()
-                .url(url)
-                .header("Authorization", "token " + this.additionalSettings.githubToken)
-                .build();
 
-        return client.newCall(request).execute();
+        long start = System.nanoTime();
+        try {
+            return client.getJsonArray(url);
+        } finally {
+            MetricsRegistry.getInstance().recordSince("github_api", this.student.nickname, null, start);
+        }
     }
 
     /**
-     * Method to parse the response and get JSONArray of commits.
+     * Method to get the owner and the name of the repository from its url,
+     * e.g. "https://github.com/owner/OOP/" or "git@github.com:owner/OOP.git".
      *
-     * @param response response object from GitHub API.
-     * @return parsed JSONArray.
-     * @throws IOException when tha app cant get the
-     *                     string representation of the response body.
+     * @return repository in the "owner/name" format.
      */
-    private JsonArray parseResponse(Response response) throws IOException {
-        if (response.isSuccessful()) {
-            assert response.body() != null;
-            String responseBody = response.body().string();
-            return JsonParser.parseString(responseBody).getAsJsonArray();
+    private String getRepositoryPath() {
+        String repository = this.student.repository == null ? "" : this.student.repository.trim();
+        while (repository.endsWith("/")) {
+            repository = repository.substring(0, repository.length() - 1);
+        }
+        if (repository.endsWith(".git")) {
+            repository = repository.substring(0, repository.length() - 4);
+        }
+        String[] parts = repository.split("[/:]");
+        if (parts.length < 2 || parts[parts.length - 1].isEmpty() || parts[parts.length - 2].isEmpty()) {
+            return this.student.nickname + "/OOP";
         }
 
-        return new JsonArray();
+        return parts[parts.length - 2] + "/" + parts[parts.length - 1];
     }
 
     /**
@@ -208,7 +413,7 @@ public class GithubAPI {
      * @param startDate start date.
      * @param endDate   end date.
      * @return CommitsCheckResult object describing students' activity.
-     * @throws IOException                          thrown by the request() method.
+     * @throws IOException                          thrown by the request() method or when the local repository can not be read.
      * @throws WrongDatesForActivityReportException is thrown if controlPoints' length is not equal to 2.
      */
     public CommitsCheckResult getCommitsActivity(LocalDate startDate, LocalDate endDate) throws
@@ -217,57 +422,21 @@ public class GithubAPI {
         if (this.additionalSettings.controlPoints.size() != 2) {
             throw new WrongDatesForActivityReportException("Wrong dates for an activity report!");
         }
-        LocalDate currentEndDate = startDate.plusDays(7);
-        List<CommitsCheckResult.CommitsPerWeek> commitsPerWeekList = new ArrayList<>();
-        int commitCount = 0;
-        int maxCommitsCount = -1;
-        int weeksCount = 0;
-        int totalActiveWeeks = 0;
-
-        while (currentEndDate.isBefore(endDate)) {
-            startDate = currentEndDate.plusDays(1);
-            currentEndDate = currentEndDate.plusDays(7);
-            Response response = this.request(startDate, currentEndDate);
-            JsonArray commitsArray = this.parseResponse(response);
-            int currentCommitsCount = commitsArray.size();
-
-            CommitsCheckResult.CommitsPerWeek commitsPerWeek = new CommitsCheckResult.CommitsPerWeek();
-            commitsPerWeek.week = currentEndDate;
-            commitsPerWeek.commits = currentCommitsCount;
-            commitsPerWeekList.add(commitsPerWeek);
-
-            if (currentCommitsCount > 0) {
-                totalActiveWeeks++;
-            }
-            commitCount += currentCommitsCount;
-            if (currentCommitsCount > maxCommitsCount) {
-                maxCommitsCount = currentCommitsCount;
-            }
-            weeksCount++;
-        }
-
-        if (ChronoUnit.DAYS.between(endDate, currentEndDate) > 1) {
-            Response response = this.request(currentEndDate, endDate);
-            JsonArray commitsArray = this.parseResponse(response);
-            int currentCommitsCount = commitsArray.size();
-            commitCount += currentCommitsCount;
-
-            CommitsCheckResult.CommitsPerWeek commitsPerWeek = new CommitsCheckResult.CommitsPerWeek();
-            commitsPerWeek.week = endDate;
-            commitsPerWeek.commits = currentCommitsCount;
-            commitsPerWeekList.add(commitsPerWeek);
+        long start = System.nanoTime();
+        CommitActivity commitActivity = new CommitActivity(startDate, endDate);
+        int[] commitsPerRange;
 
-            if (currentCommitsCount > maxCommitsCount) {
-                maxCommitsCount = currentCommitsCount;
+        if (this.additionalSettings.localCommitsActivity) {
+            commitsPerRange = commitActivity.countCommits(this.currentStudentRepository);
+        } else {
+            commitsPerRange = new int[commitActivity.size()];
+            for (int i = 0; i < commitActivity.size(); i++) {
+                commitsPerRange[i] = this.request(commitActivity.getRangeStart(i), commitActivity.getRangeEnd(i)).size();
             }
         }
-        CommitsCheckResult result = new CommitsCheckResult();
-        result.maximumCommitsPerWeek = maxCommitsCount;
-        result.totalCommits = commitCount;
-        result.totalWeeks = weeksCount;
-        result.totalActiveWeeks = totalActiveWeeks;
-        result.commitsPerWeekList = commitsPerWeekList;
 
+        CommitsCheckResult result = commitActivity.toResult(commitsPerRange);
+        MetricsRegistry.getInstance().recordSince("commits_activity", this.student.nickname, null, start);
         return result;
     }
 
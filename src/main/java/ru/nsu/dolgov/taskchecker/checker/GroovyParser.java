@@ -1,52 +1,169 @@
 package ru.nsu.dolgov.taskchecker.checker;
 
 import groovy.lang.Binding;
-import groovy.lang.GroovyCodeSource;
-import groovy.lang.GroovyShell;
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovySystem;
+import groovy.lang.Script;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
 import ru.nsu.dolgov.taskchecker.models.core.Configuration;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
 
 /**
- * Class used to get Configuration from the Groovy script.
+ * Class used to get Configuration from the Groovy scripts. The scripts are
+ * joined into one, compiled once and cached on disk by the hash of their
+ * content, so an unchanged configuration is only loaded and run.
  */
 public class GroovyParser {
-    private final String groovyBuilderPath;
+    private static final String SCRIPT_NAME = "ConfigurationScript";
+    private static final String MAIN_CLASS_FILE = "main-class";
+    private final List<String> scriptPaths;
+    private final Path cachePath;
 
     /**
-     * Constructor. Accepts path to the initial groovy script.
+     * Constructor.
      *
-     * @param groovyBuilderFile
+     * @param scriptPaths paths to the scripts in the order they are joined.
+     * @param cachePath   folder with the compiled scripts.
      */
-    public GroovyParser(String groovyBuilderFile) {
-        this.groovyBuilderPath = groovyBuilderFile;
+    public GroovyParser(List<String> scriptPaths, String cachePath) {
+        this.scriptPaths = scriptPaths;
+        this.cachePath = Paths.get(cachePath);
     }
 
     /**
      * Method used to evaluate Groovy script and get the configuration.
      *
-     * @return Configuration object.
+     * @return frozen Configuration object.
      * @throws IOException is thrown when the app cant initialize Groovy script.
      */
     public Configuration parse() throws IOException {
+        long start = System.nanoTime();
+        StringBuilder scriptText = new StringBuilder();
+        for (String scriptPath : this.scriptPaths) {
+            scriptText.append(Files.readString(Paths.get(scriptPath), StandardCharsets.UTF_8));
+        }
+        String text = scriptText.toString();
+        Path compiledPath = this.cachePath.resolve(getHash(text));
+
+        boolean cacheHit = Files.exists(compiledPath.resolve(MAIN_CLASS_FILE));
+        if (!cacheHit) {
+            this.compile(text, compiledPath);
+        }
+        long compiled = System.nanoTime();
+
         Configuration configuration = new Configuration();
-        Map<String, Configuration> map = new HashMap<>();
-        map.put("config", configuration);
-        Binding binding = new Binding(map);
-        GroovyShell shell = new GroovyShell(binding);
+        Binding binding = new Binding();
+        binding.setVariable("config", configuration);
+        String mainClass = Files.readString(compiledPath.resolve(MAIN_CLASS_FILE), StandardCharsets.UTF_8).trim();
+        try (URLClassLoader classLoader = new URLClassLoader(
+                new URL[]{compiledPath.toUri().toURL()},
+                GroovyParser.class.getClassLoader()
+        )) {
+            Script script = (Script) classLoader.loadClass(mainClass).getDeclaredConstructor().newInstance();
+            script.setBinding(binding);
+            script.run();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IOException("Cant load the compiled configuration: " + e.getMessage(), e);
+        }
+        configuration.freeze();
+        MetricsRegistry.getInstance().recordSince("configuration", null, null, start);
+
+        Logger.log(
+                INFO,
+                String.format(
+                        "Loaded configuration in %d ms (%s %d ms, run %d ms)",
+                        (System.nanoTime() - start) / 1_000_000,
+                        cacheHit ? "cache hit" : "compiled in",
+                        (compiled - start) / 1_000_000,
+                        (System.nanoTime() - compiled) / 1_000_000
+                ),
+                "CONFIGURATION"
+        );
+        return configuration;
+    }
+
+    /**
+     * Compiles the script into a temporary folder and moves it into the cache.
+     * If another process has cached the same script meanwhile, its copy is kept.
+     *
+     * @param text         text of the script.
+     * @param compiledPath folder of the compiled classes.
+     * @throws IOException is thrown when the script cant be compiled or saved.
+     */
+    private void compile(String text, Path compiledPath) throws IOException {
+        Files.createDirectories(this.cachePath);
+        Path temporaryPath = Files.createTempDirectory(this.cachePath, "compile-");
+
+        CompilerConfiguration compilerConfiguration = new CompilerConfiguration();
+        compilerConfiguration.setTargetDirectory(temporaryPath.toFile());
+        String mainClass = null;
+        try (GroovyClassLoader classLoader = new GroovyClassLoader(GroovyParser.class.getClassLoader())) {
+            CompilationUnit compilationUnit = new CompilationUnit(compilerConfiguration, null, classLoader);
+            compilationUnit.addSource(SCRIPT_NAME + ".groovy", text);
+            compilationUnit.compile(Phases.OUTPUT);
+            for (GroovyClass groovyClass : compilationUnit.getClasses()) {
+                if (groovyClass.getName().endsWith(SCRIPT_NAME) &&
+                        !groovyClass.getName().contains("$")) {
+                    mainClass = groovyClass.getName();
+                }
+            }
+        } catch (CompilationFailedException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        if (mainClass == null) {
+            throw new IOException("Configuration script class was not generated");
+        }
+        Files.writeString(temporaryPath.resolve(MAIN_CLASS_FILE), mainClass, StandardCharsets.UTF_8);
 
         try {
-            GroovyCodeSource source = new GroovyCodeSource(
-                    new File(this.groovyBuilderPath));
-            shell.run(source, Collections.emptyList());
+            Files.move(temporaryPath, compiledPath, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
-            throw new IOException(e.getMessage());
+            if (!Files.exists(compiledPath.resolve(MAIN_CLASS_FILE))) {
+                throw e;
+            }
+            try (var files = Files.walk(temporaryPath)) {
+                for (Path file : files.sorted((first, second) -> second.compareTo(first)).toList()) {
+                    Files.delete(file);
+                }
+            }
         }
+    }
 
-        return configuration;
+    /**
+     * Returns the key of the compiled script. The Groovy version is a part
+     * of the key, so the cache is not reused by a different compiler.
+     *
+     * @param text text of the script.
+     * @return SHA-256 of the Groovy version and the text.
+     */
+    private static String getHash(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(GroovySystem.getVersion().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
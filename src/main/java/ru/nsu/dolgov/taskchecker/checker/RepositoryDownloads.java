@@ -0,0 +1,153 @@
+package ru.nsu.dolgov.taskchecker.checker;
+
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Downloads shared by the task checking and the plagiarism checking, which
+ * run at the same time. Every repository is downloaded once, by whichever
+ * of them needs it first, with the directories of the tasks of both, and
+ * the other one waits for this download instead of starting its own.
+ */
+public class RepositoryDownloads {
+    private final Map<String, CompletableFuture<Boolean>> downloads = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Task>> requiredTasks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<?>> holds = new ConcurrentHashMap<>();
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    /**
+     * Constructor. Requires the tasks of every student that is checked.
+     *
+     * @param settings app configuration.
+     */
+    public RepositoryDownloads(AdditionalSettings settings) {
+        for (Map.Entry<Student, List<Task>> entry : settings.toCheck.entrySet()) {
+            this.require(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Adds the tasks which directories are needed in the repository of the student.
+     * Must be called before the repository is downloaded.
+     *
+     * @param student student.
+     * @param tasks   tasks of the student.
+     */
+    public void require(Student student, Collection<Task> tasks) {
+        Map<String, Task> studentTasks = this.requiredTasks.computeIfAbsent(
+                student.nickname,
+                key -> new LinkedHashMap<>()
+        );
+        synchronized (studentTasks) {
+            for (Task task : tasks) {
+                studentTasks.putIfAbsent(task.id, task);
+            }
+        }
+    }
+
+    /**
+     * Downloads the repository, or waits for the download started by another thread.
+     *
+     * @param student   student.
+     * @param githubAPI api of the repository of the student.
+     * @return false if the repository could not be downloaded.
+     */
+    public boolean download(Student student, GithubAPI githubAPI) {
+        CompletableFuture<Boolean> created = new CompletableFuture<>();
+        CompletableFuture<Boolean> download = this.downloads.putIfAbsent(student.nickname, created);
+        if (download != null) {
+            try {
+                return download.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            boolean downloaded = githubAPI.downloadRepository(this.getRequiredTasks(student));
+            this.receivedBytes.addAndGet(githubAPI.getReceivedBytes());
+            created.complete(downloaded);
+            return downloaded;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Forgets the download of the student, so the repository is downloaded
+     * again when the student is checked once more by a long running worker.
+     *
+     * @param student student.
+     */
+    public void forget(Student student) {
+        this.downloads.remove(student.nickname);
+    }
+
+    /**
+     * Getter for the amount of data received by all the downloads.
+     *
+     * @return amount of received bytes.
+     */
+    public long getReceivedBytes() {
+        return this.receivedBytes.get();
+    }
+
+    /**
+     * Keeps the repositories of the students until the work is done,
+     * so they are not cleaned up while they are still read.
+     *
+     * @param nicknames nicknames of the students.
+     * @param work      work that reads the repositories.
+     */
+    public void holdUntil(Collection<String> nicknames, CompletableFuture<?> work) {
+        for (String nickname : nicknames) {
+            this.holds.put(nickname, work);
+        }
+    }
+
+    /**
+     * Cleans the repository up now or, if it is held, as soon as it is released.
+     *
+     * @param student   student.
+     * @param githubAPI api of the repository of the student.
+     */
+    public void cleanUp(Student student, GithubAPI githubAPI) {
+        CompletableFuture<?> hold = this.holds.get(student.nickname);
+        if (hold == null) {
+            githubAPI.cleanUp();
+        } else {
+            hold.whenComplete((result, error) -> githubAPI.cleanUp());
+        }
+    }
+
+    /**
+     * Returns the tasks required in the repository of the student.
+     *
+     * @param student student.
+     * @return tasks or null if none were required, so the whole repository is downloaded.
+     */
+    private List<Task> getRequiredTasks(Student student) {
+        Map<String, Task> studentTasks = this.requiredTasks.get(student.nickname);
+        if (studentTasks == null) {
+            return null;
+        }
+        synchronized (studentTasks) {
+            return studentTasks.isEmpty() ? null : new ArrayList<>(studentTasks.values());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.nsu.dolgov.taskchecker.checker;
+
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
+
+/**
+ * Listener that is called by the TaskRunnerWrapper when all the tasks of a
+ * submitted student are done. Called from the threads of the pipeline.
+ */
+@FunctionalInterface
+public interface StudentCheckListener {
+    /**
+     * Receives the results of the student.
+     *
+     * @param studentWithTasks submitted student.
+     * @param result           results of all the tasks of the student.
+     * @param failure          description of the failed stage, null if the student was checked.
+     */
+    void checked(StudentWithTasks studentWithTasks, TaskRunnerResult result, String failure);
+}
@@ -1,42 +1,71 @@
 package ru.nsu.dolgov.taskchecker.checker;
 
+import org.gradle.tooling.BuildCancelledException;
+import org.gradle.tooling.BuildException;
+import org.gradle.tooling.CancellationTokenSource;
 import org.gradle.tooling.GradleConnectionException;
 import org.gradle.tooling.GradleConnector;
-import org.gradle.tooling.ProjectConnection;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.SAXException;
+import org.gradle.tooling.events.OperationType;
 import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.cache.CheckCache;
 import ru.nsu.dolgov.taskchecker.counter.PointsCounter;
+import ru.nsu.dolgov.taskchecker.git.DeadlineAnalyzer;
+import ru.nsu.dolgov.taskchecker.gradle.GradleConnectionPool;
+import ru.nsu.dolgov.taskchecker.gradle.JUnitXmlAggregator;
+import ru.nsu.dolgov.taskchecker.gradle.PooledConnection;
+import ru.nsu.dolgov.taskchecker.gradle.TestEventCollector;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.TimeoutSettings;
 import ru.nsu.dolgov.taskchecker.models.core.Student;
 import ru.nsu.dolgov.taskchecker.models.core.Task;
 import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
 import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
 import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
 
 
 /**
  * Class that is used to check tasks.
  */
 public class TaskRunner {
+    private static final String[] BUILD_TASKS = {"build", "javadoc"};
+    private static final Map<String, String> MEASURED_GRADLE_TASKS = Map.of(
+            "compileJava", "compile",
+            "test", "test",
+            "javadoc", "javadoc"
+    );
+    private static final ScheduledExecutorService CANCELLER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "build-canceller");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final String currentStudentPath;
     private final Student student;
     private final List<Task> tasksToCheck;
-    private final GradleConnector connector = GradleConnector.newConnector();
+    private final GradleConnectionPool connectionPool;
+    private final CheckCache checkCache;
+    private final TimeoutSettings timeouts;
+    private final boolean collectTestCases;
+    private final JUnitXmlAggregator testReportAggregator;
+    private volatile long studentDeadline = 0;
+    private DeadlineAnalyzer deadlineAnalyzer;
 
     /**
      * Constructor. Initializes student, his repository
@@ -45,15 +74,39 @@ public class TaskRunner {
      * @param student             student that will be processed.
      * @param allRepositoriesPath students' repository with the submissions.
      * @param tasksToCheck        tasks that will be processed.
+     * @param connectionPool      pool of the Gradle connections.
+     * @param checkCache          cache of the check results.
+     * @param timeouts            time budgets of the builds and of the student.
+     * @param collectTestCases    true to report the name, outcome and duration of every test case.
      */
     public TaskRunner(
             Student student,
             String allRepositoriesPath,
-            List<Task> tasksToCheck
+            List<Task> tasksToCheck,
+            GradleConnectionPool connectionPool,
+            CheckCache checkCache,
+            TimeoutSettings timeouts,
+            boolean collectTestCases
     ) {
         this.student = student;
         this.currentStudentPath = allRepositoriesPath + '/' + this.student.nickname + '/';
         this.tasksToCheck = tasksToCheck;
+        this.connectionPool = connectionPool;
+        this.checkCache = checkCache;
+        this.timeouts = timeouts;
+        this.collectTestCases = collectTestCases;
+        this.testReportAggregator = new JUnitXmlAggregator(false, collectTestCases);
+    }
+
+    /**
+     * Starts the time budget of the student when the first of its tasks is
+     * built, so the time spent waiting in the queues is not counted. The
+     * first call wins. Builds that would run past it are cancelled or not started.
+     */
+    private synchronized void startStudentBudget() {
+        if (this.timeouts.student > 0 && this.studentDeadline == 0) {
+            this.studentDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(this.timeouts.student);
+        }
     }
 
     /**
@@ -65,89 +118,214 @@ public class TaskRunner {
         TaskRunnerResult taskRunnerResult = new TaskRunnerResult();
         List<TaskTestResult> taskTestResultMap = new ArrayList<>();
         for (Task task : this.tasksToCheck) {
-            TaskTestResult checkResult = new TaskTestResult();
-            checkResult.task = task;
+            taskTestResultMap.add(this.checkTask(task));
+        }
+
+        taskRunnerResult.tasksResults = taskTestResultMap;
+        taskRunnerResult.student = this.student;
 
-            this.connectToGradleProject(task.id);
-            Logger.log(INFO, "Connected to the project " + this.currentStudentPath + task.id);
+        return taskRunnerResult;
+    }
 
-            Boolean buildResult = this.checkBuild();
-            if (!buildResult) {
-                taskTestResultMap.add(checkResult);
-                continue;
+    /**
+     * Method that processes a single task. Safe to be called
+     * for different tasks of the same student in parallel.
+     * If the task has not changed since the last check the
+     * cached result is reused and Gradle is not called, only the
+     * deadlines and the points are counted for this student.
+     *
+     * @param task task that will be processed.
+     * @return TaskTestResult with all the metrics collected for the task.
+     */
+    public TaskTestResult checkTask(Task task) {
+        String cacheKey = this.checkCache.getKey(new File(this.currentStudentPath), task);
+        TaskTestResult cachedResult = this.checkCache.get(cacheKey, task);
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        if (cachedResult != null) {
+            metrics.increment("check_cache_hits", this.student.nickname, task.id);
+            Logger.log(INFO, "Reused cached result for " + this.currentStudentPath + task.id);
+            if (cachedResult.build) {
+                cachedResult.deadlinesCheckResult = this.getDeadlineAnalyzer().check(task);
+                cachedResult.points = PointsCounter.countTaskPoints(cachedResult);
             }
-            checkResult.build = true;
-            this.checkTests(checkResult, task.id);
-            checkResult.javadoc = this.testJavadoc(task.id);
-            checkResult.deadlinesCheckResult = GithubAPI.checkDeadlines(
-                    task,
-                    this.currentStudentPath + task.id
-            );
+            return cachedResult;
+        }
+        if (this.checkCache.isEnabled()) {
+            metrics.increment("check_cache_misses", this.student.nickname, task.id);
+        }
 
-            checkResult.points = PointsCounter.countTaskPoints(checkResult);
+        TaskTestResult checkResult = new TaskTestResult();
+        checkResult.task = task;
+        this.startStudentBudget();
+        long startTime = System.nanoTime();
 
-            taskTestResultMap.add(checkResult);
+        long buildTimeout = this.timeouts.build > 0 ? TimeUnit.SECONDS.toNanos(this.timeouts.build) : 0;
+        String timeoutStage = "build";
+        if (this.studentDeadline != 0) {
+            long studentRemaining = this.studentDeadline - startTime;
+            if (studentRemaining <= 0) {
+                return this.timedOut(checkResult, "student");
+            }
+            if (buildTimeout == 0 || studentRemaining < buildTimeout) {
+                buildTimeout = studentRemaining;
+                timeoutStage = "student";
+            }
         }
 
-        taskRunnerResult.tasksResults = taskTestResultMap;
-        taskRunnerResult.student = this.student;
+        File projectDirectory = this.getProjectDirectory(task.id);
+        Logger.log(INFO, "Connected to the project " + this.currentStudentPath + task.id);
 
-        return taskRunnerResult;
+        try {
+            TestEventCollector collector = new TestEventCollector(checkResult, this.collectTestCases);
+            long buildStart = System.nanoTime();
+            boolean buildSucceeded;
+            try {
+                buildSucceeded = this.runBuild(projectDirectory, collector, buildTimeout);
+            } finally {
+                metrics.recordSince("build", this.student.nickname, task.id, buildStart);
+                this.recordGradleTasks(collector, task);
+            }
+            if (!collector.isBuilt(buildSucceeded)) {
+                this.checkCache.put(cacheKey, checkResult);
+                return checkResult;
+            }
+            checkResult.build = true;
+            if (!collector.hasTestEvents()) {
+                long parseStart = System.nanoTime();
+                this.parseTestResults(checkResult, task.id);
+                metrics.recordSince("xml_parse", this.student.nickname, task.id, parseStart);
+            }
+            checkResult.javadoc = collector.isJavadocGenerated() || this.javadocExists(task.id);
+        } catch (BuildCancelledException e) {
+            return this.timedOut(checkResult, timeoutStage);
+        } catch (GradleConnectionException | IllegalStateException e) {
+            Logger.log(ERROR, "Error when executing gradle build", "TASK RUNNER");
+            return checkResult;
+        } finally {
+            this.connectionPool.recordTask(System.nanoTime() - startTime);
+        }
+        checkResult.deadlinesCheckResult = this.getDeadlineAnalyzer().check(task);
+
+        checkResult.points = PointsCounter.countTaskPoints(checkResult);
+        this.checkCache.put(cacheKey, checkResult);
+
+        return checkResult;
     }
 
     /**
-     * Method that calls Gradle to check whether task can build or not.
+     * Marks the result as timed out. Such results are not cached,
+     * so the task is built again on the next run.
      *
-     * @return true, if task is successfully build, false otherwise.
+     * @param checkResult result of the task.
+     * @param stage       budget that ran out: build or student.
+     * @return the same result.
      */
-    private Boolean checkBuild() {
-        return this.executeGradleCommand("build");
+    private TaskTestResult timedOut(TaskTestResult checkResult, String stage) {
+        checkResult.timedOut = true;
+        checkResult.timedOutStage = stage;
+        MetricsRegistry.getInstance().increment("timeouts_" + stage, this.student.nickname, checkResult.task.id);
+        Logger.log(
+                WARNING,
+                "Time budget of the " + stage + " ran out on " + this.currentStudentPath + checkResult.task.id,
+                "TASK RUNNER"
+        );
+        return checkResult;
     }
 
     /**
-     * Method that starts all tests and parses XML with the tests result.
+     * Records the durations of the compilation, the tests and the javadoc
+     * reported by Gradle, as they all run inside a single build.
+     *
+     * @param collector listener that collected the task events.
+     * @param task      task that was built.
+     */
+    private void recordGradleTasks(TestEventCollector collector, Task task) {
+        for (Map.Entry<String, Long> entry : collector.getTaskDurations().entrySet()) {
+            String stage = MEASURED_GRADLE_TASKS.get(entry.getKey());
+            if (stage != null) {
+                MetricsRegistry.getInstance().record(
+                        stage,
+                        this.student.nickname,
+                        task.id,
+                        TimeUnit.MILLISECONDS.toNanos(entry.getValue())
+                );
+            }
+        }
+    }
+
+    /**
+     * Returns the deadline analyzer of the student's repository. The history
+     * is walked once for all the tasks, on the first call.
+     *
+     * @return deadline analyzer.
+     */
+    private synchronized DeadlineAnalyzer getDeadlineAnalyzer() {
+        if (this.deadlineAnalyzer == null) {
+            List<String> taskPaths = this.tasksToCheck.stream().map(task -> task.id).toList();
+            try {
+                this.deadlineAnalyzer = new DeadlineAnalyzer(new File(this.currentStudentPath), taskPaths);
+            } catch (IOException e) {
+                Logger.log(ERROR, "Error when reading the history of " + this.currentStudentPath, "TASK RUNNER");
+                this.deadlineAnalyzer = DeadlineAnalyzer.empty();
+            }
+        }
+        return this.deadlineAnalyzer;
+    }
+
+    /**
+     * Method that runs build, tests and javadoc of the task in
+     * a single Gradle invocation. Test outcomes are collected
+     * from the progress events while the build is running.
+     *
+     * @param projectDirectory directory of the task's Gradle project.
+     * @param collector        listener that collects task and test events.
+     * @param timeoutNanos     time budget of the run, 0 for no limit.
+     * @return true if the whole run succeeded, false if the build failed.
+     * @throws BuildCancelledException   is thrown when the run was cancelled after the time budget.
+     * @throws GradleConnectionException is thrown when Gradle could not be run at all.
+     */
+    private boolean runBuild(File projectDirectory, TestEventCollector collector, long timeoutNanos) {
+        CancellationTokenSource cancellation = GradleConnector.newCancellationTokenSource();
+        ScheduledFuture<?> timer = timeoutNanos > 0 ?
+                CANCELLER.schedule(cancellation::cancel, timeoutNanos, TimeUnit.NANOSECONDS) :
+                null;
+        try (PooledConnection connection = this.connectionPool.acquire(projectDirectory)) {
+            connection.get().newBuild()
+                    .forTasks(BUILD_TASKS)
+                    .withArguments(this.connectionPool.getBuildArguments("--continue"))
+                    .addProgressListener(collector, EnumSet.of(OperationType.TASK, OperationType.TEST))
+                    .withCancellationToken(cancellation.token())
+                    .run();
+            return true;
+        } catch (BuildException e) {
+            if (cancellation.token().isCancellationRequested()) {
+                throw new BuildCancelledException("Build was cancelled after the time budget", e);
+            }
+            return false;
+        } finally {
+            if (timer != null) {
+                timer.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Method that reads all the XML reports with the tests result. Is used
+     * when Gradle of the project does not report test events. The files are
+     * read one by one, the task checks already run in parallel.
      *
      * @param taskTestResult link to the TaskTestResult object that is
      *                       filled with the data during the check.
      * @param taskName       name of the task used to get the appropriate folder.
      */
-    private void checkTests(
+    private void parseTestResults(
             TaskTestResult taskTestResult,
             String taskName
     ) {
+        File resultsDirectory = new File(this.currentStudentPath + taskName + "/build/test-results/test/");
         try {
-            this.executeGradleCommand("test");
-            DocumentBuilderFactory factory = DocumentBuilderFactory
-                    .newInstance();
-            DocumentBuilder builder = factory
-                    .newDocumentBuilder();
-            String xmlFile = Objects.requireNonNull(
-                    new File(
-                            this.currentStudentPath + taskName +
-                                    "/build/test-results/test/"
-                    ).listFiles((dir, name) ->
-                            name.toLowerCase().endsWith(".xml")))[0].getName();
-            Document junitDoc = builder
-                    .parse(new File(
-                            this.currentStudentPath + taskName +
-                                    "/build/test-results/test/" + xmlFile)
-                    );
-            Element junitTestSuite = (Element) junitDoc
-                    .getElementsByTagName("testsuite")
-                    .item(0);
-            taskTestResult.totalTests = Integer.parseInt(
-                    junitTestSuite.getAttribute("tests")
-            );
-            taskTestResult.failedTests = Integer.parseInt(
-                    junitTestSuite.getAttribute("failures")
-            );
-            taskTestResult.ignoredTests = Integer.parseInt(
-                    junitTestSuite.getAttribute("skipped")
-            );
-            taskTestResult.passedTests = taskTestResult.totalTests -
-                    taskTestResult.ignoredTests -
-                    taskTestResult.failedTests;
-        } catch (ParserConfigurationException | IOException | SAXException e) {
+            this.testReportAggregator.aggregate(resultsDirectory, taskTestResult);
+        } catch (IOException | XMLStreamException e) {
             Logger.log(ERROR, "Error when parsing tests result!");
         }
     }
@@ -158,8 +336,7 @@ public class TaskRunner {
      * @param taskName name of the task to get the appropriate folder.
      * @return true if javadoc exists false otherwise.
      */
-    private Boolean testJavadoc(String taskName) {
-        this.executeGradleCommand("javadoc");
+    private Boolean javadocExists(String taskName) {
         Path documentationPath = Paths.get(
                 this.currentStudentPath + taskName + "/build/docs/javadoc/"
         );
@@ -167,33 +344,13 @@ public class TaskRunner {
     }
 
     /**
-     * Method that connects TaskRunner instance
-     * to the provided Gradle project.
+     * Method that returns the directory
+     * of the provided Gradle project.
      *
      * @param projectName project that will be connected.
+     * @return directory of the project.
      */
-    private void connectToGradleProject(String projectName) {
-        this.connector.forProjectDirectory(
-                new File(this.currentStudentPath + projectName)
-        );
-    }
-
-    /**
-     * Method that is used to execute a Gradle command in the current project.
-     *
-     * @param command Gradle command.
-     * @return true if the execution is successful, false otherwise.
-     */
-    private Boolean executeGradleCommand(String command) {
-        try {
-            ProjectConnection connection = this.connector.connect();
-            connection.newBuild()
-                    .forTasks(command)
-                    .run();
-            return true;
-        } catch (GradleConnectionException | IllegalStateException e) {
-            Logger.log(ERROR, "Error when executing gradle command " + command, "TASK RUNNER");
-            return false;
-        }
+    private File getProjectDirectory(String projectName) {
+        return new File(this.currentStudentPath + projectName);
     }
 }
@@ -1,28 +1,69 @@
 package ru.nsu.dolgov.taskchecker.checker;
 
 import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.cache.CheckCache;
 import ru.nsu.dolgov.taskchecker.exceptions.WrongDatesForActivityReportException;
+import ru.nsu.dolgov.taskchecker.git.DiskUsage;
+import ru.nsu.dolgov.taskchecker.git.MirrorCache;
+import ru.nsu.dolgov.taskchecker.gradle.GradleConnectionPool;
+import ru.nsu.dolgov.taskchecker.journal.ResultJournal;
 import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.PipelineSettings;
+import ru.nsu.dolgov.taskchecker.models.core.ExecutionMode;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
 import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.results.CacheStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.CloneStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.CommitsCheckResult;
+import ru.nsu.dolgov.taskchecker.models.results.SchedulerStatistics;
 import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+import ru.nsu.dolgov.taskchecker.pipeline.PipelineStage;
+import ru.nsu.dolgov.taskchecker.pipeline.StageSink;
+import ru.nsu.dolgov.taskchecker.scheduler.CheckUnit;
+import ru.nsu.dolgov.taskchecker.scheduler.WorkStealingScheduler;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.*;
 
 /**
  * Wrapper above the TaskRunner used to achieve parallel computations.
+ * Either checks the whole 'toCheck' list with checkTasks(), or is opened
+ * once and fed students one by one until it is closed, so a long running
+ * worker keeps its pipeline, Gradle daemons and journal.
  */
 public class TaskRunnerWrapper {
     private final AdditionalSettings configuration;
     private final Integer threadQuantity;
-    private final CopyOnWriteArrayList<TaskRunnerResult> taskRunnerResults = new CopyOnWriteArrayList<>();
-    private ExecutorService threadPool;
-    private List<Future<Integer>> futures;
+    private final Map<StudentWithTasks, StudentCheck> studentChecks = new ConcurrentHashMap<>();
+    private final CheckCache checkCache;
+    private final boolean resume;
+    private final RepositoryDownloads downloads;
+    private ResultJournal journal;
+    private Semaphore buildSlots;
+    private GradleConnectionPool connectionPool;
+    private SchedulerStatistics schedulerStatistics;
+    private WorkStealingScheduler scheduler;
+    private PipelineStage<StudentCheck> downloadStage;
+    private ScheduledExecutorService monitor;
+    private final AtomicInteger downloadedRepositories = new AtomicInteger();
+    private final AtomicLong downloadNanos = new AtomicLong();
+    private final AtomicLong gitBytes = new AtomicLong();
+    private final AtomicLong worktreeBytes = new AtomicLong();
 
     /**
      * Constructor. Accepts only app configuration.
@@ -31,184 +72,538 @@ public class TaskRunnerWrapper {
      */
     public TaskRunnerWrapper(
             AdditionalSettings configuration
+    ) {
+        this(configuration, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param configuration configuration for the app.
+     * @param resume        true to skip the tasks already written to the journal.
+     */
+    public TaskRunnerWrapper(
+            AdditionalSettings configuration,
+            boolean resume
+    ) {
+        this(configuration, resume, new RepositoryDownloads(configuration));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param configuration configuration for the app.
+     * @param resume        true to skip the tasks already written to the journal.
+     * @param downloads     downloads shared with the plagiarism check.
+     */
+    public TaskRunnerWrapper(
+            AdditionalSettings configuration,
+            boolean resume,
+            RepositoryDownloads downloads
     ) {
         this.configuration = configuration;
-        this.threadQuantity = this.configuration.runInParallel ?
-                Runtime.getRuntime().availableProcessors() : 1;
+        this.resume = resume;
+        this.downloads = downloads;
+        this.threadQuantity = this.getBuildThreads();
+        this.checkCache = new CheckCache(
+                this.configuration.checkCachePath,
+                this.configuration.useCheckCache
+        );
     }
 
     /**
-     * Method used to process tasks.
+     * Returns the size of the build pool. Builds are CPU and memory heavy,
+     * so they always run on a bounded pool of platform threads.
      *
-     * @param studentWithTasksList list filled with students and their tasks.
-     * @param executorName         number of the thread used
-     *                             to achieve appropriate logging.
-     * @return int to know that execution is finished.
+     * @return amount of the parallel builds.
+     */
+    private int getBuildThreads() {
+        if (this.configuration.executionMode == ExecutionMode.SEQUENTIAL) {
+            return 1;
+        }
+        if (this.configuration.buildThreads != null && this.configuration.buildThreads > 0) {
+            return this.configuration.buildThreads;
+        }
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Returns the amount of the workers of a stage that mostly waits for the network.
+     *
+     * @param platformThreads size of the stage in the PLATFORM mode.
+     * @return amount of the workers in the configured mode.
+     */
+    private int getIoThreads(int platformThreads) {
+        return switch (this.configuration.executionMode) {
+            case SEQUENTIAL -> 1;
+            case PLATFORM -> platformThreads;
+            case VIRTUAL -> this.configuration.pipeline.virtualThreads;
+        };
+    }
+
+    /**
+     * Download stage: clones or pulls the repository of the student.
+     *
+     * @param studentCheck student that is processed.
+     * @param workerName   name of the stage worker used
+     *                     to achieve appropriate logging.
+     * @throws IOException is thrown when the repository could not be downloaded.
+     */
+    private void downloadRepository(StudentCheck studentCheck, String workerName) throws IOException {
+        long start = System.nanoTime();
+        Student student = studentCheck.studentWithTasks.student;
+        boolean downloaded = this.downloads.download(student, studentCheck.githubAPI);
+        this.downloadNanos.addAndGet(System.nanoTime() - start);
+        if (!downloaded) {
+            throw new IOException("unable to download " + student.repository);
+        }
+        Path repository = Paths.get(this.configuration.repositoriesPath, student.nickname);
+        long gitBytes = DiskUsage.getSize(repository.resolve(".git"));
+        this.worktreeBytes.addAndGet(DiskUsage.getSize(repository) - gitBytes);
+        if (this.configuration.useMirrorCache) {
+            MirrorCache mirrorCache = new MirrorCache(this.configuration.mirrorCachePath, 0);
+            gitBytes += DiskUsage.getSize(mirrorCache.getMirror(student.repository, student.nickname).toPath());
+        }
+        this.gitBytes.addAndGet(gitBytes);
+        this.downloadedRepositories.incrementAndGet();
+        Logger.log(
+                SUCCESS,
+                "Downloaded repository for " + studentCheck.studentWithTasks.student.nickname,
+                workerName
+        );
+    }
+
+    /**
+     * Commits activity stage: gets the activity of the student.
+     *
+     * @param studentCheck student that is processed.
+     * @param workerName   name of the stage worker used
+     *                     to achieve appropriate logging.
      * @throws IOException                          is thrown by GitHubAPI.
      * @throws WrongDatesForActivityReportException is thrown by GitHubAPI.
      */
-    private int taskFactory(
-            List<StudentWithTasks> studentWithTasksList,
-            String executorName
-    ) throws IOException, WrongDatesForActivityReportException {
-        for (StudentWithTasks studentWithTasks : studentWithTasksList) {
-            GithubAPI githubAPI = new GithubAPI(
-                    this.configuration.repositoriesPath,
-                    studentWithTasks.student,
-                    this.configuration
-            );
-            githubAPI.downloadRepository();
-            Logger.log(
-                    SUCCESS,
-                    "Downloaded repository for " + studentWithTasks.student.nickname,
-                    "TASK CHECKER " + executorName
-            );
-            TaskRunner taskRunner = new TaskRunner(
-                    studentWithTasks.student,
-                    this.configuration.repositoriesPath,
-                    studentWithTasks.tasks
-            );
-            studentWithTasks.student.commitsCheckResult = githubAPI.getCommitsActivity();
-            Logger.log(
-                    SUCCESS,
-                    "Got commits activity for " + studentWithTasks.student.nickname,
-                    "TASK CHECKER " + executorName
-            );
-            TaskRunnerResult taskRunnerResult = taskRunner.checkTasks();
+    private void getCommitsActivity(StudentCheck studentCheck, String workerName) throws
+            IOException,
+            WrongDatesForActivityReportException {
+        if (studentCheck.failure != null) {
+            return;
+        }
+        Student student = studentCheck.studentWithTasks.student;
+        student.commitsCheckResult = this.journal.getActivity(student);
+        if (student.commitsCheckResult == null) {
+            student.commitsCheckResult = studentCheck.githubAPI.getCommitsActivity();
+            this.journal.appendActivity(student, student.commitsCheckResult);
+        }
+        Logger.log(
+                SUCCESS,
+                "Got commits activity for " + studentCheck.studentWithTasks.student.nickname,
+                workerName
+        );
+    }
+
+    /**
+     * Records that the repository of the student could not be downloaded.
+     * The next stages skip the student and its tasks stay not built.
+     *
+     * @param studentCheck student that is processed.
+     * @param stage        name of the failed stage.
+     * @param cause        exception thrown by the stage.
+     */
+    private void recordFailure(StudentCheck studentCheck, String stage, Exception cause) {
+        studentCheck.failure = stage + " stage failed: " + cause.getMessage();
+    }
+
+    /**
+     * Method used to process a single task of a student.
+     *
+     * @param unit         student and task to process.
+     * @param executorName number of the worker used
+     *                     to achieve appropriate logging.
+     */
+    private void taskFactory(CheckUnit unit, String executorName) {
+        StudentCheck studentCheck = this.studentChecks.get(unit.studentWithTasks);
+        Student student = unit.studentWithTasks.student;
+        try {
+            TaskTestResult result = this.journal.getTaskResult(student, unit.task);
+            if (result == null) {
+                result = studentCheck.taskRunner.checkTask(unit.task);
+                this.journal.appendTaskResult(student, result);
+            }
+            studentCheck.results[unit.taskIndex] = result;
             Logger.log(
                     SUCCESS,
-                    "Checked tasks for " + studentWithTasks.student.nickname,
+                    "Checked " + unit.task.id + " for " + student.nickname,
                     "TASK CHECKER " + executorName
             );
-            this.taskRunnerResults.add(taskRunnerResult);
-
-            if (this.configuration.cleanUp) {
-                githubAPI.cleanUp();
-                Logger.log(
-                        INFO,
-                        "Cleaning up...",
-                        "TASK CHECKER " + executorName
-                );
+        } finally {
+            if (studentCheck.remainingTasks.decrementAndGet() == 0) {
+                this.buildSlots.release();
+                if (this.configuration.cleanUp) {
+                    this.downloads.cleanUp(student, studentCheck.githubAPI);
+                    Logger.log(
+                            INFO,
+                            "Cleaning up...",
+                            "TASK CHECKER " + executorName
+                    );
+                }
+                this.complete(studentCheck);
             }
         }
+    }
 
-        return 0;
+    /**
+     * Passes the results of a student whose tasks are all done to its listener.
+     *
+     * @param studentCheck student that is processed.
+     */
+    private void complete(StudentCheck studentCheck) {
+        if (studentCheck.listener == null) {
+            return;
+        }
+        this.studentChecks.remove(studentCheck.studentWithTasks);
+        this.downloads.forget(studentCheck.studentWithTasks.student);
+        studentCheck.listener.checked(
+                studentCheck.studentWithTasks,
+                this.getResult(studentCheck),
+                studentCheck.failure
+        );
     }
 
     /**
-     * Method used to split an array of students with
-     * tasks to an list of lists of students with tasks
-     * to split them into threads.
+     * Creates the last sink of the pipeline that submits
+     * all the tasks of a student to the scheduler. The tasks of a student
+     * whose download failed are not built, they are neither journaled nor
+     * cached, so the next run with --resume checks them again.
      *
-     * @param studentsWithTasksArray student with tasks to process.
-     * @return list of lists of students with tasks
-     * to split them into threads.
+     * @param scheduler scheduler that will process the units.
+     * @return sink that passes students to the scheduler.
      */
-    private List<List<StudentWithTasks>> splitToCheckList(
-            StudentWithTasks[] studentsWithTasksArray
-    ) {
-        List<List<StudentWithTasks>> listsOfStudentsWithTasks = new ArrayList<>();
+    private StageSink<StudentCheck> schedulerSink(WorkStealingScheduler scheduler) {
+        return new StageSink<>() {
+            @Override
+            public void put(StudentCheck studentCheck) throws InterruptedException {
+                if (studentCheck.failure != null) {
+                    Logger.log(
+                            WARNING,
+                            "Skipping the tasks of " + studentCheck + ", the " + studentCheck.failure,
+                            "TASK CHECKER MAIN"
+                    );
+                    complete(studentCheck);
+                    return;
+                }
+                buildSlots.acquire();
+                List<CheckUnit> units = new ArrayList<>();
+                for (int i = 0; i < studentCheck.studentWithTasks.tasks.size(); i++) {
+                    units.add(new CheckUnit(studentCheck.studentWithTasks, i));
+                }
+                if (units.isEmpty()) {
+                    buildSlots.release();
+                    complete(studentCheck);
+                    return;
+                }
+                scheduler.submit(units);
+            }
 
-        if (studentsWithTasksArray.length < this.threadQuantity) {
-            for (StudentWithTasks studentWithTasks : studentsWithTasksArray) {
-                List<StudentWithTasks> studentWithTasksList = new ArrayList<>();
-                studentWithTasksList.add(studentWithTasks);
-                listsOfStudentsWithTasks.add(studentWithTasksList);
+            @Override
+            public void finish() {
+                scheduler.close();
             }
+        };
+    }
 
-            return listsOfStudentsWithTasks;
+    /**
+     * Puts all the students of the 'toCheck' list to the pipeline.
+     */
+    private void submitStudents() {
+        try {
+            for (StudentWithTasks studentWithTasks : this.configuration.toCheckList) {
+                this.submit(studentWithTasks, null);
+            }
+            Logger.log(INFO, "Submitted tasks for execution", "TASK CHECKER MAIN");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.log(ERROR, "Interrupted when submitting tasks!", "TASK CHECKER MAIN");
         }
+    }
 
-        int totalSubarrays = (int) Math.ceil((double) studentsWithTasksArray.length / this.threadQuantity);
-
-        for (int i = 0; i < this.threadQuantity; i++) {
-            int start = i * totalSubarrays;
-            int end = Math.min(start + totalSubarrays, studentsWithTasksArray.length);
-            StudentWithTasks[] subarray = Arrays.copyOfRange(studentsWithTasksArray, start, end);
-            listsOfStudentsWithTasks.add(Arrays.stream(subarray).toList());
+    /**
+     * Puts a student to the first stage of the pipeline, or passes its
+     * results to the listener right away if they are all in the journal.
+     * Must be called between open() and close(). Blocks while the download
+     * queue is full.
+     *
+     * @param studentWithTasks student and the tasks to check.
+     * @param listener         receiver of the results, null to collect them with the 'toCheck' list.
+     * @throws InterruptedException is thrown when interrupted while waiting for the queue.
+     */
+    public void submit(StudentWithTasks studentWithTasks, StudentCheckListener listener) throws
+            InterruptedException {
+        this.downloads.require(studentWithTasks.student, studentWithTasks.tasks);
+        StudentCheck studentCheck = new StudentCheck(studentWithTasks, listener);
+        this.studentChecks.put(studentWithTasks, studentCheck);
+        if (this.restoreFromJournal(studentCheck)) {
+            this.complete(studentCheck);
+        } else {
+            this.downloadStage.put(studentCheck);
         }
-
-        return listsOfStudentsWithTasks;
     }
 
     /**
-     * Parses the 'toCheck' map into an array.
+     * Fills the results of the student from the journal of the previous run.
      *
-     * @return array if students with tasks.
+     * @param studentCheck student that is processed.
+     * @return true if all the results were found, so the student does not need to be checked.
      */
-    private StudentWithTasks[] parseToCheckMapIntoArray() {
-        StudentWithTasks[] studentsWithTasksArray = new StudentWithTasks[this.configuration.toCheckList.size()];
-        return this.configuration.toCheckList.toArray(studentsWithTasksArray);
+    private boolean restoreFromJournal(StudentCheck studentCheck) {
+        Student student = studentCheck.studentWithTasks.student;
+        CommitsCheckResult activity = this.journal.getActivity(student);
+        if (activity == null) {
+            return false;
+        }
+        TaskTestResult[] results = new TaskTestResult[studentCheck.results.length];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = this.journal.getTaskResult(student, studentCheck.studentWithTasks.tasks.get(i));
+            if (results[i] == null) {
+                return false;
+            }
+        }
+
+        student.commitsCheckResult = activity;
+        System.arraycopy(results, 0, studentCheck.results, 0, results.length);
+        Logger.log(INFO, "Restored " + student.nickname + " from the journal", "TASK CHECKER MAIN");
+        return true;
     }
 
     /**
-     * Method to initialize thread pull and assign them tasks.
+     * Collects the results in the order of the 'toCheck' list.
+     *
+     * @return a list of results. One result per student.
      */
-    private void prepareExecutors() {
-        this.threadPool = Executors.newFixedThreadPool(this.threadQuantity);
-        this.futures = new ArrayList<>();
-
-        if (this.threadQuantity > 1) {
-            List<List<StudentWithTasks>> toCheck = this.splitToCheckList(this.parseToCheckMapIntoArray());
-            int executorNumber = 1;
-            for (List<StudentWithTasks> studentWithTasksList : toCheck) {
-                int finalExecutorNumber = executorNumber;
-                this.futures.add(this.threadPool.submit(
-                                () -> this.taskFactory(
-                                        studentWithTasksList,
-                                        Integer.toString(finalExecutorNumber)
-                                )
-                        )
-                );
-                executorNumber++;
-                Logger.log(INFO, "Submitted task for execution", "TASK CHECKER MAIN");
+    private List<TaskRunnerResult> collectResults() {
+        List<TaskRunnerResult> taskRunnerResults = new ArrayList<>();
+        for (StudentWithTasks studentWithTasks : this.configuration.toCheckList) {
+            StudentCheck studentCheck = this.studentChecks.get(studentWithTasks);
+            if (studentCheck == null) {
+                continue;
             }
-        } else {
-            this.futures.add(
-                    this.threadPool.submit(() -> this.taskFactory(
-                            Arrays.stream(
-                                    this.parseToCheckMapIntoArray()
-                            ).toList(),
-                            "1"
-                    ))
-            );
-            Logger.log(INFO, "Submitted task for execution", "TASK CHECKER MAIN");
+            taskRunnerResults.add(this.getResult(studentCheck));
         }
+        return taskRunnerResults;
+    }
+
+    /**
+     * Creates the result of a student from the results of its tasks.
+     *
+     * @param studentCheck student that is processed.
+     * @return result of the student.
+     */
+    private TaskRunnerResult getResult(StudentCheck studentCheck) {
+        TaskRunnerResult taskRunnerResult = new TaskRunnerResult();
+        taskRunnerResult.student = studentCheck.studentWithTasks.student;
+        taskRunnerResult.tasksResults = Arrays.asList(studentCheck.results);
+        return taskRunnerResult;
     }
 
     /**
-     * An entrypoint to check the tasks.
+     * An entrypoint to check the tasks. Students go through the
+     * download and commits activity stages and then their tasks
+     * are checked by the scheduler, so cloning and API calls
+     * overlap with the builds.
      *
      * @return a list of results. One result per student.
      */
     public List<TaskRunnerResult> checkTasks() {
+        if (!this.open()) {
+            return new ArrayList<>();
+        }
         try {
-            this.prepareExecutors();
-            Logger.log(
-                    INFO,
-                    "Preparing " + this.threadQuantity + " executors...",
-                    "TASK CHECKER MAIN"
-            );
-            Logger.log(
-                    INFO,
-                    "Starting executors...",
-                    "TASK CHECKER MAIN"
-            );
-            for (Future<Integer> result : this.futures) {
-                result.get();
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            Logger.log(ERROR, "Error when checking tasks!", "TASK CHECKER MAIN");
+            this.submitStudents();
         } finally {
-            this.threadPool.shutdownNow();
+            this.close();
+        }
+        return this.collectResults();
+    }
+
+    /**
+     * Opens the journal and the Gradle connections and starts the pipeline,
+     * after which students are accepted by submit() until close().
+     *
+     * @return false if the journal could not be opened.
+     */
+    public boolean open() {
+        PipelineSettings pipeline = this.configuration.pipeline;
+        try {
+            this.journal = new ResultJournal(this.configuration.journalPath, this.resume);
+        } catch (IOException e) {
+            Logger.log(ERROR, "Unable to open the journal " + this.configuration.journalPath, "TASK CHECKER MAIN");
+            return false;
         }
+        boolean virtualThreads = this.configuration.executionMode == ExecutionMode.VIRTUAL;
+        int downloadThreads = this.getIoThreads(pipeline.downloadThreads);
+        int activityThreads = this.getIoThreads(pipeline.activityThreads);
+        this.scheduler = new WorkStealingScheduler(this.threadQuantity);
+        this.buildSlots = new Semaphore(pipeline.queueCapacity + this.threadQuantity);
+        this.connectionPool = new GradleConnectionPool(this.configuration.gradle);
+
+        PipelineStage<StudentCheck> activityStage = new PipelineStage<>(
+                "activity",
+                activityThreads,
+                pipeline.queueCapacity,
+                this::getCommitsActivity,
+                this.schedulerSink(this.scheduler),
+                virtualThreads
+        );
+        this.downloadStage = new PipelineStage<>(
+                "download",
+                downloadThreads,
+                pipeline.queueCapacity,
+                this::downloadRepository,
+                activityStage,
+                virtualThreads,
+                this::recordFailure
+        );
+        Logger.log(
+                INFO,
+                "Preparing " + this.threadQuantity + " build executors, "
+                        + downloadThreads + " download and " + activityThreads + " activity workers in the "
+                        + this.configuration.executionMode + " mode...",
+                "TASK CHECKER MAIN"
+        );
+
+        this.monitor = Executors.newSingleThreadScheduledExecutor();
+        this.monitor.scheduleAtFixedRate(() -> {
+            this.downloadStage.logState();
+            activityStage.logState();
+            Logger.log(INFO, "build: pending units " + this.scheduler.getPendingUnits(), "PIPELINE");
+        }, pipeline.logInterval, pipeline.logInterval, TimeUnit.SECONDS);
+
+        Logger.log(
+                INFO,
+                "Starting executors...",
+                "TASK CHECKER MAIN"
+        );
+        this.scheduler.start(this::taskFactory);
+        activityStage.start();
+        this.downloadStage.start();
+        return true;
+    }
+
+    /**
+     * Stops accepting students, waits until the submitted ones are checked
+     * and closes the journal and the Gradle connections.
+     */
+    public void close() {
+        this.downloadStage.finish();
+        this.schedulerStatistics = this.scheduler.await();
+        this.monitor.shutdownNow();
+        this.journal.close();
+        this.connectionPool.close();
 
         Logger.log(
                 SUCCESS,
                 "Checking completed!",
                 "TASK CHECKER MAIN"
         );
+    }
+
+    /**
+     * Getter for the statistics of the last run.
+     *
+     * @return makespan and utilization of the workers.
+     */
+    public SchedulerStatistics getSchedulerStatistics() {
+        return this.schedulerStatistics;
+    }
+
+    /**
+     * Returns the time and disk space spent on the downloads and logs them.
+     *
+     * @return clone statistics of the configured strategy.
+     */
+    public CloneStatistics getCloneStatistics() {
+        CloneStatistics statistics = new CloneStatistics();
+        statistics.strategy = this.configuration.cloneStrategy;
+        statistics.repositories = this.downloadedRepositories.get();
+        statistics.downloadMillis = this.downloadNanos.get() / 1_000_000;
+        statistics.receivedBytes = this.downloads.getReceivedBytes();
+        statistics.gitBytes = this.gitBytes.get();
+        statistics.worktreeBytes = this.worktreeBytes.get();
+        Logger.log(
+                INFO,
+                String.format(
+                        "%s clone: %d repositories, %.1f MB received, %.1f MB in .git, %.1f MB in working trees, %d ms",
+                        statistics.strategy,
+                        statistics.repositories,
+                        statistics.receivedBytes / 1048576.0,
+                        statistics.gitBytes / 1048576.0,
+                        statistics.worktreeBytes / 1048576.0,
+                        statistics.downloadMillis
+                ),
+                "TASK CHECKER MAIN"
+        );
+        return statistics;
+    }
+
+    /**
+     * Getter for the hits and misses of the check cache.
+     *
+     * @return cache statistics.
+     */
+    public CacheStatistics getCheckCacheStatistics() {
+        return this.checkCache.getStatistics();
+    }
+
+    /**
+     * Class used to hold the state of a single student during the check.
+     */
+    private class StudentCheck {
+        private final StudentWithTasks studentWithTasks;
+        private final GithubAPI githubAPI;
+        private final TaskRunner taskRunner;
+        private final TaskTestResult[] results;
+        private final AtomicInteger remainingTasks;
+        private final StudentCheckListener listener;
+        private volatile String failure;
+
+        /**
+         * Constructor.
+         *
+         * @param studentWithTasks student and tasks that will be processed.
+         * @param listener         receiver of the results, may be null.
+         */
+        private StudentCheck(StudentWithTasks studentWithTasks, StudentCheckListener listener) {
+            this.studentWithTasks = studentWithTasks;
+            this.listener = listener;
+            this.githubAPI = new GithubAPI(
+                    configuration.repositoriesPath,
+                    studentWithTasks.student,
+                    configuration
+            );
+            this.taskRunner = new TaskRunner(
+                    studentWithTasks.student,
+                    configuration.repositoriesPath,
+                    studentWithTasks.tasks,
+                    connectionPool,
+                    checkCache,
+                    configuration.timeouts,
+                    configuration.collectTestCases
+            );
+            this.results = new TaskTestResult[studentWithTasks.tasks.size()];
+            for (int i = 0; i < this.results.length; i++) {
+                this.results[i] = new TaskTestResult();
+                this.results[i].task = studentWithTasks.tasks.get(i);
+            }
+            this.remainingTasks = new AtomicInteger(studentWithTasks.tasks.size());
+        }
 
-        return this.taskRunnerResults;
+        /**
+         * Returns the nickname of the student used in the logs.
+         *
+         * @return nickname.
+         */
+        @Override
+        public String toString() {
+            return this.studentWithTasks.student.nickname;
+        }
     }
 }
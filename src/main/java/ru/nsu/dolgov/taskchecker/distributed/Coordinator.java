@@ -0,0 +1,423 @@
+package ru.nsu.dolgov.taskchecker.distributed;
+
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.journal.ResultJournal;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.DistributedSettings;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.results.CommitsCheckResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.*;
+
+/**
+ * Shards the students of the 'toCheck' list between the worker processes.
+ * Every connected worker gets as many students at a time as it announced
+ * in its greeting and sends back the results of all their tasks. A busy
+ * worker that sends neither a heartbeat nor a result within the heartbeat
+ * timeout, or whose connection breaks, is dropped and its students are
+ * given to other workers, and so is a student a worker failed to check. The coordinator listens on the
+ * configured bind address only and drops the workers whose greeting does
+ * not carry the configured secret.
+ */
+public class Coordinator {
+    private static final long POLL_TIMEOUT_MILLIS = 500;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 5000;
+    private static final int ACCEPT_BACKLOG = 50;
+    private final AdditionalSettings configuration;
+    private final DistributedSettings settings;
+    private final boolean resume;
+    private final BlockingDeque<Assignment> pending = new LinkedBlockingDeque<>();
+    private final List<Thread> connections = new ArrayList<>();
+    private final AtomicInteger connectedWorkers = new AtomicInteger();
+    private final AtomicInteger reassignments = new AtomicInteger();
+    private TaskRunnerResult[] results;
+    private CountDownLatch remaining;
+    private ResultJournal journal;
+    private volatile boolean finished = false;
+
+    /**
+     * Constructor.
+     *
+     * @param configuration configuration for the app.
+     * @param resume        true to skip the students already written to the journal.
+     */
+    public Coordinator(AdditionalSettings configuration, boolean resume) {
+        this.configuration = configuration;
+        this.settings = configuration.distributed;
+        this.resume = resume;
+    }
+
+    /**
+     * An entrypoint to check the tasks. Waits for the workers on the
+     * configured port until every student is checked or given up.
+     *
+     * @return a list of results in the order of the 'toCheck' list.
+     */
+    public List<TaskRunnerResult> checkTasks() {
+        try {
+            this.journal = new ResultJournal(this.configuration.journalPath, this.resume);
+        } catch (IOException e) {
+            Logger.log(ERROR, "Unable to open the journal " + this.configuration.journalPath, "COORDINATOR");
+            return new ArrayList<>();
+        }
+        List<StudentWithTasks> toCheckList = this.configuration.toCheckList;
+        this.results = new TaskRunnerResult[toCheckList.size()];
+        for (int i = 0; i < toCheckList.size(); i++) {
+            if (!this.restoreFromJournal(i)) {
+                this.pending.add(new Assignment(i));
+            }
+        }
+        this.remaining = new CountDownLatch(this.pending.size());
+
+        long start = System.nanoTime();
+        String address = this.settings.bindAddress + ":" + this.settings.port;
+        try (ServerSocket server = new ServerSocket(
+                this.settings.port,
+                ACCEPT_BACKLOG,
+                InetAddress.getByName(this.settings.bindAddress)
+        )) {
+            if (!server.getInetAddress().isLoopbackAddress() && !this.hasSecret()) {
+                Logger.log(
+                        WARNING,
+                        "Listening on " + address + " without a secret, anyone who reaches it can take students",
+                        "COORDINATOR"
+                );
+            }
+            Thread acceptor = new Thread(() -> this.acceptWorkers(server), "coordinator-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+            Logger.log(
+                    INFO,
+                    "Waiting for workers on " + address + ", " + this.pending.size() + " students to check",
+                    "COORDINATOR"
+            );
+            this.remaining.await();
+            this.finished = true;
+        } catch (IOException e) {
+            Logger.log(ERROR, "Unable to listen on " + address + ": " + e.getMessage(), "COORDINATOR");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.log(ERROR, "Interrupted while waiting for the workers!", "COORDINATOR");
+        } finally {
+            this.finished = true;
+            this.awaitConnections();
+            this.journal.close();
+        }
+
+        Logger.log(
+                SUCCESS,
+                String.format(
+                        "Checking completed in %d ms, %d students were reassigned",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                        this.reassignments.get()
+                ),
+                "COORDINATOR"
+        );
+        List<TaskRunnerResult> taskRunnerResults = new ArrayList<>();
+        for (int i = 0; i < this.results.length; i++) {
+            taskRunnerResults.add(this.results[i] != null ? this.results[i] : getEmptyResult(toCheckList.get(i)));
+        }
+        return taskRunnerResults;
+    }
+
+    /**
+     * Accepts the workers until the server is closed.
+     *
+     * @param server server socket of the coordinator.
+     */
+    private void acceptWorkers(ServerSocket server) {
+        while (!this.finished) {
+            try {
+                Socket socket = server.accept();
+                Thread connection = new Thread(
+                        () -> this.serveWorker(socket),
+                        "coordinator-worker-" + this.connectedWorkers.incrementAndGet()
+                );
+                synchronized (this.connections) {
+                    this.connections.add(connection);
+                }
+                connection.start();
+            } catch (IOException e) {
+                if (!this.finished) {
+                    Logger.log(WARNING, "Unable to accept a worker: " + e.getMessage(), "COORDINATOR");
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps up to the capacity of a single worker of students assigned to it
+     * until all of them are checked or the worker is lost.
+     *
+     * @param socket connection of the worker.
+     */
+    private void serveWorker(Socket socket) {
+        int timeoutMillis = this.settings.heartbeatTimeout * 1000;
+        String workerId = String.valueOf(socket.getRemoteSocketAddress());
+        Map<Integer, Assignment> inFlight = new HashMap<>();
+        try (MessageChannel channel = new MessageChannel(socket)) {
+            Message hello = channel.receive(timeoutMillis);
+            if (hello == null || hello.type != Message.Type.HELLO) {
+                Logger.log(WARNING, "Unexpected greeting from " + workerId, "COORDINATOR");
+                return;
+            }
+            if (!this.isAuthorized(hello.secret)) {
+                Logger.log(WARNING, "Rejected " + workerId + ": wrong secret", "COORDINATOR");
+                return;
+            }
+            int capacity = hello.capacity != null && hello.capacity > 0 ? hello.capacity : 1;
+            workerId = hello.workerId + " at " + channel.getRemoteAddress();
+            Logger.log(SUCCESS, "Worker " + workerId + " connected, " + capacity + " students at once", "COORDINATOR");
+
+            while (!this.finished) {
+                while (inFlight.size() < capacity) {
+                    Assignment assignment = inFlight.isEmpty()
+                            ? this.pending.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                            : this.pending.poll();
+                    if (assignment == null) {
+                        break;
+                    }
+                    assignment.start = System.nanoTime();
+                    inFlight.put(assignment.unitId, assignment);
+                    StudentWithTasks studentWithTasks = this.configuration.toCheckList.get(assignment.unitId);
+                    channel.send(Message.assign(assignment.unitId, studentWithTasks));
+                }
+                if (inFlight.isEmpty()) {
+                    continue;
+                }
+                Message result = this.awaitResult(channel, inFlight.keySet(), timeoutMillis);
+                Assignment assignment = inFlight.remove(result.unitId);
+                if (result.error != null) {
+                    this.reassign(assignment, workerId + " failed: " + result.error);
+                } else {
+                    this.complete(assignment, result.result, workerId);
+                    MetricsRegistry.getInstance().recordSince("distributed_unit", null, null, assignment.start);
+                }
+            }
+            channel.send(Message.shutdown());
+        } catch (IOException e) {
+            Logger.log(WARNING, "Lost worker " + workerId + ": " + e.getMessage(), "COORDINATOR");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Assignment assignment : inFlight.values()) {
+                this.reassign(assignment, "lost " + workerId);
+            }
+        }
+    }
+
+    /**
+     * Reads the messages of a busy worker until the result of one of its assignments comes.
+     *
+     * @param channel       connection of the worker.
+     * @param unitIds       indices of the students assigned to the worker.
+     * @param timeoutMillis time without any message after which the worker is considered dead.
+     * @return message with the results of the student or the error the worker failed with.
+     * @throws IOException is thrown when the worker is lost.
+     */
+    private Message awaitResult(MessageChannel channel, Set<Integer> unitIds, int timeoutMillis) throws
+            IOException {
+        while (true) {
+            Message message = channel.receive(timeoutMillis);
+            if (message == null) {
+                throw new IOException("connection closed");
+            }
+            if (message.type == Message.Type.RESULT && message.unitId != null && unitIds.contains(message.unitId)) {
+                return message;
+            }
+        }
+    }
+
+    /**
+     * Merges the results sent by a worker into the objects of the
+     * configuration and writes them to the journal.
+     *
+     * @param assignment finished assignment.
+     * @param result     results sent by the worker.
+     * @param workerId   name of the worker used in the logs.
+     * @throws IOException is thrown when the results do not match the assigned tasks.
+     */
+    private void complete(Assignment assignment, TaskRunnerResult result, String workerId) throws IOException {
+        StudentWithTasks studentWithTasks = this.configuration.toCheckList.get(assignment.unitId);
+        if (result == null || result.student == null || result.tasksResults == null ||
+                result.tasksResults.size() != studentWithTasks.tasks.size()) {
+            throw new IOException("broken results of " + studentWithTasks.student.nickname);
+        }
+
+        Student student = studentWithTasks.student;
+        student.commitsCheckResult = result.student.commitsCheckResult;
+        if (student.commitsCheckResult != null) {
+            this.journal.appendActivity(student, student.commitsCheckResult);
+        }
+        for (int i = 0; i < result.tasksResults.size(); i++) {
+            TaskTestResult taskResult = result.tasksResults.get(i);
+            taskResult.task = studentWithTasks.tasks.get(i);
+            this.journal.appendTaskResult(student, taskResult);
+        }
+        result.student = student;
+        this.results[assignment.unitId] = result;
+        this.remaining.countDown();
+        Logger.log(
+                SUCCESS,
+                "Got results of " + student.nickname + " from " + workerId + ", "
+                        + this.remaining.getCount() + " students left",
+                "COORDINATOR"
+        );
+    }
+
+    /**
+     * Puts the student of a lost or failed worker back to the front of the
+     * queue, or gives it up when it was tried too many times.
+     *
+     * @param assignment assignment of the worker.
+     * @param reason     what happened to the worker, used in the logs.
+     */
+    private void reassign(Assignment assignment, String reason) {
+        String nickname = this.configuration.toCheckList.get(assignment.unitId).student.nickname;
+        assignment.attempts++;
+        if (assignment.attempts >= this.settings.maxAttempts) {
+            Logger.log(
+                    ERROR,
+                    "Giving up " + nickname + " after " + assignment.attempts + " attempts, last " + reason,
+                    "COORDINATOR"
+            );
+            this.remaining.countDown();
+            return;
+        }
+        this.reassignments.incrementAndGet();
+        MetricsRegistry.getInstance().increment("distributed_reassignments", null, null);
+        Logger.log(WARNING, "Reassigning " + nickname + ", " + reason, "COORDINATOR");
+        this.pending.addFirst(assignment);
+    }
+
+    /**
+     * Tells whether a secret is configured.
+     *
+     * @return true if the workers have to present one.
+     */
+    private boolean hasSecret() {
+        return this.settings.secret != null && !this.settings.secret.isEmpty();
+    }
+
+    /**
+     * Compares the secret of a greeting with the configured one in constant time.
+     *
+     * @param secret secret sent by the worker.
+     * @return true if the worker may take students.
+     */
+    private boolean isAuthorized(String secret) {
+        if (!this.hasSecret()) {
+            return true;
+        }
+        return secret != null && MessageDigest.isEqual(
+                this.settings.secret.getBytes(StandardCharsets.UTF_8),
+                secret.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    /**
+     * Waits for the connections to tell their workers to shut down.
+     */
+    private void awaitConnections() {
+        List<Thread> threads;
+        synchronized (this.connections) {
+            threads = new ArrayList<>(this.connections);
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join(SHUTDOWN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Fills the results of the student from the journal of the previous run.
+     *
+     * @param unitId index of the student in the 'toCheck' list.
+     * @return true if all the results were found, so the student does not need to be checked.
+     */
+    private boolean restoreFromJournal(int unitId) {
+        StudentWithTasks studentWithTasks = this.configuration.toCheckList.get(unitId);
+        Student student = studentWithTasks.student;
+        CommitsCheckResult activity = this.journal.getActivity(student);
+        if (activity == null) {
+            return false;
+        }
+        TaskTestResult[] taskResults = new TaskTestResult[studentWithTasks.tasks.size()];
+        for (int i = 0; i < taskResults.length; i++) {
+            taskResults[i] = this.journal.getTaskResult(student, studentWithTasks.tasks.get(i));
+            if (taskResults[i] == null) {
+                return false;
+            }
+        }
+
+        student.commitsCheckResult = activity;
+        TaskRunnerResult result = new TaskRunnerResult();
+        result.student = student;
+        result.tasksResults = Arrays.asList(taskResults);
+        this.results[unitId] = result;
+        Logger.log(INFO, "Restored " + student.nickname + " from the journal", "COORDINATOR");
+        return true;
+    }
+
+    /**
+     * Creates the result of a student that was given up.
+     *
+     * @param studentWithTasks student and its tasks.
+     * @return result where no task is built.
+     */
+    private static TaskRunnerResult getEmptyResult(StudentWithTasks studentWithTasks) {
+        TaskRunnerResult result = new TaskRunnerResult();
+        result.student = studentWithTasks.student;
+        result.tasksResults = new ArrayList<>();
+        for (int i = 0; i < studentWithTasks.tasks.size(); i++) {
+            TaskTestResult taskResult = new TaskTestResult();
+            taskResult.task = studentWithTasks.tasks.get(i);
+            result.tasksResults.add(taskResult);
+        }
+        return result;
+    }
+
+    /**
+     * Student of the 'toCheck' list waiting for a worker.
+     */
+    private static class Assignment {
+        private final int unitId;
+        private int attempts = 0;
+        private long start;
+
+        /**
+         * Constructor.
+         *
+         * @param unitId index of the student in the 'toCheck' list.
+         */
+        private Assignment(int unitId) {
+            this.unitId = unitId;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package ru.nsu.dolgov.taskchecker.distributed;
+
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
+
+/**
+ * A single line of the protocol between the coordinator and the workers.
+ * Every message is a JSON object on its own line, and only the fields of
+ * its type are set.
+ */
+public class Message {
+    public Type type;
+    public String workerId;
+    public String secret;
+    public Integer capacity;
+    public Integer unitId;
+    public StudentWithTasks studentWithTasks;
+    public TaskRunnerResult result;
+    public String error;
+
+    /**
+     * Creates the greeting a worker sends right after it connects.
+     *
+     * @param workerId name of the worker used in the logs.
+     * @param secret   shared secret of the coordinator and the workers.
+     * @param capacity amount of the students the worker checks at once.
+     * @return message.
+     */
+    public static Message hello(String workerId, String secret, int capacity) {
+        Message message = new Message();
+        message.type = Type.HELLO;
+        message.workerId = workerId;
+        message.secret = secret;
+        message.capacity = capacity;
+        return message;
+    }
+
+    /**
+     * Creates the assignment of a student to a worker.
+     *
+     * @param unitId           index of the student in the 'toCheck' list.
+     * @param studentWithTasks student and the tasks to check.
+     * @return message.
+     */
+    public static Message assign(int unitId, StudentWithTasks studentWithTasks) {
+        Message message = new Message();
+        message.type = Type.ASSIGN;
+        message.unitId = unitId;
+        message.studentWithTasks = studentWithTasks;
+        return message;
+    }
+
+    /**
+     * Creates the heartbeat a busy worker sends to show it is alive.
+     *
+     * @param workerId name of the worker.
+     * @return message.
+     */
+    public static Message heartbeat(String workerId) {
+        Message message = new Message();
+        message.type = Type.HEARTBEAT;
+        message.workerId = workerId;
+        return message;
+    }
+
+    /**
+     * Creates the result of an assignment.
+     *
+     * @param unitId index of the student in the 'toCheck' list.
+     * @param result results of the student.
+     * @return message.
+     */
+    public static Message result(int unitId, TaskRunnerResult result) {
+        Message message = new Message();
+        message.type = Type.RESULT;
+        message.unitId = unitId;
+        message.result = result;
+        return message;
+    }
+
+    /**
+     * Creates the result of an assignment the worker failed to check.
+     *
+     * @param unitId index of the student in the 'toCheck' list.
+     * @param error  description of the failure.
+     * @return message.
+     */
+    public static Message failure(int unitId, String error) {
+        Message message = new Message();
+        message.type = Type.RESULT;
+        message.unitId = unitId;
+        message.error = error;
+        return message;
+    }
+
+    /**
+     * Creates the message that tells a worker there is nothing left to check.
+     *
+     * @return message.
+     */
+    public static Message shutdown() {
+        Message message = new Message();
+        message.type = Type.SHUTDOWN;
+        return message;
+    }
+
+    /**
+     * Types of the messages.
+     */
+    public enum Type {
+        HELLO, ASSIGN, HEARTBEAT, RESULT, SHUTDOWN
+    }
+}
@@ -0,0 +1,94 @@
+package ru.nsu.dolgov.taskchecker.distributed;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import ru.nsu.dolgov.taskchecker.reportbuilder.LocalDateTypeAdapter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Line delimited JSON connection. Sending is synchronized, so the heartbeats
+ * and the results of a worker never interleave.
+ */
+public class MessageChannel implements AutoCloseable {
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+            .create();
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final BufferedWriter writer;
+
+    /**
+     * Constructor.
+     *
+     * @param socket connected socket.
+     * @throws IOException is thrown when the streams of the socket cant be opened.
+     */
+    public MessageChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        this.socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the message as a single line and flushes it.
+     *
+     * @param message message to send.
+     * @throws IOException is thrown when the connection is broken.
+     */
+    public synchronized void send(Message message) throws IOException {
+        this.writer.write(GSON.toJson(message));
+        this.writer.newLine();
+        this.writer.flush();
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @param timeoutMillis time to wait for the message, 0 to wait forever.
+     * @return message, null when the other side closed the connection.
+     * @throws IOException is thrown when the connection is broken, the line is
+     *                     not a message or nothing came in time.
+     */
+    public Message receive(int timeoutMillis) throws IOException {
+        this.socket.setSoTimeout(timeoutMillis);
+        String line = this.reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        try {
+            return GSON.fromJson(line, Message.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Broken message: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the address of the other side used in the logs.
+     *
+     * @return host and port.
+     */
+    public String getRemoteAddress() {
+        return String.valueOf(this.socket.getRemoteSocketAddress());
+    }
+
+    /**
+     * Closes the connection, a blocked receive fails right away.
+     */
+    @Override
+    public void close() {
+        try {
+            this.socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
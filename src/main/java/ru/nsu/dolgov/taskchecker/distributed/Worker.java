@@ -0,0 +1,199 @@
+package ru.nsu.dolgov.taskchecker.distributed;
+
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.checker.CheckRunner;
+import ru.nsu.dolgov.taskchecker.checker.StudentCheckListener;
+import ru.nsu.dolgov.taskchecker.checker.TaskRunnerWrapper;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.Configuration;
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.*;
+
+/**
+ * Worker process of the distributed check. Connects to the coordinator,
+ * checks the students it is given with one TaskRunnerWrapper opened for
+ * the whole session, so the Gradle daemons stay warm and several students
+ * overlap, and sends the results back. Every worker keeps the repositories
+ * and the journal in its own folder, so several workers can run on one machine.
+ */
+public class Worker {
+    private final String host;
+    private final int port;
+    private final String configurationPath;
+    private final String workerId;
+
+    /**
+     * Constructor.
+     *
+     * @param host              host of the coordinator.
+     * @param port              port of the coordinator.
+     * @param configurationPath folder with the same configuration the coordinator uses.
+     */
+    public Worker(String host, int port, String configurationPath) {
+        this.host = host;
+        this.port = port;
+        this.configurationPath = configurationPath;
+        this.workerId = getHostName() + "-" + ProcessHandle.current().pid();
+    }
+
+    /**
+     * Checks the students until the coordinator says there is nothing left.
+     */
+    public void run() {
+        Configuration config;
+        try {
+            config = CheckRunner.parseConfiguration(this.configurationPath);
+        } catch (IOException e) {
+            Logger.log(ERROR, "Error when parsing configuration! " + e.getMessage(), "WORKER");
+            return;
+        }
+        AdditionalSettings settings = config.additionalSettings;
+        boolean jsonLog = settings.logJsonPath != null && !settings.logJsonPath.isBlank();
+        Logger.configure(settings.logLevel, jsonLog ? settings.logJsonPath + "." + this.workerId : null);
+        settings.repositoriesPath = Paths.get(settings.repositoriesPath, this.workerId).toString();
+        settings.journalPath = settings.journalPath + "." + this.workerId;
+
+        TaskRunnerWrapper wrapper = new TaskRunnerWrapper(settings);
+        if (!wrapper.open()) {
+            return;
+        }
+        int capacity = Math.max(1, settings.distributed.unitsPerWorker);
+        AtomicInteger inFlight = new AtomicInteger();
+        ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+        try (MessageChannel channel = this.connect(settings.distributed.heartbeatInterval,
+                settings.distributed.heartbeatTimeout)) {
+            channel.send(Message.hello(this.workerId, settings.distributed.secret, capacity));
+            Logger.log(SUCCESS, "Connected to the coordinator " + channel.getRemoteAddress(), "WORKER");
+            heartbeats.scheduleAtFixedRate(() -> {
+                if (inFlight.get() == 0) {
+                    return;
+                }
+                try {
+                    channel.send(Message.heartbeat(this.workerId));
+                } catch (IOException e) {
+                    Logger.log(WARNING, "Unable to send a heartbeat", "WORKER");
+                }
+            }, 0, settings.distributed.heartbeatInterval, TimeUnit.SECONDS);
+            while (true) {
+                Message message = channel.receive(0);
+                if (message == null || message.type == Message.Type.SHUTDOWN) {
+                    break;
+                }
+                if (message.type != Message.Type.ASSIGN) {
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                this.check(wrapper, channel, message.unitId, message.studentWithTasks, inFlight);
+            }
+            Logger.log(SUCCESS, "Coordinator has no more students, stopping", "WORKER");
+        } catch (IOException e) {
+            Logger.log(ERROR, "Lost the coordinator: " + e.getMessage(), "WORKER");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.log(ERROR, "Interrupted when submitting a student!", "WORKER");
+        } finally {
+            wrapper.close();
+            heartbeats.shutdownNow();
+        }
+
+        if (settings.metricsPath != null && !settings.metricsPath.isBlank()) {
+            MetricsRegistry.getInstance().export(Paths.get(settings.metricsPath, this.workerId).toString());
+        }
+    }
+
+    /**
+     * Submits a student to the checker of the session. The results, or
+     * the failure, are sent to the coordinator as soon as they are ready,
+     * while the worker already receives the next students.
+     *
+     * @param wrapper          checker of the session.
+     * @param channel          connection to the coordinator.
+     * @param unitId           index of the student in the 'toCheck' list.
+     * @param studentWithTasks student and the tasks to check.
+     * @param inFlight         amount of the students that are being checked.
+     * @throws InterruptedException is thrown when interrupted while the checker is full.
+     */
+    private void check(
+            TaskRunnerWrapper wrapper,
+            MessageChannel channel,
+            int unitId,
+            StudentWithTasks studentWithTasks,
+            AtomicInteger inFlight
+    ) throws InterruptedException {
+        String nickname = studentWithTasks.student.nickname;
+        Logger.log(INFO, "Checking " + nickname, "WORKER");
+        StudentCheckListener listener = (checked, result, failure) -> {
+            Message reply = failure == null ? Message.result(unitId, result) : Message.failure(unitId, failure);
+            inFlight.decrementAndGet();
+            try {
+                channel.send(reply);
+                Logger.log(
+                        failure == null ? SUCCESS : WARNING,
+                        (failure == null ? "Sent results of " : "Reported the failure of ") + nickname,
+                        "WORKER"
+                );
+            } catch (IOException e) {
+                Logger.log(ERROR, "Unable to send the results of " + nickname + ": " + e.getMessage(), "WORKER");
+            }
+        };
+        try {
+            wrapper.submit(studentWithTasks, listener);
+        } catch (RuntimeException e) {
+            Logger.log(ERROR, "Failed to check " + nickname + ": " + e, "WORKER");
+            listener.checked(studentWithTasks, null, String.valueOf(e));
+        }
+    }
+
+    /**
+     * Connects to the coordinator, retrying while it is not listening yet.
+     *
+     * @param retryInterval seconds between the attempts.
+     * @param retryTimeout  seconds after which the worker gives up.
+     * @return connection to the coordinator.
+     * @throws IOException is thrown when the coordinator is not reachable in time.
+     */
+    private MessageChannel connect(int retryInterval, int retryTimeout) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(retryTimeout);
+        while (true) {
+            try {
+                return new MessageChannel(new Socket(this.host, this.port));
+            } catch (ConnectException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Logger.log(INFO, "Coordinator " + this.host + ":" + this.port + " is not ready yet", "WORKER");
+                try {
+                    TimeUnit.SECONDS.sleep(retryInterval);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the name of the machine used in the id of the worker.
+     *
+     * @return host name, "worker" if it is unknown.
+     */
+    private static String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "worker";
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package ru.nsu.dolgov.taskchecker.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.CommitTimeRevFilter;
+import ru.nsu.dolgov.taskchecker.models.results.CommitsCheckResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Class used to split the period between two control points into weeks
+ * and to count commits per week. Commits can be counted either from the
+ * local repository in a single walk or by the caller, e.g. via GitHub API.
+ */
+public class CommitActivity {
+    private static final long WEEK_SECONDS = 7 * 24 * 60 * 60;
+    private final LocalDate[] rangeStarts;
+    private final LocalDate[] rangeEnds;
+    private final long[] rangeStartSeconds;
+    private final long[] rangeEndSeconds;
+    private final int regularWeeks;
+
+    /**
+     * Constructor. Splits the period into weeks.
+     *
+     * @param startDate start date.
+     * @param endDate   end date.
+     */
+    public CommitActivity(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> starts = new ArrayList<>();
+        List<LocalDate> ends = new ArrayList<>();
+        LocalDate currentEndDate = startDate.plusDays(7);
+
+        while (currentEndDate.isBefore(endDate)) {
+            starts.add(currentEndDate.plusDays(1));
+            currentEndDate = currentEndDate.plusDays(7);
+            ends.add(currentEndDate);
+        }
+        this.regularWeeks = starts.size();
+
+        if (ChronoUnit.DAYS.between(endDate, currentEndDate) > 1) {
+            starts.add(currentEndDate);
+            ends.add(endDate);
+        }
+
+        this.rangeStarts = starts.toArray(new LocalDate[0]);
+        this.rangeEnds = ends.toArray(new LocalDate[0]);
+        this.rangeStartSeconds = new long[this.rangeStarts.length];
+        this.rangeEndSeconds = new long[this.rangeEnds.length];
+        for (int i = 0; i < this.rangeStarts.length; i++) {
+            this.rangeStartSeconds[i] = this.rangeStarts[i].toEpochSecond(LocalTime.MIN, ZoneOffset.UTC);
+            this.rangeEndSeconds[i] = this.rangeEnds[i].toEpochSecond(LocalTime.of(23, 59, 59), ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Getter for the amount of ranges, including the last incomplete week.
+     *
+     * @return amount of ranges.
+     */
+    public int size() {
+        return this.rangeStarts.length;
+    }
+
+    /**
+     * Getter for the first day of the range.
+     *
+     * @param index index of the range.
+     * @return first day of the range.
+     */
+    public LocalDate getRangeStart(int index) {
+        return this.rangeStarts[index];
+    }
+
+    /**
+     * Getter for the last day of the range.
+     *
+     * @param index index of the range.
+     * @return last day of the range.
+     */
+    public LocalDate getRangeEnd(int index) {
+        return this.rangeEnds[index];
+    }
+
+    /**
+     * Counts commits per range with a single walk over the history of the local repository.
+     *
+     * @param repository root of the repository.
+     * @return amount of commits per range.
+     * @throws IOException is thrown when the repository can not be read.
+     */
+    public int[] countCommits(File repository) throws IOException {
+        if (this.size() == 0) {
+            return new int[0];
+        }
+        long since = Arrays.stream(this.rangeStartSeconds).min().orElse(0);
+        long until = Arrays.stream(this.rangeEndSeconds).max().orElse(0);
+        int[] commitTimes = new int[64];
+        int commitsCount = 0;
+
+        try (Git git = Git.open(repository); RevWalk walk = new RevWalk(git.getRepository())) {
+            ObjectId head = git.getRepository().resolve("HEAD");
+            if (head == null) {
+                return new int[this.size()];
+            }
+            walk.setRetainBody(false);
+            walk.setRevFilter(CommitTimeRevFilter.between(new Date(since * 1000), new Date(until * 1000)));
+            walk.markStart(walk.parseCommit(head));
+            for (RevCommit commit : walk) {
+                if (commitsCount == commitTimes.length) {
+                    commitTimes = Arrays.copyOf(commitTimes, commitsCount * 2);
+                }
+                commitTimes[commitsCount++] = commit.getCommitTime();
+            }
+        }
+
+        return this.countCommits(commitTimes, commitsCount);
+    }
+
+    /**
+     * Buckets commit times into the ranges.
+     *
+     * @param commitTimes  commit times in seconds since the epoch.
+     * @param commitsCount amount of the valid elements of the array.
+     * @return amount of commits per range.
+     */
+    public int[] countCommits(int[] commitTimes, int commitsCount) {
+        int[] counts = new int[this.size()];
+        long firstWeekStart = this.regularWeeks > 0 ? this.rangeStartSeconds[0] : 0;
+
+        for (int i = 0; i < commitsCount; i++) {
+            long time = commitTimes[i];
+            if (this.regularWeeks > 0 && time >= firstWeekStart) {
+                long week = (time - firstWeekStart) / WEEK_SECONDS;
+                if (week < this.regularWeeks && time <= this.rangeEndSeconds[(int) week]) {
+                    counts[(int) week]++;
+                }
+            }
+            for (int range = this.regularWeeks; range < counts.length; range++) {
+                if (time >= this.rangeStartSeconds[range] && time <= this.rangeEndSeconds[range]) {
+                    counts[range]++;
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Builds the result of the check from the amount of commits per range.
+     *
+     * @param counts amount of commits per range.
+     * @return CommitsCheckResult object describing students' activity.
+     */
+    public CommitsCheckResult toResult(int[] counts) {
+        List<CommitsCheckResult.CommitsPerWeek> commitsPerWeekList = new ArrayList<>();
+        int commitCount = 0;
+        int maxCommitsCount = -1;
+        int totalActiveWeeks = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            CommitsCheckResult.CommitsPerWeek commitsPerWeek = new CommitsCheckResult.CommitsPerWeek();
+            commitsPerWeek.week = this.rangeEnds[i];
+            commitsPerWeek.commits = counts[i];
+            commitsPerWeekList.add(commitsPerWeek);
+
+            if (i < this.regularWeeks && counts[i] > 0) {
+                totalActiveWeeks++;
+            }
+            commitCount += counts[i];
+            if (counts[i] > maxCommitsCount) {
+                maxCommitsCount = counts[i];
+            }
+        }
+
+        CommitsCheckResult result = new CommitsCheckResult();
+        result.maximumCommitsPerWeek = maxCommitsCount;
+        result.totalCommits = commitCount;
+        result.totalWeeks = this.regularWeeks;
+        result.totalActiveWeeks = totalActiveWeeks;
+        result.commitsPerWeekList = commitsPerWeekList;
+
+        return result;
+    }
+}
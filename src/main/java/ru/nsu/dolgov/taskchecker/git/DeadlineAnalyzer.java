@@ -0,0 +1,155 @@
+package ru.nsu.dolgov.taskchecker.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.DeadlinesCheckResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Class used to check the deadlines of all tasks of a student. The history
+ * of the repository is walked once, and the times of the newest and the
+ * oldest commit that changed every task directory are remembered.
+ */
+public class DeadlineAnalyzer {
+    private final Map<String, Integer> taskIndexes = new HashMap<>();
+    private final int[] newestCommitTimes;
+    private final int[] oldestCommitTimes;
+
+    /**
+     * Constructor. Walks the history of the repository.
+     *
+     * @param repository root of the repository.
+     * @param taskPaths  directories of the tasks inside the repository.
+     * @throws IOException is thrown when the repository cant be read.
+     */
+    public DeadlineAnalyzer(File repository, Collection<String> taskPaths) throws IOException {
+        for (String taskPath : taskPaths) {
+            this.taskIndexes.putIfAbsent(taskPath, this.taskIndexes.size());
+        }
+        this.newestCommitTimes = new int[this.taskIndexes.size()];
+        this.oldestCommitTimes = new int[this.taskIndexes.size()];
+        Arrays.fill(this.newestCommitTimes, -1);
+        Arrays.fill(this.oldestCommitTimes, -1);
+        if (this.taskIndexes.isEmpty()) {
+            return;
+        }
+
+        try (Git git = Git.open(repository)) {
+            this.walk(git.getRepository());
+        }
+    }
+
+    /**
+     * Constructor of an analyzer without the history, every deadline is failed.
+     */
+    private DeadlineAnalyzer() {
+        this.newestCommitTimes = new int[0];
+        this.oldestCommitTimes = new int[0];
+    }
+
+    /**
+     * Returns an analyzer used when the history cant be read.
+     *
+     * @return analyzer that fails every deadline.
+     */
+    public static DeadlineAnalyzer empty() {
+        return new DeadlineAnalyzer();
+    }
+
+    /**
+     * Walks the history once and compares the tree of every
+     * commit with its first parent, limited to the task paths.
+     *
+     * @param repository opened repository.
+     * @throws IOException is thrown when the objects cant be read.
+     */
+    private void walk(Repository repository) throws IOException {
+        ObjectId head = repository.resolve("HEAD");
+        if (head == null) {
+            return;
+        }
+        TreeFilter filter = AndTreeFilter.create(
+                PathFilterGroup.createFromStrings(this.taskIndexes.keySet()),
+                TreeFilter.ANY_DIFF
+        );
+
+        try (RevWalk revWalk = new RevWalk(repository); TreeWalk treeWalk = new TreeWalk(repository)) {
+            revWalk.setRetainBody(false);
+            revWalk.markStart(revWalk.parseCommit(head));
+            for (RevCommit commit : revWalk) {
+                treeWalk.reset();
+                if (commit.getParentCount() > 0) {
+                    treeWalk.addTree(revWalk.parseCommit(commit.getParent(0)).getTree());
+                } else {
+                    treeWalk.addTree(new EmptyTreeIterator());
+                }
+                treeWalk.addTree(commit.getTree());
+                treeWalk.setFilter(filter);
+                treeWalk.setRecursive(false);
+
+                while (treeWalk.next()) {
+                    Integer index = this.taskIndexes.get(treeWalk.getPathString());
+                    if (index != null) {
+                        if (this.newestCommitTimes[index] == -1) {
+                            this.newestCommitTimes[index] = commit.getCommitTime();
+                        }
+                        this.oldestCommitTimes[index] = commit.getCommitTime();
+                    } else if (treeWalk.isSubtree()) {
+                        treeWalk.enterSubtree();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Method used to compute the deadlines of the task. The soft deadline is
+     * passed if the newest commit of the task is before it, the hard deadline
+     * is passed if the oldest commit of the task is before it.
+     *
+     * @param task task for which deadlines will be computed.
+     * @return DeadlineCheckResult describing the result of the check.
+     */
+    public DeadlinesCheckResult check(Task task) {
+        DeadlinesCheckResult deadlinesCheckResult = new DeadlinesCheckResult();
+        Integer index = this.taskIndexes.get(task.id);
+        if (index == null || this.newestCommitTimes[index] == -1) {
+            return deadlinesCheckResult;
+        }
+
+        LocalDate newestDate = toLocalDate(this.newestCommitTimes[index]);
+        LocalDate oldestDate = toLocalDate(this.oldestCommitTimes[index]);
+        deadlinesCheckResult.softDeadlinePass = newestDate.isBefore(task.softDeadline);
+        deadlinesCheckResult.hardDeadlinePass = oldestDate.isBefore(task.hardDeadline);
+
+        return deadlinesCheckResult;
+    }
+
+    /**
+     * Converts the commit time to the local date.
+     *
+     * @param commitTime seconds since the epoch.
+     * @return date in the system time zone.
+     */
+    private static LocalDate toLocalDate(int commitTime) {
+        return LocalDate.ofInstant(Instant.ofEpochSecond(commitTime), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,42 @@
+package ru.nsu.dolgov.taskchecker.git;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Utility class used to measure the size of a repository on disk.
+ */
+public class DiskUsage {
+    /**
+     * Returns the total size of the files in the directory.
+     *
+     * @param directory directory to measure.
+     * @return size in bytes, 0 if the directory does not exist.
+     */
+    public static long getSize(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        long[] size = {0};
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    size[0] += attributes.size();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ignored) {
+        }
+        return size[0];
+    }
+}
@@ -0,0 +1,195 @@
+package ru.nsu.dolgov.taskchecker.git;
+
+import org.eclipse.jgit.api.CheckoutCommand;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persistent cache of bare mirrors, one per repository url. Mirrors are only
+ * updated with incremental fetches, and the checks work in throwaway working
+ * trees that borrow the objects of the mirror via objects/info/alternates.
+ */
+public class MirrorCache {
+    private static final Map<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+    private final Path cachePath;
+    private final int timeout;
+
+    /**
+     * Constructor.
+     *
+     * @param cachePath folder where the mirrors are stored.
+     * @param timeout   network timeout of the fetches in seconds, 0 for no limit.
+     */
+    public MirrorCache(String cachePath, int timeout) {
+        this.cachePath = Paths.get(cachePath).toAbsolutePath().normalize();
+        this.timeout = timeout;
+    }
+
+    /**
+     * Returns the directory of the mirror of the repository, it may not exist yet.
+     *
+     * @param url      url of the repository.
+     * @param nickname nickname of the student, used to name the mirror.
+     * @return directory of the mirror.
+     */
+    public File getMirror(String url, String nickname) {
+        return this.cachePath.resolve(nickname + "-" + getUrlHash(url) + ".git").toFile();
+    }
+
+    /**
+     * Creates the mirror or fetches the new commits into it. Fetches of the same
+     * mirror are serialized both inside the process and between the processes.
+     *
+     * @param url      url of the repository.
+     * @param nickname nickname of the student, used to name the mirror.
+     * @return directory of the mirror.
+     * @throws IOException     is thrown when the lock or the mirror cant be accessed.
+     * @throws GitAPIException is thrown when the clone or the fetch fails.
+     */
+    public File update(String url, String nickname) throws IOException, GitAPIException {
+        Path mirror = this.getMirror(url, nickname).toPath();
+        Files.createDirectories(this.cachePath);
+        ReentrantLock lock = LOCKS.computeIfAbsent(mirror, key -> new ReentrantLock());
+
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(
+                this.cachePath.resolve(mirror.getFileName() + ".lock"),
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE
+        ); FileLock ignored = channel.lock()) {
+            if (Files.exists(mirror.resolve("HEAD"))) {
+                try (Git git = Git.open(mirror.toFile())) {
+                    git.fetch().setRemoveDeletedRefs(true).setTimeout(this.timeout).call();
+                }
+            } else {
+                Git.cloneRepository()
+                        .setURI(url)
+                        .setDirectory(mirror.toFile())
+                        .setMirror(true)
+                        .setTimeout(this.timeout)
+                        .call()
+                        .close();
+            }
+        } finally {
+            lock.unlock();
+        }
+        return mirror.toFile();
+    }
+
+    /**
+     * Creates a fresh working tree of the default branch of the mirror.
+     * The previous content of the directory is deleted.
+     *
+     * @param mirror   directory of the mirror.
+     * @param worktree directory of the working tree.
+     * @param url      url of the repository, stored as the origin.
+     * @param paths    paths to check out, null to check out the whole tree.
+     * @throws IOException     is thrown when the working tree cant be written.
+     * @throws GitAPIException is thrown when the checkout fails.
+     */
+    public void checkout(File mirror, File worktree, String url, List<String> paths) throws
+            IOException,
+            GitAPIException {
+        ObjectId commit;
+        String branch;
+        try (Git mirrorGit = Git.open(mirror)) {
+            Ref head = mirrorGit.getRepository().exactRef(Constants.HEAD);
+            if (head == null || head.getObjectId() == null) {
+                throw new IOException("Mirror " + mirror + " has no HEAD");
+            }
+            commit = head.getObjectId();
+            branch = head.isSymbolic() ? head.getTarget().getName() : null;
+        }
+
+        deleteRecursively(worktree.toPath());
+        try (Git git = Git.init().setDirectory(worktree).call()) {
+            Path alternates = git.getRepository().getDirectory().toPath().resolve("objects/info/alternates");
+            Files.createDirectories(alternates.getParent());
+            Files.writeString(alternates, mirror.toPath().toAbsolutePath().resolve("objects") + "\n");
+        }
+
+        try (Git git = Git.open(worktree)) {
+            Repository repository = git.getRepository();
+            StoredConfig config = repository.getConfig();
+            config.setString("remote", Constants.DEFAULT_REMOTE_NAME, "url", url);
+            config.save();
+
+            if (branch != null) {
+                RefUpdate branchUpdate = repository.updateRef(branch);
+                branchUpdate.setNewObjectId(commit);
+                branchUpdate.forceUpdate();
+                repository.updateRef(Constants.HEAD).link(branch);
+            } else {
+                RefUpdate headUpdate = repository.updateRef(Constants.HEAD, true);
+                headUpdate.setNewObjectId(commit);
+                headUpdate.forceUpdate();
+            }
+
+            if (paths == null) {
+                git.reset().setMode(ResetCommand.ResetType.HARD).setRef(commit.name()).call();
+            } else {
+                CheckoutCommand checkoutCommand = git.checkout().setStartPoint(commit.name());
+                for (String path : paths) {
+                    checkoutCommand.addPath(path);
+                }
+                checkoutCommand.call();
+            }
+        }
+    }
+
+    /**
+     * Returns a short hash of the url, so different repositories of one student get different mirrors.
+     *
+     * @param url url of the repository.
+     * @return first 12 hex digits of the SHA-256 of the url.
+     */
+    private static String getUrlHash(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8))).substring(0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Deletes the directory with all its content.
+     *
+     * @param directory directory to delete.
+     * @throws IOException is thrown when a file cant be deleted.
+     */
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (var files = Files.walk(directory)) {
+            for (Path file : files.sorted((first, second) -> second.compareTo(first)).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
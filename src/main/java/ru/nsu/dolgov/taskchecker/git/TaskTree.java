@@ -0,0 +1,35 @@
+package ru.nsu.dolgov.taskchecker.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Utility class used to identify the content of a task directory.
+ */
+public class TaskTree {
+    /**
+     * Returns the id of the git tree of the directory in the HEAD commit.
+     * Two submissions with the same tree id have exactly the same content.
+     *
+     * @param repository root of the repository.
+     * @param path       path of the directory inside the repository.
+     * @return tree id or null if the repository or the directory does not exist.
+     */
+    public static String getTreeId(File repository, String path) {
+        try (Git git = Git.open(repository)) {
+            ObjectId headTree = git.getRepository().resolve("HEAD^{tree}");
+            if (headTree == null) {
+                return null;
+            }
+            try (TreeWalk treeWalk = TreeWalk.forPath(git.getRepository(), path, headTree)) {
+                return treeWalk == null ? null : treeWalk.getObjectId(0).name();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
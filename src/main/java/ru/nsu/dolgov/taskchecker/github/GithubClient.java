@@ -0,0 +1,213 @@
+package ru.nsu.dolgov.taskchecker.github;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.github.ResponseCache.CachedResponse;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.results.GithubStatistics;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
+
+/**
+ * HTTP client shared by all GitHub requests. Reuses connections, respects
+ * the rate limit, sends conditional requests backed by an on-disk cache
+ * and follows Link pagination.
+ */
+public class GithubClient {
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>\\s*;\\s*rel=\"next\"");
+    private static final int MAX_ATTEMPTS = 3;
+    private static GithubClient instance;
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private final RateLimiter rateLimiter;
+    private final ResponseCache responseCache;
+    private final String apiUrl;
+    private final String token;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicLong requestNanos = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param additionalSettings additionalSettings object that is needed to access the configuration.
+     */
+    public GithubClient(AdditionalSettings additionalSettings) {
+        AdditionalSettings.GithubSettings github = additionalSettings.github;
+        this.apiUrl = github.apiUrl.endsWith("/") ?
+                github.apiUrl.substring(0, github.apiUrl.length() - 1) : github.apiUrl;
+        this.token = additionalSettings.githubToken;
+        this.rateLimiter = new RateLimiter(github.burst);
+        this.responseCache = new ResponseCache(github.responseCachePath, github.useResponseCache);
+    }
+
+    /**
+     * Returns the client shared by the whole run, creating it on the first call.
+     *
+     * @param additionalSettings additionalSettings object that is needed to access the configuration.
+     * @return shared client.
+     */
+    public static synchronized GithubClient getInstance(AdditionalSettings additionalSettings) {
+        if (instance == null) {
+            instance = new GithubClient(additionalSettings);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns statistics of the shared client and logs them.
+     *
+     * @return statistics or null if GitHub API was not used.
+     */
+    public static synchronized GithubStatistics getSharedStatistics() {
+        return instance == null ? null : instance.getStatistics();
+    }
+
+    /**
+     * Getter for the base url of the API.
+     *
+     * @return url without the trailing slash.
+     */
+    public String getApiUrl() {
+        return this.apiUrl;
+    }
+
+    /**
+     * Requests all pages of the url and merges them.
+     *
+     * @param url url of the first page.
+     * @return merged JsonArray, empty if a request was not successful.
+     * @throws IOException when a request cant be done.
+     */
+    public JsonArray getJsonArray(String url) throws IOException {
+        JsonArray result = new JsonArray();
+        String pageUrl = url;
+
+        while (pageUrl != null) {
+            CachedResponse page = this.getPage(pageUrl);
+            if (page == null) {
+                return new JsonArray();
+            }
+            JsonElement element = JsonParser.parseString(page.body);
+            if (!element.isJsonArray()) {
+                return new JsonArray();
+            }
+            result.addAll(element.getAsJsonArray());
+            pageUrl = page.next;
+        }
+
+        return result;
+    }
+
+    /**
+     * Requests a single page. Sends If-None-Match when the page is cached
+     * and waits for the reset when the rate limit is exceeded.
+     *
+     * @param url url of the page.
+     * @return page or null if the request was not successful.
+     * @throws IOException when the request cant be done.
+     */
+    private CachedResponse getPage(String url) throws IOException {
+        CachedResponse cached = this.responseCache.get(url);
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .header("Accept", "application/vnd.github+json");
+        if (this.token != null && !this.token.isBlank()) {
+            builder.header("Authorization", "token " + this.token);
+        }
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag);
+        }
+        Request request = builder.build();
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                this.rateLimiter.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+            }
+
+            long start = System.nanoTime();
+            try (Response response = this.httpClient.newCall(request).execute()) {
+                this.requests.incrementAndGet();
+                String remaining = response.header("X-RateLimit-Remaining");
+                this.rateLimiter.update(remaining, response.header("X-RateLimit-Reset"));
+
+                MetricsRegistry.getInstance().increment("github_status_" + response.code(), null, null);
+                if (response.code() == 304 && cached != null) {
+                    this.notModified.incrementAndGet();
+                    return cached;
+                }
+                if ((response.code() == 403 || response.code() == 429) && "0".equals(remaining)) {
+                    Logger.log(WARNING, "Rate limit exceeded, waiting for the reset", "GITHUB CLIENT");
+                    continue;
+                }
+                if (!response.isSuccessful() || response.body() == null) {
+                    return null;
+                }
+
+                CachedResponse page = new CachedResponse(
+                        response.header("ETag"),
+                        getNextLink(response.header("Link")),
+                        response.body().string()
+                );
+                this.responseCache.put(url, page);
+                return page;
+            } finally {
+                this.requestNanos.addAndGet(System.nanoTime() - start);
+                MetricsRegistry.getInstance().recordSince("github_request", null, null, start);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Extracts the url of the next page from the Link header.
+     *
+     * @param link value of the Link header.
+     * @return url of the next page or null.
+     */
+    static String getNextLink(String link) {
+        if (link == null) {
+            return null;
+        }
+        Matcher matcher = NEXT_LINK.matcher(link);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Returns statistics of the client and logs them.
+     *
+     * @return statistics.
+     */
+    public GithubStatistics getStatistics() {
+        GithubStatistics statistics = new GithubStatistics();
+        statistics.requests = this.requests.get();
+        statistics.notModified = this.notModified.get();
+        statistics.rateLimitWaits = this.rateLimiter.getWaits();
+        statistics.requestMillis = this.requestNanos.get() / 1_000_000;
+        Logger.log(
+                INFO,
+                statistics.requests + " requests, " + statistics.notModified + " not modified, " +
+                        statistics.rateLimitWaits + " rate limit waits, " +
+                        statistics.requestMillis + " ms spent in requests",
+                "GITHUB CLIENT"
+        );
+        return statistics;
+    }
+}
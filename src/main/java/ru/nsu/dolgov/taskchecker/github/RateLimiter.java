@@ -0,0 +1,130 @@
+package ru.nsu.dolgov.taskchecker.github;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Global token bucket shared by all GitHub requests. The bucket allows
+ * up to burst requests per second while the budget reported by the
+ * X-RateLimit-* headers is large, and spreads the last requests evenly
+ * until the limit is reset. The waiting is done on a ReentrantLock, so a
+ * virtual thread that waits for a token does not pin its carrier.
+ */
+public class RateLimiter {
+    private final int burst;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition();
+    private double tokens;
+    private double tokensPerNano;
+    private long lastRefill;
+    private long blockedUntilMillis = 0;
+    private int waits = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param burst maximal amount of requests that may be sent without waiting.
+     */
+    public RateLimiter(int burst) {
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.tokensPerNano = this.burst / (double) TimeUnit.SECONDS.toNanos(1);
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting until one is available.
+     *
+     * @throws InterruptedException is thrown when the thread is interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            boolean waited = false;
+            while (true) {
+                long blockedMillis = this.blockedUntilMillis - System.currentTimeMillis();
+                if (blockedMillis > 0) {
+                    waited = true;
+                    this.changed.await(blockedMillis, TimeUnit.MILLISECONDS);
+                    continue;
+                }
+                this.refill();
+                if (this.tokens >= 1) {
+                    this.tokens--;
+                    if (waited) {
+                        this.waits++;
+                    }
+                    return;
+                }
+                waited = true;
+                long waitNanos = (long) Math.ceil((1 - this.tokens) / this.tokensPerNano);
+                this.changed.awaitNanos(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Updates the bucket with the values of the rate limit headers.
+     *
+     * @param remaining amount of requests left, null if the header is absent.
+     * @param reset     time of the reset in seconds since the epoch, null if the header is absent.
+     */
+    public void update(String remaining, String reset) {
+        if (remaining == null || reset == null) {
+            return;
+        }
+        long remainingRequests;
+        long resetMillis;
+        try {
+            remainingRequests = Long.parseLong(remaining.trim());
+            resetMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(reset.trim()));
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        this.lock.lock();
+        try {
+            this.refill();
+            long millisUntilReset = Math.max(1000, resetMillis - System.currentTimeMillis());
+            if (remainingRequests <= 0) {
+                this.tokens = 0;
+                this.blockedUntilMillis = resetMillis;
+                this.tokensPerNano = this.burst / (double) TimeUnit.SECONDS.toNanos(1);
+            } else {
+                this.tokens = Math.min(this.tokens, remainingRequests);
+                this.tokensPerNano = remainingRequests > this.burst ?
+                        this.burst / (double) TimeUnit.SECONDS.toNanos(1) :
+                        remainingRequests / (double) TimeUnit.MILLISECONDS.toNanos(millisUntilReset);
+            }
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Getter for the amount of requests that had to wait for a token.
+     *
+     * @return amount of waits.
+     */
+    public int getWaits() {
+        this.lock.lock();
+        try {
+            return this.waits;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds the tokens accumulated since the last refill.
+     */
+    private void refill() {
+        long now = System.nanoTime();
+        this.tokens = Math.min(this.burst, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+        this.lastRefill = now;
+    }
+}
@@ -0,0 +1,117 @@
+package ru.nsu.dolgov.taskchecker.github;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import ru.nsu.dolgov.taskchecker.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
+
+/**
+ * On-disk cache of GitHub responses used for conditional requests.
+ */
+public class ResponseCache {
+    private final Path cachePath;
+    private final boolean enabled;
+    private final Gson gson = new Gson();
+
+    /**
+     * Constructor.
+     *
+     * @param cachePath folder where the responses are stored.
+     * @param enabled   false to never store the responses.
+     */
+    public ResponseCache(String cachePath, boolean enabled) {
+        this.cachePath = Paths.get(cachePath);
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the stored response for the url.
+     *
+     * @param url requested url.
+     * @return stored response or null.
+     */
+    public CachedResponse get(String url) {
+        if (!this.enabled) {
+            return null;
+        }
+        Path entry = this.getEntryPath(url);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        try {
+            return this.gson.fromJson(Files.readString(entry), CachedResponse.class);
+        } catch (IOException | JsonParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Stores the response for the url.
+     *
+     * @param url      requested url.
+     * @param response response to store.
+     */
+    public void put(String url, CachedResponse response) {
+        if (!this.enabled || response.etag == null) {
+            return;
+        }
+        Path entry = this.getEntryPath(url);
+        try {
+            Files.createDirectories(entry.getParent());
+            Path temporary = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+            Files.writeString(temporary, this.gson.toJson(response));
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.log(WARNING, "Unable to store the response in the cache", "GITHUB CLIENT");
+        }
+    }
+
+    /**
+     * Returns the file of the cache entry.
+     *
+     * @param url requested url.
+     * @return path of the entry.
+     */
+    private Path getEntryPath(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String key = HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+            return this.cachePath.resolve(key.substring(0, 2)).resolve(key + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A single page of the response.
+     */
+    public static class CachedResponse {
+        public String etag;
+        public String next;
+        public String body;
+
+        /**
+         * Constructor.
+         *
+         * @param etag ETag of the response.
+         * @param next url of the next page or null.
+         * @param body body of the response.
+         */
+        public CachedResponse(String etag, String next, String body) {
+            this.etag = etag;
+            this.next = next;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ru.nsu.dolgov.taskchecker.gradle;
+
+import com.sun.management.OperatingSystemMXBean;
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.GradleSettings;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
+
+/**
+ * Pool of the Gradle Tooling API connectors. A connector is not bound to a
+ * project, so an idle one is pointed at the next project and reused, and
+ * the daemons it started serve the following builds. Only the connectors
+ * nobody builds with are kept in the pool. When the free memory is low they
+ * are disconnected, which stops their daemons once they are idle, and the
+ * remaining ones are disconnected when the pool is closed.
+ */
+public class GradleConnectionPool implements AutoCloseable {
+    private final GradleSettings settings;
+    private final Deque<GradleConnector> idleConnectors = new ConcurrentLinkedDeque<>();
+    private final OperatingSystemMXBean operatingSystem =
+            (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final AtomicLong commands = new AtomicLong();
+    private final AtomicLong connectorsCreated = new AtomicLong();
+    private final AtomicLong connectNanos = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong taskNanos = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param settings Gradle settings of the app.
+     */
+    public GradleConnectionPool(GradleSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Opens a connection to the project with an idle connector, or with a new
+     * one if all of them are busy. The connection must be closed after the use.
+     *
+     * @param projectDirectory directory of the Gradle project.
+     * @return connection to the project.
+     */
+    public PooledConnection acquire(File projectDirectory) {
+        this.commands.incrementAndGet();
+        long startTime = System.nanoTime();
+        GradleConnector connector = this.settings.reuseConnections ? this.idleConnectors.pollFirst() : null;
+        if (connector == null) {
+            connector = GradleConnector.newConnector();
+            if (this.settings.installation != null && !this.settings.installation.isBlank()) {
+                connector.useInstallation(new File(this.settings.installation));
+            }
+            this.connectorsCreated.incrementAndGet();
+        }
+        ProjectConnection connection = connector.forProjectDirectory(projectDirectory).connect();
+        this.connectNanos.addAndGet(System.nanoTime() - startTime);
+        return new PooledConnection(this, connector, connection);
+    }
+
+    /**
+     * Closes the connection and returns its connector to the pool.
+     *
+     * @param connection borrowed connection.
+     */
+    void release(PooledConnection connection) {
+        connection.connection.close();
+        if (!this.settings.reuseConnections) {
+            connection.connector.disconnect();
+            return;
+        }
+        this.idleConnectors.addFirst(connection.connector);
+        this.evictIdleIfLowMemory();
+    }
+
+    /**
+     * Returns the arguments every build is run with.
+     *
+     * @param arguments arguments of the build.
+     * @return the arguments with the idle timeout of the daemons and
+     * --offline if the builds must not access the network.
+     */
+    public String[] getBuildArguments(String... arguments) {
+        List<String> buildArguments = new ArrayList<>(Arrays.asList(arguments));
+        buildArguments.add("-Dorg.gradle.daemon.idletimeout=" + TimeUnit.SECONDS.toMillis(this.settings.daemonIdleTimeout));
+        if (this.settings.offline) {
+            buildArguments.add("--offline");
+        }
+        return buildArguments.toArray(new String[0]);
+    }
+
+    /**
+     * Records how long it took to check a task, used to compare
+     * the time per task with and without the connections reuse.
+     *
+     * @param nanos time spent on the task.
+     */
+    public void recordTask(long nanos) {
+        this.tasks.incrementAndGet();
+        this.taskNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Disconnects the idle connectors if the free system memory is below the configured
+     * ratio, so the daemons they started stop instead of waiting for the idle timeout.
+     */
+    private void evictIdleIfLowMemory() {
+        long totalMemory = this.operatingSystem.getTotalMemorySize();
+        if (totalMemory <= 0 ||
+                (double) this.operatingSystem.getFreeMemorySize() / totalMemory >= this.settings.minFreeMemory) {
+            return;
+        }
+
+        int evicted = 0;
+        GradleConnector connector;
+        while ((connector = this.idleConnectors.pollLast()) != null) {
+            connector.disconnect();
+            evicted++;
+        }
+        if (evicted > 0) {
+            this.evictions.addAndGet(evicted);
+            Logger.log(WARNING, "Low memory, disconnected " + evicted + " idle Gradle connectors", "GRADLE POOL");
+        }
+    }
+
+    /**
+     * Disconnects the idle connectors and stops their daemons. Is called at the end of the run.
+     */
+    @Override
+    public void close() {
+        GradleConnector connector;
+        while ((connector = this.idleConnectors.poll()) != null) {
+            connector.disconnect();
+        }
+
+        long tasks = this.tasks.get();
+        Logger.log(
+                INFO,
+                String.format(
+                        "%d commands over %d connectors (reuse %s), connection setup %d ms, " +
+                                "%d evicted, average time per task %d ms",
+                        this.commands.get(), this.connectorsCreated.get(),
+                        this.settings.reuseConnections ? "on" : "off",
+                        TimeUnit.NANOSECONDS.toMillis(this.connectNanos.get()),
+                        this.evictions.get(),
+                        tasks == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(this.taskNanos.get() / tasks)
+                ),
+                "GRADLE POOL"
+        );
+    }
+}
@@ -0,0 +1,235 @@
+package ru.nsu.dolgov.taskchecker.gradle;
+
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+import ru.nsu.dolgov.taskchecker.models.results.TestCaseResult;
+import ru.nsu.dolgov.taskchecker.models.results.TestCaseResult.Outcome;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Aggregates the JUnit XML reports written by Gradle. The files are read
+ * with StAX, so the memory does not depend on the amount of test cases.
+ */
+public class JUnitXmlAggregator {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+    private final boolean parallel;
+    private final boolean collectTestCases;
+
+    /**
+     * Constructor.
+     *
+     * @param parallel         true to read the files in parallel.
+     * @param collectTestCases true to collect the name, outcome and duration of every test case.
+     */
+    public JUnitXmlAggregator(boolean parallel, boolean collectTestCases) {
+        this.parallel = parallel;
+        this.collectTestCases = collectTestCases;
+    }
+
+    /**
+     * Reads all the reports of the directory and adds the counts to the result.
+     *
+     * @param directory      directory with TEST-*.xml files.
+     * @param taskTestResult result that is filled.
+     * @return amount of the report files read.
+     * @throws IOException        is thrown when a file cant be read.
+     * @throws XMLStreamException is thrown when a file is not a valid XML.
+     */
+    public int aggregate(File directory, TaskTestResult taskTestResult) throws IOException, XMLStreamException {
+        File[] xmlFiles = directory.listFiles((dir, name) -> name.toLowerCase().endsWith(".xml"));
+        if (xmlFiles == null || xmlFiles.length == 0) {
+            return 0;
+        }
+
+        Stream<File> files = Arrays.stream(xmlFiles);
+        if (this.parallel) {
+            files = files.parallel();
+        }
+        Summary summary;
+        try {
+            summary = files.collect(Summary::new, this::readUnchecked, Summary::add);
+        } catch (ReportException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw (XMLStreamException) e.getCause();
+        }
+
+        taskTestResult.totalTests += summary.tests;
+        taskTestResult.failedTests += summary.failures + summary.errors;
+        taskTestResult.ignoredTests += summary.skipped;
+        taskTestResult.passedTests += summary.tests - summary.failures - summary.errors - summary.skipped;
+        taskTestResult.testCases.addAll(summary.testCases);
+
+        return xmlFiles.length;
+    }
+
+    /**
+     * Reads a single report, wrapping the checked exceptions for the stream.
+     *
+     * @param summary summary the counts are added to.
+     * @param file    report file.
+     */
+    private void readUnchecked(Summary summary, File file) {
+        try {
+            this.read(file, summary);
+        } catch (IOException | XMLStreamException e) {
+            throw new ReportException(e);
+        }
+    }
+
+    /**
+     * Reads a single report.
+     *
+     * @param file    report file.
+     * @param summary summary the counts are added to.
+     * @throws IOException        is thrown when the file cant be read.
+     * @throws XMLStreamException is thrown when the file is not a valid XML.
+     */
+    private void read(File file, Summary summary) throws IOException, XMLStreamException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            try {
+                TestCaseResult testCase = null;
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (reader.getLocalName()) {
+                            case "testsuite" -> {
+                                summary.tests += getCount(reader, "tests");
+                                summary.failures += getCount(reader, "failures");
+                                summary.errors += getCount(reader, "errors");
+                                summary.skipped += getCount(reader, "skipped");
+                            }
+                            case "testcase" -> {
+                                if (this.collectTestCases) {
+                                    testCase = new TestCaseResult();
+                                    testCase.className = reader.getAttributeValue(null, "classname");
+                                    testCase.name = reader.getAttributeValue(null, "name");
+                                    testCase.outcome = Outcome.PASSED;
+                                    testCase.durationMillis = getDurationMillis(reader.getAttributeValue(null, "time"));
+                                }
+                            }
+                            case "failure", "error" -> {
+                                if (testCase != null) {
+                                    testCase.outcome = Outcome.FAILED;
+                                }
+                            }
+                            case "skipped" -> {
+                                if (testCase != null) {
+                                    testCase.outcome = Outcome.SKIPPED;
+                                }
+                            }
+                            default -> {
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT &&
+                            testCase != null && reader.getLocalName().equals("testcase")) {
+                        summary.testCases.add(testCase);
+                        testCase = null;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Reads an integer attribute.
+     *
+     * @param reader    reader positioned on the element.
+     * @param attribute name of the attribute.
+     * @return value of the attribute or 0 if it is absent.
+     */
+    private static int getCount(XMLStreamReader reader, String attribute) {
+        String value = reader.getAttributeValue(null, attribute);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Converts the time attribute of a test case to milliseconds.
+     *
+     * @param time time in seconds.
+     * @return duration in milliseconds or 0 if the time is absent.
+     */
+    private static long getDurationMillis(String time) {
+        if (time == null || time.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.round(Double.parseDouble(time.trim().replace(",", "")) * 1000);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Creates the StAX factory with the external entities disabled.
+     *
+     * @return factory.
+     */
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Counts of one or several reports.
+     */
+    private static class Summary {
+        private final List<TestCaseResult> testCases = new ArrayList<>();
+        private int tests = 0;
+        private int failures = 0;
+        private int errors = 0;
+        private int skipped = 0;
+
+        /**
+         * Adds the counts of another summary to this one.
+         *
+         * @param other summary of other reports.
+         */
+        private void add(Summary other) {
+            this.tests += other.tests;
+            this.failures += other.failures;
+            this.errors += other.errors;
+            this.skipped += other.skipped;
+            this.testCases.addAll(other.testCases);
+        }
+    }
+
+    /**
+     * Unchecked wrapper used to pass the exceptions out of the stream.
+     */
+    private static class ReportException extends RuntimeException {
+        /**
+         * Constructor.
+         *
+         * @param cause IOException or XMLStreamException.
+         */
+        private ReportException(Exception cause) {
+            super(cause);
+        }
+    }
+}
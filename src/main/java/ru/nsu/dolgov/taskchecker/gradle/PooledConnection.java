@@ -0,0 +1,48 @@
+package ru.nsu.dolgov.taskchecker.gradle;
+
+import org.gradle.tooling.GradleConnector;
+import org.gradle.tooling.ProjectConnection;
+
+/**
+ * Connection to a Gradle project opened by the GradleConnectionPool.
+ * Closing it returns the connector to the pool.
+ */
+public class PooledConnection implements AutoCloseable {
+    final GradleConnector connector;
+    final ProjectConnection connection;
+    private final GradleConnectionPool pool;
+
+    /**
+     * Constructor.
+     *
+     * @param pool       pool the connector belongs to.
+     * @param connector  connector used to open the connection.
+     * @param connection opened connection.
+     */
+    PooledConnection(
+            GradleConnectionPool pool,
+            GradleConnector connector,
+            ProjectConnection connection
+    ) {
+        this.pool = pool;
+        this.connector = connector;
+        this.connection = connection;
+    }
+
+    /**
+     * Getter for the underlying connection.
+     *
+     * @return connection to the project.
+     */
+    public ProjectConnection get() {
+        return this.connection;
+    }
+
+    /**
+     * Closes the connection and returns the connector to the pool.
+     */
+    @Override
+    public void close() {
+        this.pool.release(this);
+    }
+}
@@ -0,0 +1,149 @@
+package ru.nsu.dolgov.taskchecker.gradle;
+
+import org.gradle.tooling.events.OperationResult;
+import org.gradle.tooling.events.ProgressEvent;
+import org.gradle.tooling.events.ProgressListener;
+import org.gradle.tooling.events.task.TaskFailureResult;
+import org.gradle.tooling.events.task.TaskFinishEvent;
+import org.gradle.tooling.events.task.TaskSuccessResult;
+import org.gradle.tooling.events.test.JvmTestKind;
+import org.gradle.tooling.events.test.JvmTestOperationDescriptor;
+import org.gradle.tooling.events.test.TestFailureResult;
+import org.gradle.tooling.events.test.TestFinishEvent;
+import org.gradle.tooling.events.test.TestSkippedResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+import ru.nsu.dolgov.taskchecker.models.results.TestCaseResult;
+import ru.nsu.dolgov.taskchecker.models.results.TestCaseResult.Outcome;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Progress listener that fills TaskTestResult with the test
+ * outcomes as they are reported by the Tooling API, and
+ * remembers which Gradle tasks have failed.
+ */
+public class TestEventCollector implements ProgressListener {
+    private static final Set<String> NON_BUILD_TASKS = Set.of("test", "javadoc");
+    private final TaskTestResult taskTestResult;
+    private final boolean collectTestCases;
+    private final Set<String> failedTasks = ConcurrentHashMap.newKeySet();
+    private final Set<String> succeededTasks = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> taskDurations = new ConcurrentHashMap<>();
+    private volatile boolean testEventsReceived = false;
+
+    /**
+     * Constructor.
+     *
+     * @param taskTestResult   result that is filled with the test outcomes.
+     * @param collectTestCases true to collect the name, outcome and duration of every test case.
+     */
+    public TestEventCollector(TaskTestResult taskTestResult, boolean collectTestCases) {
+        this.taskTestResult = taskTestResult;
+        this.collectTestCases = collectTestCases;
+    }
+
+    /**
+     * Method overriding. Handles test and task finish events.
+     *
+     * @param event progress event.
+     */
+    @Override
+    public void statusChanged(ProgressEvent event) {
+        if (event instanceof TestFinishEvent testFinishEvent) {
+            this.onTestFinished(testFinishEvent);
+        } else if (event instanceof TaskFinishEvent taskFinishEvent) {
+            String taskPath = taskFinishEvent.getDescriptor().getTaskPath();
+            String taskName = taskPath.substring(taskPath.lastIndexOf(':') + 1);
+            OperationResult result = taskFinishEvent.getResult();
+            this.taskDurations.merge(taskName, result.getEndTime() - result.getStartTime(), Long::sum);
+            if (result instanceof TaskFailureResult) {
+                this.failedTasks.add(taskName);
+            } else if (result instanceof TaskSuccessResult) {
+                this.succeededTasks.add(taskName);
+            }
+        }
+    }
+
+    /**
+     * Adds the outcome of a single test case to the result.
+     *
+     * @param event test finish event.
+     */
+    private void onTestFinished(TestFinishEvent event) {
+        if (!(event.getDescriptor() instanceof JvmTestOperationDescriptor descriptor) ||
+                descriptor.getJvmTestKind() != JvmTestKind.ATOMIC) {
+            return;
+        }
+        this.testEventsReceived = true;
+        OperationResult result = event.getResult();
+
+        TestCaseResult testCaseResult = new TestCaseResult();
+        testCaseResult.className = descriptor.getClassName();
+        testCaseResult.name = descriptor.getMethodName() != null ?
+                descriptor.getMethodName() : descriptor.getDisplayName();
+        testCaseResult.durationMillis = result.getEndTime() - result.getStartTime();
+        if (result instanceof TestFailureResult) {
+            testCaseResult.outcome = Outcome.FAILED;
+        } else if (result instanceof TestSkippedResult) {
+            testCaseResult.outcome = Outcome.SKIPPED;
+        } else {
+            testCaseResult.outcome = Outcome.PASSED;
+        }
+
+        synchronized (this.taskTestResult) {
+            if (this.collectTestCases) {
+                this.taskTestResult.testCases.add(testCaseResult);
+            }
+            this.taskTestResult.totalTests++;
+            switch (testCaseResult.outcome) {
+                case PASSED -> this.taskTestResult.passedTests++;
+                case FAILED -> this.taskTestResult.failedTests++;
+                case SKIPPED -> this.taskTestResult.ignoredTests++;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the project was built. Failures of
+     * the tests and javadoc do not count as a build failure.
+     *
+     * @param buildSucceeded whether the whole Gradle run succeeded.
+     * @return true if the project was built.
+     */
+    public boolean isBuilt(boolean buildSucceeded) {
+        if (buildSucceeded) {
+            return true;
+        }
+        return !this.failedTasks.isEmpty() && NON_BUILD_TASKS.containsAll(this.failedTasks);
+    }
+
+    /**
+     * Checks whether the javadoc task succeeded.
+     *
+     * @return true if javadoc was generated.
+     */
+    public boolean isJavadocGenerated() {
+        return this.succeededTasks.contains("javadoc");
+    }
+
+    /**
+     * Returns how long the Gradle tasks took, summed over the subprojects.
+     *
+     * @return durations in milliseconds by the name of the task.
+     */
+    public Map<String, Long> getTaskDurations() {
+        return this.taskDurations;
+    }
+
+    /**
+     * Checks whether any test events were received. Projects built with
+     * an old Gradle version may not report them.
+     *
+     * @return true if at least one test case was reported.
+     */
+    public boolean hasTestEvents() {
+        return this.testEventsReceived;
+    }
+}
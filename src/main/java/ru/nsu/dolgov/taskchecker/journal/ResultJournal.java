@@ -0,0 +1,267 @@
+package ru.nsu.dolgov.taskchecker.journal;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.CommitsCheckResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+import ru.nsu.dolgov.taskchecker.reportbuilder.LocalDateTypeAdapter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
+
+/**
+ * Append-only JSON Lines journal of the results. Every result is written
+ * and flushed by a background thread as soon as it is known, so an
+ * interrupted run can be resumed without checking the same tasks again.
+ * A shutdown hook writes the queued entries when the run is stopped with
+ * Ctrl-C before the journal is closed.
+ */
+public class ResultJournal implements AutoCloseable {
+    private static final JournalEntry END_OF_JOURNAL = new JournalEntry();
+    private final Path path;
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+            .create();
+    private final BlockingQueue<JournalEntry> queue = new LinkedBlockingQueue<>();
+    private final Map<String, TaskTestResult> taskResults = new ConcurrentHashMap<>();
+    private final Map<String, CommitsCheckResult> activities = new ConcurrentHashMap<>();
+    private final Thread writerThread;
+    private final Thread shutdownHook = new Thread(this::close, "result-journal-shutdown");
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * Constructor. Reads the journal when resuming and truncates it otherwise.
+     *
+     * @param path   file of the journal.
+     * @param resume true to keep the results of the previous run.
+     * @throws IOException is thrown when the journal cant be read or created.
+     */
+    public ResultJournal(String path, boolean resume) throws IOException {
+        this.path = Paths.get(path);
+        if (this.path.getParent() != null) {
+            Files.createDirectories(this.path.getParent());
+        }
+        if (resume && Files.exists(this.path)) {
+            this.load();
+        } else {
+            Files.writeString(this.path, "");
+        }
+        this.writerThread = new Thread(this::writeEntries, "result-journal");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+        Runtime.getRuntime().addShutdownHook(this.shutdownHook);
+    }
+
+    /**
+     * Reads the results of the previous run. A broken line, e.g. the last
+     * one written during a crash, is skipped, and so are the timed out
+     * results written by the older versions.
+     *
+     * @throws IOException is thrown when the journal cant be read.
+     */
+    private void load() throws IOException {
+        int brokenLines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(this.path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    JournalEntry entry = this.gson.fromJson(line, JournalEntry.class);
+                    if (entry.result != null && entry.task != null) {
+                        if (Boolean.TRUE.equals(entry.result.timedOut)) {
+                            continue;
+                        }
+                        this.taskResults.put(getKey(entry.student, entry.task), entry.result);
+                    } else if (entry.activity != null) {
+                        this.activities.put(entry.student, entry.activity);
+                    }
+                } catch (JsonParseException e) {
+                    brokenLines++;
+                }
+            }
+        }
+        if (!this.endsWithNewLine()) {
+            Files.writeString(this.path, System.lineSeparator(), StandardOpenOption.APPEND);
+        }
+        Logger.log(
+                INFO,
+                "Resuming with " + this.taskResults.size() + " checked tasks" +
+                        (brokenLines > 0 ? ", skipped " + brokenLines + " broken lines" : ""),
+                "RESULT JOURNAL"
+        );
+    }
+
+    /**
+     * Checks whether the journal ends with a complete line, so the
+     * new entries are not glued to a line broken by a crash.
+     *
+     * @return true if the journal is empty or its last byte is a line feed.
+     * @throws IOException is thrown when the journal cant be read.
+     */
+    private boolean endsWithNewLine() throws IOException {
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            if (channel.size() == 0) {
+                return true;
+            }
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            channel.read(lastByte, channel.size() - 1);
+            return lastByte.get(0) == '\n';
+        }
+    }
+
+    /**
+     * Returns the result of the task from the previous run.
+     *
+     * @param student student.
+     * @param task    task.
+     * @return result or null if the task was not checked.
+     */
+    public TaskTestResult getTaskResult(Student student, Task task) {
+        TaskTestResult result = this.taskResults.get(getKey(student.nickname, task.id));
+        if (result != null) {
+            result.task = task;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the commits activity of the student from the previous run.
+     *
+     * @param student student.
+     * @return activity or null if it was not computed.
+     */
+    public CommitsCheckResult getActivity(Student student) {
+        return this.activities.get(student.nickname);
+    }
+
+    /**
+     * Appends the result of the task. Timed out results are not written,
+     * so a resumed run checks these tasks again.
+     *
+     * @param student student.
+     * @param result  result of the task.
+     */
+    public void appendTaskResult(Student student, TaskTestResult result) {
+        if (Boolean.TRUE.equals(result.timedOut)) {
+            return;
+        }
+        JournalEntry entry = new JournalEntry();
+        entry.student = student.nickname;
+        entry.task = result.task.id;
+        entry.result = result;
+        this.queue.add(entry);
+    }
+
+    /**
+     * Appends the commits activity of the student.
+     *
+     * @param student  student.
+     * @param activity commits activity.
+     */
+    public void appendActivity(Student student, CommitsCheckResult activity) {
+        JournalEntry entry = new JournalEntry();
+        entry.student = student.nickname;
+        entry.activity = activity;
+        this.queue.add(entry);
+    }
+
+    /**
+     * Body of the writer thread. Writes the queued entries
+     * and flushes them every time the queue becomes empty.
+     */
+    private void writeEntries() {
+        try (BufferedWriter writer = Files.newBufferedWriter(
+                this.path,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND
+        )) {
+            while (true) {
+                JournalEntry entry = this.queue.take();
+                while (entry != null) {
+                    if (entry == END_OF_JOURNAL) {
+                        writer.flush();
+                        return;
+                    }
+                    writer.write(this.gson.toJson(entry));
+                    writer.newLine();
+                    entry = this.queue.poll();
+                }
+                writer.flush();
+            }
+        } catch (IOException e) {
+            Logger.log(ERROR, "Error when writing the journal!", "RESULT JOURNAL");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the remaining entries and stops the writer thread.
+     * Calls after the first one do nothing.
+     */
+    @Override
+    public void close() {
+        if (!this.closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (Thread.currentThread() != this.shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(this.shutdownHook);
+            } catch (IllegalStateException ignored) {
+            }
+        }
+        this.queue.add(END_OF_JOURNAL);
+        try {
+            this.writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.log(WARNING, "Interrupted before the journal was written", "RESULT JOURNAL");
+        }
+    }
+
+    /**
+     * Returns the key of the (student, task) pair.
+     *
+     * @param nickname nickname of the student.
+     * @param taskId   id of the task.
+     * @return key.
+     */
+    private static String getKey(String nickname, String taskId) {
+        return nickname + "/" + taskId;
+    }
+
+    /**
+     * A single line of the journal: either the result of a task or the commits activity.
+     */
+    private static class JournalEntry {
+        private String student;
+        private String task;
+        private TaskTestResult result;
+        private CommitsCheckResult activity;
+    }
+}
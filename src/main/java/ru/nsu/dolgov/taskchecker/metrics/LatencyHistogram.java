@@ -0,0 +1,129 @@
+package ru.nsu.dolgov.taskchecker.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free latency histogram with log-linear buckets in microseconds, in
+ * the spirit of HdrHistogram. Every power of two is split into 16 linear
+ * sub-buckets, so a percentile is off by at most 1/16 of its value, and the
+ * whole range up to 2^40 us (about 12 days) fits into 608 counters.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records a single duration.
+     *
+     * @param nanos duration in nanoseconds, negative values are counted as 0.
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+        this.counts.incrementAndGet(getBucket(micros));
+        this.count.incrementAndGet();
+        this.sumMicros.addAndGet(micros);
+        this.maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    /**
+     * Returns the amount of the recorded durations.
+     *
+     * @return count.
+     */
+    public long getCount() {
+        return this.count.get();
+    }
+
+    /**
+     * Returns the sum of the recorded durations.
+     *
+     * @return sum in microseconds.
+     */
+    public long getSumMicros() {
+        return this.sumMicros.get();
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return maximum in microseconds.
+     */
+    public long getMaxMicros() {
+        return this.maxMicros.get();
+    }
+
+    /**
+     * Returns the amount of the durations in the bucket.
+     *
+     * @param bucket index of the bucket.
+     * @return count of the bucket.
+     */
+    long getBucketCount(int bucket) {
+        return this.counts.get(bucket);
+    }
+
+    /**
+     * Returns the percentile, as the upper bound of the bucket it falls into.
+     *
+     * @param percentile percentile from 0 to 100.
+     * @return duration in microseconds, 0 if nothing was recorded.
+     */
+    public long getPercentileMicros(double percentile) {
+        long total = this.count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(getUpperBound(bucket), this.maxMicros.get());
+            }
+        }
+        return this.maxMicros.get();
+    }
+
+    /**
+     * Returns the bucket of the duration. The first 16 buckets hold the
+     * durations below 16 us exactly, then every power of two gets 16 buckets.
+     *
+     * @param micros duration in microseconds.
+     * @return index of the bucket.
+     */
+    static int getBucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest duration that falls into the bucket.
+     *
+     * @param bucket index of the bucket.
+     * @return upper bound in microseconds, inclusive.
+     */
+    static long getUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+}
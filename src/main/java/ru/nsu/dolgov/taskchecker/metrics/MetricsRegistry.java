@@ -0,0 +1,346 @@
+package ru.nsu.dolgov.taskchecker.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import ru.nsu.dolgov.taskchecker.Logger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.SUCCESS;
+
+/**
+ * Counters and latencies of the stages of a run, shared by the whole process.
+ * Every stage has a histogram, while the series tagged by the student and the
+ * task only keep the count, the sum and the maximum, so their amount does not
+ * blow the memory up. At the end of the run the metrics are exported in the
+ * Prometheus text format and as a JSON summary.
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static final String PREFIX = "taskchecker_";
+    private static final int FIRST_EXPORTED_EXPONENT = 10;
+    private final Map<String, LatencyHistogram> stages = new ConcurrentHashMap<>();
+    private final Map<SeriesKey, TaggedLatency> taggedStages = new ConcurrentHashMap<>();
+    private final Map<SeriesKey, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the registry of the process.
+     *
+     * @return registry.
+     */
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the duration of a stage.
+     *
+     * @param stage   name of the stage, e.g. build or clone.
+     * @param student nickname of the student, null if the stage is not tied to one.
+     * @param task    id of the task, null if the stage is not tied to one.
+     * @param nanos   duration in nanoseconds.
+     */
+    public void record(String stage, String student, String task, long nanos) {
+        this.stages.computeIfAbsent(stage, key -> new LatencyHistogram()).record(nanos);
+        if (student != null || task != null) {
+            this.taggedStages.computeIfAbsent(
+                    SeriesKey.of(stage, student, task),
+                    key -> new TaggedLatency()
+            ).record(nanos);
+        }
+    }
+
+    /**
+     * Records the time passed since the start of a stage.
+     *
+     * @param stage     name of the stage.
+     * @param student   nickname of the student, may be null.
+     * @param task      id of the task, may be null.
+     * @param startNanos value of System.nanoTime() at the start of the stage.
+     */
+    public void recordSince(String stage, String student, String task, long startNanos) {
+        this.record(stage, student, task, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Increments a counter.
+     *
+     * @param counter name of the counter.
+     * @param student nickname of the student, may be null.
+     * @param task    id of the task, may be null.
+     */
+    public void increment(String counter, String student, String task) {
+        this.add(counter, student, task, 1);
+    }
+
+    /**
+     * Adds the amount to a counter.
+     *
+     * @param counter name of the counter.
+     * @param student nickname of the student, may be null.
+     * @param task    id of the task, may be null.
+     * @param amount  amount to add.
+     */
+    public void add(String counter, String student, String task, long amount) {
+        this.counters.computeIfAbsent(SeriesKey.of(counter, student, task), key -> new AtomicLong()).addAndGet(amount);
+    }
+
+    /**
+     * Returns the histogram of a stage.
+     *
+     * @param stage name of the stage.
+     * @return histogram or null if the stage was never recorded.
+     */
+    public LatencyHistogram getStage(String stage) {
+        return this.stages.get(stage);
+    }
+
+    /**
+     * Writes metrics.prom, which is overwritten on every run so it can be
+     * picked up by the textfile collector, and summary-[timestamp].json,
+     * which is kept to compare the runs.
+     *
+     * @param folder folder of the metrics.
+     */
+    public void export(String folder) {
+        try {
+            Path metricsFolder = Paths.get(folder);
+            Files.createDirectories(metricsFolder);
+            Path prometheusPath = metricsFolder.resolve("metrics.prom");
+            Path temporary = Files.createTempFile(metricsFolder, "metrics", ".tmp");
+            Files.writeString(temporary, this.toPrometheus(), StandardCharsets.UTF_8);
+            Files.move(temporary, prometheusPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+            Path summaryPath = metricsFolder.resolve("summary-" + timestamp + ".json");
+            Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            try (Writer writer = Files.newBufferedWriter(summaryPath, StandardCharsets.UTF_8)) {
+                gson.toJson(this.getSummary(timestamp), writer);
+            }
+            Logger.log(SUCCESS, "Exported metrics to " + prometheusPath + " and " + summaryPath, "METRICS");
+        } catch (IOException e) {
+            Logger.log(ERROR, "Error when exporting metrics! " + e.getMessage(), "METRICS");
+        }
+    }
+
+    /**
+     * Renders the metrics in the Prometheus text format. The histograms
+     * are exported with a bucket per power of two starting from about 1 ms.
+     *
+     * @return text of the metrics.
+     */
+    public String toPrometheus() {
+        StringBuilder builder = new StringBuilder();
+        String histogramName = PREFIX + "stage_duration_seconds";
+        builder.append("# HELP ").append(histogramName).append(" Duration of the stages of the run.\n");
+        builder.append("# TYPE ").append(histogramName).append(" histogram\n");
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(this.stages).entrySet()) {
+            String stage = escape(entry.getKey());
+            LatencyHistogram histogram = entry.getValue();
+            long maxBucket = LatencyHistogram.getBucket(histogram.getMaxMicros());
+            long cumulative = 0;
+            for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+                cumulative += histogram.getBucketCount(bucket);
+                boolean endOfPower = (bucket + 1) % 16 == 0;
+                long upperBound = LatencyHistogram.getUpperBound(bucket);
+                if (endOfPower && upperBound >= (1L << FIRST_EXPORTED_EXPONENT) - 1) {
+                    builder.append(histogramName).append("_bucket{stage=\"").append(stage)
+                            .append("\",le=\"").append(toSeconds(upperBound + 1)).append("\"} ")
+                            .append(cumulative).append('\n');
+                }
+                if (bucket >= maxBucket && endOfPower) {
+                    break;
+                }
+            }
+            builder.append(histogramName).append("_bucket{stage=\"").append(stage).append("\",le=\"+Inf\"} ")
+                    .append(histogram.getCount()).append('\n');
+            builder.append(histogramName).append("_sum{stage=\"").append(stage).append("\"} ")
+                    .append(toSeconds(histogram.getSumMicros())).append('\n');
+            builder.append(histogramName).append("_count{stage=\"").append(stage).append("\"} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+
+        String taggedName = PREFIX + "stage_tagged_duration_seconds";
+        builder.append("# HELP ").append(taggedName).append(" Duration of the stages per student and task.\n");
+        builder.append("# TYPE ").append(taggedName).append(" summary\n");
+        for (Map.Entry<SeriesKey, TaggedLatency> entry : this.getSortedEntries(this.taggedStages)) {
+            String labels = entry.getKey().toLabels("stage");
+            builder.append(taggedName).append("_sum").append(labels).append(' ')
+                    .append(toSeconds(entry.getValue().sumMicros.get())).append('\n');
+            builder.append(taggedName).append("_count").append(labels).append(' ')
+                    .append(entry.getValue().count.get()).append('\n');
+        }
+
+        String counterName = PREFIX + "events_total";
+        builder.append("# HELP ").append(counterName).append(" Counted events of the run.\n");
+        builder.append("# TYPE ").append(counterName).append(" counter\n");
+        for (Map.Entry<SeriesKey, AtomicLong> entry : this.getSortedEntries(this.counters)) {
+            builder.append(counterName).append(entry.getKey().toLabels("event")).append(' ')
+                    .append(entry.getValue().get()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Collects the summary of the run: percentiles of every stage,
+     * the tagged series sorted from the slowest and the counters.
+     *
+     * @param timestamp timestamp of the run.
+     * @return summary that is serialized to JSON.
+     */
+    public Map<String, Object> getSummary(String timestamp) {
+        Map<String, Object> stageSummaries = new LinkedHashMap<>();
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(this.stages).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            Map<String, Object> stageSummary = new LinkedHashMap<>();
+            stageSummary.put("count", histogram.getCount());
+            stageSummary.put("totalMillis", histogram.getSumMicros() / 1000);
+            stageSummary.put("meanMillis", histogram.getSumMicros() / 1000.0 / Math.max(1, histogram.getCount()));
+            stageSummary.put("p50Millis", histogram.getPercentileMicros(50) / 1000.0);
+            stageSummary.put("p90Millis", histogram.getPercentileMicros(90) / 1000.0);
+            stageSummary.put("p99Millis", histogram.getPercentileMicros(99) / 1000.0);
+            stageSummary.put("maxMillis", histogram.getMaxMicros() / 1000.0);
+            stageSummaries.put(entry.getKey(), stageSummary);
+        }
+
+        List<Map<String, Object>> taggedSummaries = new ArrayList<>();
+        this.taggedStages.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<SeriesKey, TaggedLatency> entry) -> entry.getValue().sumMicros.get()
+                ).reversed())
+                .forEach(entry -> {
+                    Map<String, Object> taggedSummary = new LinkedHashMap<>();
+                    taggedSummary.put("stage", entry.getKey().name);
+                    taggedSummary.put("student", entry.getKey().student);
+                    taggedSummary.put("task", entry.getKey().task);
+                    taggedSummary.put("count", entry.getValue().count.get());
+                    taggedSummary.put("totalMillis", entry.getValue().sumMicros.get() / 1000);
+                    taggedSummary.put("maxMillis", entry.getValue().maxMicros.get() / 1000);
+                    taggedSummaries.add(taggedSummary);
+                });
+
+        Map<String, Long> counterSummaries = new TreeMap<>();
+        for (Map.Entry<SeriesKey, AtomicLong> entry : this.counters.entrySet()) {
+            counterSummaries.merge(entry.getKey().name, entry.getValue().get(), Long::sum);
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("timestamp", timestamp);
+        summary.put("stages", stageSummaries);
+        summary.put("counters", counterSummaries);
+        summary.put("tagged", taggedSummaries);
+        return summary;
+    }
+
+    /**
+     * Sorts the series by their labels, so the exported files are stable between the runs.
+     *
+     * @param series series to sort.
+     * @param <T>    type of the values.
+     * @return sorted entries.
+     */
+    private <T> List<Map.Entry<SeriesKey, T>> getSortedEntries(Map<SeriesKey, T> series) {
+        List<Map.Entry<SeriesKey, T>> entries = new ArrayList<>(series.entrySet());
+        entries.sort(Comparator.comparing((Map.Entry<SeriesKey, T> entry) -> entry.getKey().name)
+                .thenComparing(entry -> entry.getKey().student)
+                .thenComparing(entry -> entry.getKey().task));
+        return entries;
+    }
+
+    /**
+     * Converts microseconds to seconds.
+     *
+     * @param micros duration in microseconds.
+     * @return seconds as text.
+     */
+    private static String toSeconds(long micros) {
+        return String.valueOf(micros / 1_000_000.0);
+    }
+
+    /**
+     * Escapes the value of a label.
+     *
+     * @param value value of the label.
+     * @return escaped value.
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Series of a stage or a counter tagged by the student and the task.
+     *
+     * @param name    name of the stage or of the counter.
+     * @param student nickname of the student, empty if it is not tagged.
+     * @param task    id of the task, empty if it is not tagged.
+     */
+    private record SeriesKey(String name, String student, String task) {
+        /**
+         * Creates the key, replacing the missing tags with empty strings.
+         *
+         * @param name    name of the stage or of the counter.
+         * @param student nickname of the student, may be null.
+         * @param task    id of the task, may be null.
+         * @return key.
+         */
+        private static SeriesKey of(String name, String student, String task) {
+            return new SeriesKey(name, student == null ? "" : student, task == null ? "" : task);
+        }
+
+        /**
+         * Renders the labels of the series, the empty tags are omitted.
+         *
+         * @param nameLabel label that holds the name.
+         * @return labels in braces.
+         */
+        private String toLabels(String nameLabel) {
+            StringBuilder labels = new StringBuilder("{").append(nameLabel).append("=\"")
+                    .append(escape(this.name)).append('"');
+            if (!this.student.isEmpty()) {
+                labels.append(",student=\"").append(escape(this.student)).append('"');
+            }
+            if (!this.task.isEmpty()) {
+                labels.append(",task=\"").append(escape(this.task)).append('"');
+            }
+            return labels.append('}').toString();
+        }
+    }
+
+    /**
+     * Count, sum and maximum of a tagged series.
+     */
+    private static class TaggedLatency {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        /**
+         * Records a single duration.
+         *
+         * @param nanos duration in nanoseconds.
+         */
+        private void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            this.count.incrementAndGet();
+            this.sumMicros.addAndGet(micros);
+            this.maxMicros.accumulateAndGet(micros, Math::max);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package ru.nsu.dolgov.taskchecker.models.core;
 
+import ru.nsu.dolgov.taskchecker.Logger.LogLevel;
+
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -10,13 +12,39 @@ import java.util.stream.Collectors;
 public class AdditionalSettings {
     public List<PlagiarismCandidate> plagiarismCandidateList = new ArrayList<>();
     public String plagiarismReportFolder = "reports";
+    public List<Task> plagiarismTasks = new ArrayList<>();
+    public Integer plagiarismThreads = 2;
+    public Boolean plagiarismPrefilter = false;
+    public Double plagiarismThreshold = 0.5;
+    public Integer plagiarismMaxGroupSize = 32;
+    public String plagiarismCachePath = ".cache/plagiarism";
+    public Integer plagiarismTopPairs = 10;
     public transient Map<Student, List<Task>> toCheck = new HashMap<>();
     public List<LocalDate> controlPoints = new ArrayList<>();
     public Integer pointsForActivenessPerWeek = 0;
-    public Boolean runInParallel = false;
+    public ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+    public Integer buildThreads = 0;
     public Boolean cleanUp = false;
+    public Boolean useCheckCache = true;
+    public String checkCachePath = ".cache/checks";
+    public Boolean collectTestCases = false;
+    public Boolean localCommitsActivity = true;
+    public CloneStrategy cloneStrategy = CloneStrategy.FULL;
+    public Boolean useMirrorCache = false;
+    public String mirrorCachePath = ".cache/mirrors";
+    public Boolean reportPrettyPrint = true;
+    public Boolean reportGzip = false;
+    public String journalPath = ".cache/journal.jsonl";
+    public String metricsPath = "./metrics";
+    public LogLevel logLevel = LogLevel.INFO;
+    public String logJsonPath = "";
     public String githubToken = null;
     public MarksMap marksMap;
+    public PipelineSettings pipeline = new PipelineSettings();
+    public GradleSettings gradle = new GradleSettings();
+    public GithubSettings github = new GithubSettings();
+    public TimeoutSettings timeouts = new TimeoutSettings();
+    public DistributedSettings distributed = new DistributedSettings();
     public String repositoriesPath = "repositories";
     public List<StudentWithTasks> toCheckList = new ArrayList<>();
 
@@ -56,6 +84,141 @@ public class AdditionalSettings {
         }
     }
 
+    public static class PipelineSettings {
+        public Integer downloadThreads = 4;
+        public Integer activityThreads = 2;
+        public Integer queueCapacity = 8;
+        public Integer logInterval = 10;
+        public Integer virtualThreads = 64;
+
+        public void downloadThreads(Integer downloadThreads) {
+            this.downloadThreads = downloadThreads;
+        }
+
+        public void activityThreads(Integer activityThreads) {
+            this.activityThreads = activityThreads;
+        }
+
+        public void queueCapacity(Integer queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public void logInterval(Integer logInterval) {
+            this.logInterval = logInterval;
+        }
+
+        public void virtualThreads(Integer virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+
+    public static class GradleSettings {
+        public Boolean reuseConnections = true;
+        public Integer daemonIdleTimeout = 120;
+        public Double minFreeMemory = 0.1;
+        public String installation = null;
+        public Boolean offline = false;
+
+        public void reuseConnections(Boolean reuseConnections) {
+            this.reuseConnections = reuseConnections;
+        }
+
+        public void daemonIdleTimeout(Integer daemonIdleTimeout) {
+            this.daemonIdleTimeout = daemonIdleTimeout;
+        }
+
+        public void minFreeMemory(Double minFreeMemory) {
+            this.minFreeMemory = minFreeMemory;
+        }
+
+        public void installation(String installation) {
+            this.installation = installation;
+        }
+
+        public void offline(Boolean offline) {
+            this.offline = offline;
+        }
+    }
+
+    public static class GithubSettings {
+        public String apiUrl = "https://api.github.com";
+        public Boolean useResponseCache = true;
+        public String responseCachePath = ".cache/github";
+        public Integer burst = 30;
+
+        public void apiUrl(String apiUrl) {
+            this.apiUrl = apiUrl;
+        }
+
+        public void useResponseCache(Boolean useResponseCache) {
+            this.useResponseCache = useResponseCache;
+        }
+
+        public void responseCachePath(String responseCachePath) {
+            this.responseCachePath = responseCachePath;
+        }
+
+        public void burst(Integer burst) {
+            this.burst = burst;
+        }
+    }
+
+    public static class TimeoutSettings {
+        public Integer download = 300;
+        public Integer build = 600;
+        public Integer student = 1800;
+
+        public void download(Integer download) {
+            this.download = download;
+        }
+
+        public void build(Integer build) {
+            this.build = build;
+        }
+
+        public void student(Integer student) {
+            this.student = student;
+        }
+    }
+
+    public static class DistributedSettings {
+        public Integer port = 7077;
+        public String bindAddress = "127.0.0.1";
+        public String secret = "";
+        public Integer heartbeatInterval = 5;
+        public Integer heartbeatTimeout = 30;
+        public Integer maxAttempts = 3;
+        public Integer unitsPerWorker = 4;
+
+        public void port(Integer port) {
+            this.port = port;
+        }
+
+        public void bindAddress(String bindAddress) {
+            this.bindAddress = bindAddress;
+        }
+
+        public void secret(String secret) {
+            this.secret = secret;
+        }
+
+        public void heartbeatInterval(Integer heartbeatInterval) {
+            this.heartbeatInterval = heartbeatInterval;
+        }
+
+        public void heartbeatTimeout(Integer heartbeatTimeout) {
+            this.heartbeatTimeout = heartbeatTimeout;
+        }
+
+        public void maxAttempts(Integer maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public void unitsPerWorker(Integer unitsPerWorker) {
+            this.unitsPerWorker = unitsPerWorker;
+        }
+    }
+
     public static class PlagiarismCandidate {
         public Student suspectedStudent;
 
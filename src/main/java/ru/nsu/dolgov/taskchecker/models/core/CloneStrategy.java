@@ -0,0 +1,24 @@
+package ru.nsu.dolgov.taskchecker.models.core;
+
+/**
+ * Describes how the repositories of the students are downloaded.
+ */
+public enum CloneStrategy {
+    /**
+     * Whole history and the whole working tree.
+     */
+    FULL,
+    /**
+     * History since the earliest control point only.
+     */
+    SHALLOW,
+    /**
+     * Blob-less clone, only the file contents of the checked out commit are fetched.
+     * Requires git to be installed, falls back to a full JGit clone otherwise.
+     */
+    PARTIAL,
+    /**
+     * Only the directories of the checked tasks are written to the working tree.
+     */
+    SPARSE
+}
@@ -7,74 +7,162 @@ import ru.nsu.dolgov.taskchecker.exceptions.NoSuchStudentException;
 import ru.nsu.dolgov.taskchecker.exceptions.NoSuchTaskException;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 
 
+/**
+ * Parsed configuration. While the scripts run, the lists only grow, and the
+ * lookups index the new elements on demand. After the parsing it is frozen:
+ * the lists become unmodifiable and the lookups are plain hash map reads.
+ */
 public class Configuration {
     public List<Task> tasks = new ArrayList<>();
     public List<Group> groups = new ArrayList<>();
     public AdditionalSettings additionalSettings = new AdditionalSettings();
     public List<Student> students = new ArrayList<>();
+    private final transient Set<String> nicknames = new HashSet<>();
+    private final transient Map<String, Student> studentsByName = new HashMap<>();
+    private final transient Map<String, Task> tasksByName = new HashMap<>();
+    private final transient Map<String, Group> groupsByName = new HashMap<>();
+    private transient int indexedStudents = 0;
+    private transient int indexedTasks = 0;
+    private transient int indexedGroups = 0;
+    private transient boolean frozen = false;
 
+    /**
+     * Adds the students whose nicknames are not known yet.
+     *
+     * @param students students of a group.
+     */
     public void addStudents(List<Student> students) {
-        List<String> nicknames = this.students.stream().map(student -> student.nickname).toList();
+        if (this.frozen) {
+            throw new UnsupportedOperationException("Configuration is frozen");
+        }
         for (Student student : students) {
-            if (!nicknames.contains(student.nickname)) {
+            if (this.nicknames.add(student.nickname)) {
                 this.students.add(student);
             }
         }
     }
 
+    /**
+     * Makes the configuration immutable and indexes all of its elements.
+     */
+    public void freeze() {
+        if (this.frozen) {
+            return;
+        }
+        this.indexStudents();
+        this.indexTasks();
+        this.indexGroups();
+        this.tasks = List.copyOf(this.tasks);
+        this.groups = List.copyOf(this.groups);
+        this.students = List.copyOf(this.students);
+        this.frozen = true;
+    }
+
+    /**
+     * Returns true if the configuration is frozen.
+     *
+     * @return true after freeze was called.
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Returns the group by its name.
+     *
+     * @param groupName name of the group.
+     * @return Group object.
+     * @throws NoSuchGroupException is thrown when there is no such group.
+     */
     public Group getGroupByName(String groupName) throws NoSuchGroupException {
-        try {
-            return this.groups.stream()
-                    .filter(
-                            group -> Objects.equals(
-                                    group.name, groupName
-                            )
-                    )
-                    .toList()
-                    .getFirst();
-        } catch (ArrayIndexOutOfBoundsException e) {
+        this.indexGroups();
+        Group group = this.groupsByName.get(groupName);
+        if (group == null) {
             Logger.log(Logger.LogLevel.ERROR, "No such group: '" + groupName + "'!");
-            throw new NoSuchGroupException(e.getMessage());
+            throw new NoSuchGroupException("No such group: " + groupName);
         }
+        return group;
     }
 
+    /**
+     * Returns the task by its id or title.
+     *
+     * @param taskName id or title of the task.
+     * @return Task object.
+     * @throws NoSuchTaskException is thrown when there is no such task.
+     */
     public Task getTaskByName(String taskName) throws NoSuchTaskException {
-        try {
-            return this.tasks.stream()
-                    .filter(
-                            task -> Objects.equals(
-                                    task.id, taskName
-                            ) || Objects.equals(
-                                    task.title, taskName
-                            )
-                    )
-                    .toList()
-                    .getFirst();
-        } catch (ArrayIndexOutOfBoundsException e) {
+        this.indexTasks();
+        Task task = this.tasksByName.get(taskName);
+        if (task == null) {
             Logger.log(Logger.LogLevel.ERROR, "No such task: '" + taskName + "'!");
-            throw new NoSuchTaskException(e.getMessage());
+            throw new NoSuchTaskException("No such task: " + taskName);
         }
+        return task;
     }
 
+    /**
+     * Returns the student by the name or the nickname.
+     *
+     * @param studentName name or nickname of the student.
+     * @return Student object.
+     * @throws NoSuchStudentException is thrown when there is no such student.
+     */
     public Student getStudentByName(String studentName) throws NoSuchStudentException {
-        try {
-            return this.students.stream()
-                    .filter(
-                            student -> Objects.equals(
-                                    student.studentName, studentName
-                            ) || Objects.equals(
-                                    student.nickname, studentName
-                            ))
-                    .toList()
-                    .getFirst();
-        } catch (ArrayIndexOutOfBoundsException | NoSuchElementException e) {
+        this.indexStudents();
+        Student student = this.studentsByName.get(studentName);
+        if (student == null) {
             Logger.log(Logger.LogLevel.ERROR, "No such student: '" + studentName + "'!");
-            throw new NoSuchStudentException(e.getMessage());
+            throw new NoSuchStudentException("No such student: " + studentName);
+        }
+        return student;
+    }
+
+    /**
+     * Indexes the students added since the last call. The first student
+     * with the name or the nickname wins, as in the order of the list.
+     */
+    private void indexStudents() {
+        for (; this.indexedStudents < this.students.size(); this.indexedStudents++) {
+            Student student = this.students.get(this.indexedStudents);
+            if (student.studentName != null) {
+                this.studentsByName.putIfAbsent(student.studentName, student);
+            }
+            if (student.nickname != null) {
+                this.studentsByName.putIfAbsent(student.nickname, student);
+            }
+        }
+    }
+
+    /**
+     * Indexes the tasks added since the last call, by the id and by the title.
+     */
+    private void indexTasks() {
+        for (; this.indexedTasks < this.tasks.size(); this.indexedTasks++) {
+            Task task = this.tasks.get(this.indexedTasks);
+            if (task.id != null) {
+                this.tasksByName.putIfAbsent(task.id, task);
+            }
+            if (task.title != null) {
+                this.tasksByName.putIfAbsent(task.title, task);
+            }
+        }
+    }
+
+    /**
+     * Indexes the groups added since the last call.
+     */
+    private void indexGroups() {
+        for (; this.indexedGroups < this.groups.size(); this.indexedGroups++) {
+            Group group = this.groups.get(this.indexedGroups);
+            this.groupsByName.putIfAbsent(group.name, group);
         }
     }
 }
@@ -0,0 +1,20 @@
+package ru.nsu.dolgov.taskchecker.models.core;
+
+/**
+ * Describes which threads the stages of the check run on.
+ */
+public enum ExecutionMode {
+    /**
+     * One thread per stage, students are processed one by one.
+     */
+    SEQUENTIAL,
+    /**
+     * Downloads and API calls run on pools of platform threads sized by the pipeline settings.
+     */
+    PLATFORM,
+    /**
+     * Downloads and API calls run on virtual threads, so many of them can wait
+     * for the network at once. Builds still run on a bounded platform pool.
+     */
+    VIRTUAL
+}
@@ -1,5 +1,10 @@
 package ru.nsu.dolgov.taskchecker.models.core;
 
+import ru.nsu.dolgov.taskchecker.models.results.CacheStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.CloneStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.GithubStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.PlagiarismResult;
+import ru.nsu.dolgov.taskchecker.models.results.SchedulerStatistics;
 import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
 
 import java.util.List;
@@ -11,4 +16,9 @@ public class JSONReportObject {
     public AdditionalSettings additionalSettings;
     public List<Student> students;
     public String plagiarismReportPath = null;
+    public List<PlagiarismResult> plagiarismResults = null;
+    public SchedulerStatistics schedulerStatistics = null;
+    public CacheStatistics checkCacheStatistics = null;
+    public GithubStatistics githubStatistics = null;
+    public CloneStatistics cloneStatistics = null;
 }
@@ -0,0 +1,9 @@
+package ru.nsu.dolgov.taskchecker.models.results;
+
+/**
+ * Class used to describe how many checks were reused from the cache.
+ */
+public class CacheStatistics {
+    public Integer hits = 0;
+    public Integer misses = 0;
+}
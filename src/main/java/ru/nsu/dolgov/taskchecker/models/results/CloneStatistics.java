@@ -0,0 +1,16 @@
+package ru.nsu.dolgov.taskchecker.models.results;
+
+import ru.nsu.dolgov.taskchecker.models.core.CloneStrategy;
+
+/**
+ * Class used to describe how much time, network and disk space the downloads took.
+ * The received bytes are measured as the growth of the object stores.
+ */
+public class CloneStatistics {
+    public CloneStrategy strategy;
+    public Integer repositories = 0;
+    public Long downloadMillis = 0L;
+    public Long receivedBytes = 0L;
+    public Long gitBytes = 0L;
+    public Long worktreeBytes = 0L;
+}
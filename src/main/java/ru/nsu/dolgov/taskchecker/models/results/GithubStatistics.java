@@ -0,0 +1,11 @@
+package ru.nsu.dolgov.taskchecker.models.results;
+
+/**
+ * Class used to describe how GitHub API was used during the run.
+ */
+public class GithubStatistics {
+    public Integer requests = 0;
+    public Integer notModified = 0;
+    public Integer rateLimitWaits = 0;
+    public Long requestMillis = 0L;
+}
@@ -0,0 +1,30 @@
+package ru.nsu.dolgov.taskchecker.models.results;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class used to describe the plagiarism check of a single task.
+ */
+public class PlagiarismResult {
+    public String taskId;
+    public List<String> reportPaths = new ArrayList<>();
+    public Integer submissions = 0;
+    public Integer screenedPairs = null;
+    public Integer candidatePairs = null;
+    public Integer comparisons = 0;
+    public Integer reusedPairs = 0;
+    public Long durationMillis = 0L;
+    public String error = null;
+    public List<PlagiarismPair> topPairs = new ArrayList<>();
+
+    /**
+     * Class used to describe two similar submissions of the task.
+     */
+    public static class PlagiarismPair {
+        public String firstStudent;
+        public String secondStudent;
+        public Double similarity;
+        public Double maximalSimilarity;
+    }
+}
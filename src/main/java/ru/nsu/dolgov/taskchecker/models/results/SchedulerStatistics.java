@@ -0,0 +1,21 @@
+package ru.nsu.dolgov.taskchecker.models.results;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class used to describe how the work was spread between the workers.
+ */
+public class SchedulerStatistics {
+    public Long makespanMillis = 0L;
+    public Integer totalUnits = 0;
+    public List<WorkerStatistics> workers = new ArrayList<>();
+
+    public static class WorkerStatistics {
+        public String worker;
+        public Integer units = 0;
+        public Integer stolenUnits = 0;
+        public Long busyMillis = 0L;
+        public Double utilization = 0.0;
+    }
+}
@@ -2,6 +2,9 @@ package ru.nsu.dolgov.taskchecker.models.results;
 
 import ru.nsu.dolgov.taskchecker.models.core.Task;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Class used to describe the result of checking tasks'
  * build, javadoc, etc.
@@ -13,7 +16,11 @@ public class TaskTestResult {
     public Integer totalTests = 0;
     public Integer failedTests = 0;
     public Integer ignoredTests = 0;
+    public List<TestCaseResult> testCases = new ArrayList<>();
     public DeadlinesCheckResult deadlinesCheckResult = null;
     public Task task = null;
     public float points = -0.5F;
+    public Boolean cacheHit = false;
+    public Boolean timedOut = false;
+    public String timedOutStage = null;
 }
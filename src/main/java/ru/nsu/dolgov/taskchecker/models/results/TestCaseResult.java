@@ -0,0 +1,15 @@
+package ru.nsu.dolgov.taskchecker.models.results;
+
+/**
+ * Class used to describe the result of a single test case.
+ */
+public class TestCaseResult {
+    public String className;
+    public String name;
+    public Outcome outcome;
+    public Long durationMillis = 0L;
+
+    public enum Outcome {
+        PASSED, FAILED, SKIPPED
+    }
+}
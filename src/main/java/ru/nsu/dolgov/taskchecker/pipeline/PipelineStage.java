@@ -0,0 +1,222 @@
+package ru.nsu.dolgov.taskchecker.pipeline;
+
+import ru.nsu.dolgov.taskchecker.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+
+/**
+ * A single stage of the pipeline. Has a bounded input queue and its own
+ * executor. Processed items are passed to the next sink, which blocks
+ * the stage when the next queue is full. The workers of the stages that
+ * mostly wait for the network can be virtual threads. An item the handler
+ * failed on is given to the failure handler and is still passed on, so
+ * the next stages can account for it.
+ *
+ * @param <T> type of the items.
+ */
+public class PipelineStage<T> implements StageSink<T> {
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+    private final String name;
+    private final int threads;
+    private final BlockingQueue<T> queue;
+    private final StageHandler<T> handler;
+    private final StageSink<T> next;
+    private final StageFailureHandler<T> failureHandler;
+    private final boolean virtualThreads;
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private ExecutorService executor;
+    private long startTime;
+    private volatile boolean finished = false;
+
+    /**
+     * Constructor.
+     *
+     * @param name          name of the stage used in the logs.
+     * @param threads       amount of the threads of the stage.
+     * @param queueCapacity capacity of the input queue.
+     * @param handler       handler that processes a single item.
+     * @param next          receiver of the processed items.
+     */
+    public PipelineStage(
+            String name,
+            int threads,
+            int queueCapacity,
+            StageHandler<T> handler,
+            StageSink<T> next
+    ) {
+        this(name, threads, queueCapacity, handler, next, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name           name of the stage used in the logs.
+     * @param threads        amount of the workers of the stage.
+     * @param queueCapacity  capacity of the input queue.
+     * @param handler        handler that processes a single item.
+     * @param next           receiver of the processed items.
+     * @param virtualThreads true to run the workers on virtual threads.
+     */
+    public PipelineStage(
+            String name,
+            int threads,
+            int queueCapacity,
+            StageHandler<T> handler,
+            StageSink<T> next,
+            boolean virtualThreads
+    ) {
+        this(name, threads, queueCapacity, handler, next, virtualThreads, (item, stage, cause) -> {
+        });
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name           name of the stage used in the logs.
+     * @param threads        amount of the workers of the stage.
+     * @param queueCapacity  capacity of the input queue.
+     * @param handler        handler that processes a single item.
+     * @param next           receiver of the processed items.
+     * @param virtualThreads true to run the workers on virtual threads.
+     * @param failureHandler handler that records the items the handler failed on.
+     */
+    public PipelineStage(
+            String name,
+            int threads,
+            int queueCapacity,
+            StageHandler<T> handler,
+            StageSink<T> next,
+            boolean virtualThreads,
+            StageFailureHandler<T> failureHandler
+    ) {
+        this.name = name;
+        this.threads = threads;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.handler = handler;
+        this.next = next;
+        this.virtualThreads = virtualThreads;
+        this.failureHandler = failureHandler;
+    }
+
+    /**
+     * Starts the workers of the stage.
+     */
+    public void start() {
+        this.startTime = System.nanoTime();
+        this.executor = this.virtualThreads ?
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(this.name + "-", 1).factory()) :
+                Executors.newFixedThreadPool(this.threads);
+        this.runningWorkers.set(this.threads);
+        for (int i = 1; i <= this.threads; i++) {
+            String workerName = this.name.toUpperCase() + " " + i;
+            this.executor.submit(() -> this.work(workerName));
+        }
+        this.executor.shutdown();
+    }
+
+    /**
+     * Puts an item to the input queue. Blocks while the queue is full.
+     *
+     * @param item item to process.
+     * @throws InterruptedException is thrown when interrupted while waiting.
+     */
+    @Override
+    public void put(T item) throws InterruptedException {
+        this.queue.put(item);
+    }
+
+    /**
+     * Tells the stage that no more items will be put. The stage
+     * finishes the next sink when its queue is drained.
+     */
+    @Override
+    public void finish() {
+        this.finished = true;
+    }
+
+    /**
+     * Worker loop of the stage.
+     *
+     * @param workerName name of the worker used to achieve appropriate logging.
+     */
+    private void work(String workerName) {
+        try {
+            while (true) {
+                T item = this.queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    if (this.finished && this.queue.isEmpty()) {
+                        break;
+                    }
+                    continue;
+                }
+
+                this.inProgress.incrementAndGet();
+                long startTime = System.nanoTime();
+                try {
+                    this.handler.handle(item, workerName);
+                } catch (Exception e) {
+                    Logger.log(ERROR, "Error in the " + this.name + " stage for " + item + ": " + e, workerName);
+                    this.failureHandler.failed(item, this.name, e);
+                } finally {
+                    this.busyNanos.addAndGet(System.nanoTime() - startTime);
+                    this.inProgress.decrementAndGet();
+                    this.processed.incrementAndGet();
+                }
+                this.next.put(item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (this.runningWorkers.decrementAndGet() == 0) {
+                this.next.finish();
+                this.logSummary();
+            }
+        }
+    }
+
+    /**
+     * Logs the current queue depth and throughput of the stage.
+     */
+    public void logState() {
+        double seconds = (System.nanoTime() - this.startTime) / 1e9;
+        Logger.log(
+                INFO,
+                String.format(
+                        "%s: queue %d/%d, in progress %d, done %d (%.2f/s)",
+                        this.name, this.queue.size(), this.queue.size() + this.queue.remainingCapacity(),
+                        this.inProgress.get(), this.processed.get(),
+                        seconds > 0 ? this.processed.get() / seconds : 0.0
+                ),
+                "PIPELINE"
+        );
+    }
+
+    /**
+     * Logs the summary of the stage when all its workers are done.
+     */
+    private void logSummary() {
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime);
+        Logger.log(
+                INFO,
+                String.format(
+                        "%s finished: %d items in %d ms, busy %d ms on %d %s threads",
+                        this.name, this.processed.get(), wallMillis,
+                        TimeUnit.NANOSECONDS.toMillis(this.busyNanos.get()), this.threads,
+                        this.virtualThreads ? "virtual" : "platform"
+                ),
+                "PIPELINE"
+        );
+    }
+}
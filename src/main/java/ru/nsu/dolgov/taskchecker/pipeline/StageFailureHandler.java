@@ -0,0 +1,19 @@
+package ru.nsu.dolgov.taskchecker.pipeline;
+
+/**
+ * Handler that is called by the pipeline stage for every item it failed
+ * to process, before the item is passed to the next sink.
+ *
+ * @param <T> type of the items.
+ */
+@FunctionalInterface
+public interface StageFailureHandler<T> {
+    /**
+     * Records the failure on the item, so the next stages can skip it.
+     *
+     * @param item  item that was not processed.
+     * @param stage name of the stage.
+     * @param cause exception thrown by the handler of the stage.
+     */
+    void failed(T item, String stage, Exception cause);
+}
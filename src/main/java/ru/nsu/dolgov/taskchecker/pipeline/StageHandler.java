@@ -0,0 +1,18 @@
+package ru.nsu.dolgov.taskchecker.pipeline;
+
+/**
+ * Handler that is called by the pipeline stage for every item.
+ *
+ * @param <T> type of the items.
+ */
+@FunctionalInterface
+public interface StageHandler<T> {
+    /**
+     * Processes a single item.
+     *
+     * @param item       item to process.
+     * @param workerName name of the stage worker used to achieve appropriate logging.
+     * @throws Exception is thrown when the item can not be processed.
+     */
+    void handle(T item, String workerName) throws Exception;
+}
@@ -0,0 +1,21 @@
+package ru.nsu.dolgov.taskchecker.pipeline;
+
+/**
+ * Receiver of the items processed by a pipeline stage.
+ *
+ * @param <T> type of the items.
+ */
+public interface StageSink<T> {
+    /**
+     * Accepts a processed item. May block if the receiver is full.
+     *
+     * @param item processed item.
+     * @throws InterruptedException is thrown when interrupted while waiting.
+     */
+    void put(T item) throws InterruptedException;
+
+    /**
+     * Tells the receiver that no more items will be passed.
+     */
+    void finish();
+}
@@ -0,0 +1,262 @@
+package ru.nsu.dolgov.taskchecker.plagiarism;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locality sensitive hashing over MinHash signatures. A signature is split
+ * into bands, and two submissions become a candidate pair if any band is
+ * equal. The candidates are then verified by the estimated similarity, so
+ * only a small share of all the pairs is ever compared.
+ */
+public class LshIndex {
+    private final double threshold;
+    private final int rowsPerBand;
+    private final int bands;
+    private final List<String> names = new ArrayList<>();
+    private final List<int[]> signatures = new ArrayList<>();
+    private final Map<BandKey, List<Integer>> buckets = new HashMap<>();
+
+    /**
+     * Constructor. A pair with the similarity s shares a band with the probability
+     * 1 - (1 - s^r)^b, which rises steeply around (1/b)^(1/r). The longest bands
+     * whose rise is still below the threshold are taken, so the pairs above the
+     * threshold are found and the much less similar ones rarely share a band.
+     *
+     * @param threshold minimal estimated similarity of a candidate pair, from 0 to 1.
+     */
+    public LshIndex(double threshold) {
+        this.threshold = threshold;
+        int rows = 1;
+        while (SourceFingerprint.SIGNATURE_SIZE % (rows * 2) == 0 &&
+                getRisePoint(SourceFingerprint.SIGNATURE_SIZE / (rows * 2), rows * 2) <= threshold) {
+            rows *= 2;
+        }
+        this.rowsPerBand = rows;
+        this.bands = SourceFingerprint.SIGNATURE_SIZE / rows;
+    }
+
+    /**
+     * Returns the similarity around which the probability to share a band rises.
+     *
+     * @param bands       amount of the bands.
+     * @param rowsPerBand amount of the rows in a band.
+     * @return similarity from 0 to 1.
+     */
+    private static double getRisePoint(int bands, int rowsPerBand) {
+        return Math.pow(1.0 / bands, 1.0 / rowsPerBand);
+    }
+
+    /**
+     * Getter for the amount of the rows in a band.
+     *
+     * @return rows per band.
+     */
+    public int getRowsPerBand() {
+        return this.rowsPerBand;
+    }
+
+    /**
+     * Getter for the amount of the bands.
+     *
+     * @return bands.
+     */
+    public int getBands() {
+        return this.bands;
+    }
+
+    /**
+     * Adds the submission to the index.
+     *
+     * @param name      name of the submission.
+     * @param signature MinHash signature of the submission.
+     */
+    public void add(String name, int[] signature) {
+        int index = this.names.size();
+        this.names.add(name);
+        this.signatures.add(signature);
+        if (signature[0] == Integer.MAX_VALUE) {
+            return;
+        }
+        for (int band = 0; band < this.bands; band++) {
+            int[] rows = Arrays.copyOfRange(signature, band * this.rowsPerBand, (band + 1) * this.rowsPerBand);
+            this.buckets.computeIfAbsent(new BandKey(band, rows), key -> new ArrayList<>()).add(index);
+        }
+    }
+
+    /**
+     * Returns the amount of the submissions in the index.
+     *
+     * @return amount of the submissions.
+     */
+    public int size() {
+        return this.names.size();
+    }
+
+    /**
+     * Returns the pairs that share a band and whose estimated similarity reaches the threshold.
+     *
+     * @return candidate pairs.
+     */
+    public List<CandidatePair> getCandidatePairs() {
+        Set<Long> seenPairs = new HashSet<>();
+        List<CandidatePair> pairs = new ArrayList<>();
+        for (List<Integer> bucket : this.buckets.values()) {
+            for (int i = 0; i < bucket.size(); i++) {
+                for (int j = i + 1; j < bucket.size(); j++) {
+                    int first = bucket.get(i);
+                    int second = bucket.get(j);
+                    if (!seenPairs.add(((long) first << 32) | second)) {
+                        continue;
+                    }
+                    double similarity = SourceFingerprint.similarity(
+                            this.signatures.get(first),
+                            this.signatures.get(second)
+                    );
+                    if (similarity >= this.threshold) {
+                        pairs.add(new CandidatePair(this.names.get(first), this.names.get(second), similarity));
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Joins the candidate pairs into the groups of connected submissions. A group
+     * larger than the limit, e.g. a long chain of pairwise similar submissions, is
+     * split into batches: the pairs are taken from the most similar one, and a
+     * pair not yet in a common batch is added to a batch of one of its submissions
+     * if it has room, or starts a new batch. Every candidate pair ends up in at
+     * least one batch, and a submission can be in several ones.
+     *
+     * @param pairs        candidate pairs.
+     * @param maxGroupSize maximal amount of the submissions in a group, at least 2.
+     * @return groups of at least two names.
+     */
+    public static List<List<String>> getGroups(List<CandidatePair> pairs, int maxGroupSize) {
+        Map<String, String> parents = new HashMap<>();
+        for (CandidatePair pair : pairs) {
+            parents.put(findRoot(parents, pair.first()), findRoot(parents, pair.second()));
+        }
+        Map<String, List<CandidatePair>> components = new LinkedHashMap<>();
+        for (CandidatePair pair : pairs) {
+            components.computeIfAbsent(findRoot(parents, pair.first()), key -> new ArrayList<>()).add(pair);
+        }
+
+        int limit = Math.max(2, maxGroupSize);
+        List<List<String>> groups = new ArrayList<>();
+        for (List<CandidatePair> component : components.values()) {
+            Set<String> members = new LinkedHashSet<>();
+            for (CandidatePair pair : component) {
+                members.add(pair.first());
+                members.add(pair.second());
+            }
+            if (members.size() <= limit) {
+                groups.add(new ArrayList<>(members));
+            } else {
+                groups.addAll(splitIntoBatches(component, limit));
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Splits the pairs of a large group into batches that cover every pair.
+     *
+     * @param pairs        pairs of the group.
+     * @param maxBatchSize maximal amount of the submissions in a batch.
+     * @return batches.
+     */
+    private static List<List<String>> splitIntoBatches(List<CandidatePair> pairs, int maxBatchSize) {
+        List<Set<String>> batches = new ArrayList<>();
+        Map<String, List<Integer>> batchesOfMember = new HashMap<>();
+        List<CandidatePair> sortedPairs = new ArrayList<>(pairs);
+        sortedPairs.sort(Comparator.comparingDouble(CandidatePair::similarity).reversed());
+
+        for (CandidatePair pair : sortedPairs) {
+            List<Integer> firstBatches = batchesOfMember.getOrDefault(pair.first(), List.of());
+            List<Integer> secondBatches = batchesOfMember.getOrDefault(pair.second(), List.of());
+            if (!Collections.disjoint(firstBatches, secondBatches)) {
+                continue;
+            }
+            int target = -1;
+            for (List<Integer> candidates : List.of(firstBatches, secondBatches)) {
+                for (int batch : candidates) {
+                    if (target == -1 && batches.get(batch).size() < maxBatchSize) {
+                        target = batch;
+                    }
+                }
+            }
+            if (target == -1) {
+                target = batches.size();
+                batches.add(new LinkedHashSet<>());
+            }
+            for (String member : List.of(pair.first(), pair.second())) {
+                if (batches.get(target).add(member)) {
+                    batchesOfMember.computeIfAbsent(member, key -> new ArrayList<>()).add(target);
+                }
+            }
+        }
+
+        List<List<String>> result = new ArrayList<>();
+        for (Set<String> batch : batches) {
+            result.add(new ArrayList<>(batch));
+        }
+        return result;
+    }
+
+    /**
+     * Finds the representative of the group of the submission.
+     *
+     * @param parents parent of every joined submission.
+     * @param name    submission.
+     * @return representative of the group.
+     */
+    private static String findRoot(Map<String, String> parents, String name) {
+        String root = name;
+        while (parents.containsKey(root) && !parents.get(root).equals(root)) {
+            root = parents.get(root);
+        }
+        parents.put(name, root);
+        parents.putIfAbsent(root, root);
+        return root;
+    }
+
+    /**
+     * Pair of the submissions that share a band and are similar enough.
+     *
+     * @param first      name of the first submission.
+     * @param second     name of the second submission.
+     * @param similarity estimated similarity, from 0 to 1.
+     */
+    public record CandidatePair(String first, String second, double similarity) {
+    }
+
+    /**
+     * Key of a bucket: the number of the band and the values of its rows.
+     *
+     * @param band number of the band.
+     * @param rows values of the signature in the band.
+     */
+    private record BandKey(int band, int[] rows) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof BandKey key && key.band == this.band && Arrays.equals(key.rows, this.rows);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.band + Arrays.hashCode(this.rows);
+        }
+    }
+}
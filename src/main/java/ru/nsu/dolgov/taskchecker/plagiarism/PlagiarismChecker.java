@@ -1,6 +1,9 @@
 package ru.nsu.dolgov.taskchecker.plagiarism;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import de.jplag.JPlag;
+import de.jplag.JPlagComparison;
 import de.jplag.JPlagResult;
 import de.jplag.exceptions.ExitException;
 import de.jplag.java.JavaLanguage;
@@ -8,30 +11,59 @@ import de.jplag.options.JPlagOptions;
 import de.jplag.reporting.reportobject.ReportObjectFactory;
 import ru.nsu.dolgov.taskchecker.Logger;
 import ru.nsu.dolgov.taskchecker.checker.GithubAPI;
+import ru.nsu.dolgov.taskchecker.checker.RepositoryDownloads;
 import ru.nsu.dolgov.taskchecker.exceptions.NotEnoughPlagiarismCandidatesException;
+import ru.nsu.dolgov.taskchecker.git.TaskTree;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
 import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
 import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.PlagiarismCandidate;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.PlagiarismResult;
+import ru.nsu.dolgov.taskchecker.models.results.PlagiarismResult.PlagiarismPair;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.FileAlreadyExistsException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
-import static java.util.stream.Collectors.toList;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
 import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
 
 /**
- * Class that implements the plagiarism check. Uses JPlag.
+ * Class that implements the plagiarism check. Uses JPlag. Every task is
+ * a separate JPlag job that compares the submissions of this task only,
+ * and the jobs run in parallel on a bounded pool. An optional MinHash
+ * prefilter picks the likely similar submissions before JPlag runs.
  */
 public class PlagiarismChecker {
-    private final List<PlagiarismCandidate> plagiarismCandidateList;
+    private static final String STAGING_FOLDER = "staging";
+    private static final Set<String> SKIPPED_FOLDERS = Set.of("build", ".gradle", ".git", ".idea", "out");
+    private final List<Student> candidates;
+    private final List<Task> tasks;
     private final AdditionalSettings settings;
+    private final RepositoryDownloads downloads;
+    private final SignatureStore signatureStore;
+    private final List<PlagiarismResult> results = new ArrayList<>();
 
     /**
      * Constructor. Accepts configuration.
@@ -39,84 +71,529 @@ public class PlagiarismChecker {
      * @param settings app configuration.
      */
     public PlagiarismChecker(AdditionalSettings settings) {
-        this.plagiarismCandidateList = settings.plagiarismCandidateList;
+        this(settings, new RepositoryDownloads(settings));
+    }
+
+    /**
+     * Constructor. Requires the directories of the compared tasks
+     * in the repositories of the candidates.
+     *
+     * @param settings  app configuration.
+     * @param downloads downloads shared with the task checking.
+     */
+    public PlagiarismChecker(AdditionalSettings settings, RepositoryDownloads downloads) {
         this.settings = settings;
+        this.downloads = downloads;
+        this.candidates = getCandidates(settings);
+        this.tasks = getPlagiarismTasks(settings);
+        this.signatureStore = new SignatureStore(settings.plagiarismCachePath);
+        for (Student candidate : this.candidates) {
+            downloads.require(candidate, this.tasks);
+        }
     }
 
     /**
-     * Downloads repository if it is not exists.
+     * Returns the students to check. With the prefilter enabled and no sources
+     * listed, every checked student is a candidate.
+     *
+     * @param settings app configuration.
+     * @return students without duplicates.
+     */
+    private static List<Student> getCandidates(AdditionalSettings settings) {
+        Map<String, Student> students = new LinkedHashMap<>();
+        for (PlagiarismCandidate candidate : settings.plagiarismCandidateList) {
+            students.putIfAbsent(candidate.suspectedStudent.nickname, candidate.suspectedStudent);
+        }
+        if (students.isEmpty() && settings.plagiarismPrefilter) {
+            for (Student student : settings.toCheck.keySet()) {
+                students.putIfAbsent(student.nickname, student);
+            }
+        }
+        return new ArrayList<>(students.values());
+    }
+
+    /**
+     * Downloads the repositories of the candidates, or waits for them if
+     * they are already being downloaded by the task checking.
      */
     private void downloadRepositoryIfNotExists() {
-        for (PlagiarismCandidate plagiarismCandidateObject : this.plagiarismCandidateList) {
+        for (Student candidate : this.candidates) {
             GithubAPI githubAPI = new GithubAPI(
                     settings.repositoriesPath,
-                    plagiarismCandidateObject.suspectedStudent,
+                    candidate,
                     this.settings
             );
-            githubAPI.downloadRepository();
+            this.downloads.download(candidate, githubAPI);
+        }
+    }
+
+    /**
+     * Returns the nicknames of the students which repositories are compared.
+     *
+     * @return nicknames of the candidates.
+     */
+    public List<String> getCandidateNicknames() {
+        return this.candidates.stream().map(candidate -> candidate.nickname).toList();
+    }
+
+    /**
+     * Returns the tasks to compare. If they are not configured,
+     * all the tasks that are checked are compared.
+     *
+     * @param settings app configuration.
+     * @return tasks without duplicates.
+     */
+    private static List<Task> getPlagiarismTasks(AdditionalSettings settings) {
+        Map<String, Task> tasks = new LinkedHashMap<>();
+        List<Task> configuredTasks = settings.plagiarismTasks;
+        if (configuredTasks.isEmpty()) {
+            configuredTasks = settings.toCheck.values().stream().flatMap(List::stream).toList();
+        }
+        for (Task task : configuredTasks) {
+            tasks.putIfAbsent(task.id, task);
         }
+        return new ArrayList<>(tasks.values());
     }
 
     /**
-     * Checks provided students for plagiarism and makes a report.
+     * Checks provided students for plagiarism and makes a report for every task
+     * and a summary of all of them.
      *
-     * @return String, report file path.
+     * @return String, summary file path.
      * @throws NotEnoughPlagiarismCandidatesException is thrown when less than 2 students provided.
-     * @throws IOException                            is thrown when unable to run JPlag.
-     * @throws ExitException                          is thrown by JPlag.
+     * @throws IOException                            is thrown when unable to create the reports.
      */
     public String checkForPlagiarism() throws
             NotEnoughPlagiarismCandidatesException,
-            IOException,
-            ExitException {
-        if (this.plagiarismCandidateList.size() >= 2) {
-            this.downloadRepositoryIfNotExists();
-            List<File> submissionDirectoriesList = this.plagiarismCandidateList.stream().map(
-                    plagiarismCandidateObject -> new File(
-                            "./" + this.settings.repositoriesPath + "/" +
-                                    plagiarismCandidateObject.suspectedStudent.nickname
+            IOException {
+        if (this.candidates.size() < 2) {
+            throw new NotEnoughPlagiarismCandidatesException(
+                    String.format(
+                            "Not enough plagiarism candidates provided: %s. Minimal amount is 2.",
+                            this.candidates.size()
                     )
-            ).collect(toList());
-            File baseCode = submissionDirectoriesList.getFirst();
-            submissionDirectoriesList.removeFirst();
-            Set<File> submissionDirectories = Set.copyOf(submissionDirectoriesList);
-
-            JavaLanguage language = new JavaLanguage();
-            JPlagOptions options = new JPlagOptions(
-                    language,
-                    submissionDirectories,
-                    Set.of(baseCode)
             );
+        }
 
-            JPlagResult result = JPlag.run(options);
-            String reportFilename = "./" + this.settings.plagiarismReportFolder +
-                    "/" + LocalDateTime.now().format(
-                    DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss")
-            ) + "_plagiarism_report.zip";
-            Path path = Paths.get(reportFilename);
+        List<Task> tasks = this.tasks;
+        this.downloadRepositoryIfNotExists();
+        Path reportFolder = Paths.get(
+                ".",
+                this.settings.plagiarismReportFolder,
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH-mm-ss"))
+        );
+        Files.createDirectories(reportFolder);
 
-            Files.createDirectories(path.getParent());
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(this.settings.plagiarismThreads, tasks.size()))
+        );
+        List<Future<PlagiarismResult>> futures = new ArrayList<>();
+        for (Task task : tasks) {
+            futures.add(executor.submit(() -> this.checkTask(task, reportFolder)));
+        }
+        try {
+            for (Future<PlagiarismResult> future : futures) {
+                try {
+                    this.results.add(future.get());
+                } catch (ExecutionException e) {
+                    Logger.log(ERROR, "Error when checking for plagiarism: " + e.getCause(), "PLAGIARISM SERVICE");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.log(ERROR, "Interrupted when checking for plagiarism", "PLAGIARISM SERVICE");
+        } finally {
+            executor.shutdownNow();
+        }
+        deleteRecursively(reportFolder.resolve(STAGING_FOLDER));
+        if (this.settings.plagiarismPrefilter) {
+            Logger.log(
+                    INFO,
+                    String.format(
+                            "Signatures: %d reused, %d computed",
+                            this.signatureStore.getHits(),
+                            this.signatureStore.getMisses()
+                    ),
+                    "PLAGIARISM SERVICE"
+            );
+        }
 
+        Path summaryPath = reportFolder.resolve("summary.json");
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try (Writer writer = Files.newBufferedWriter(summaryPath, StandardCharsets.UTF_8)) {
+            gson.toJson(this.results, writer);
+        }
+        return summaryPath.toString();
+    }
+
+    /**
+     * Returns the results of the last check, one per task.
+     *
+     * @return list of the results.
+     */
+    public List<PlagiarismResult> getResults() {
+        return this.results;
+    }
+
+    /**
+     * Runs JPlag over the submissions of a single task and saves its reports.
+     * With the prefilter, JPlag only compares the groups of the submissions
+     * connected by the candidate pairs, one report per group. The pairs of
+     * the unchanged submissions are taken from the similarity store, and
+     * only the changed ones are compared, with the others as old submissions.
+     *
+     * @param task         task to check.
+     * @param reportFolder folder of the reports of this run.
+     * @return result of the check, with an error if it failed.
+     */
+    private PlagiarismResult checkTask(Task task, Path reportFolder) {
+        long start = System.nanoTime();
+        PlagiarismResult result = new PlagiarismResult();
+        result.taskId = task.id;
+        Path staging = reportFolder.resolve(STAGING_FOLDER).resolve(task.id);
+        try {
+            Map<String, List<Path>> sources = this.collectSources(task);
+            result.submissions = sources.size();
+            if (result.submissions < 2) {
+                result.error = "Not enough submissions: " + result.submissions;
+                Logger.log(WARNING, "Skipped " + task.id + ": " + result.error, "PLAGIARISM SERVICE");
+                return result;
+            }
+            Map<String, String> treeIds = new HashMap<>();
+            for (String nickname : sources.keySet()) {
+                treeIds.put(nickname, TaskTree.getTreeId(new File(this.settings.repositoriesPath, nickname), task.id));
+            }
+            SimilarityStore store = this.openSimilarityStore(task);
+            Map<String, PlagiarismPair> comparedPairs = new HashMap<>();
+
+            long prefilterStart = System.nanoTime();
+            List<List<String>> groups = this.settings.plagiarismPrefilter ?
+                    this.getSimilarGroups(sources, treeIds, result) :
+                    List.of(new ArrayList<>(sources.keySet()));
+            if (this.settings.plagiarismPrefilter) {
+                MetricsRegistry.getInstance().recordSince("plagiarism_prefilter", null, task.id, prefilterStart);
+            }
+            for (int i = 0; i < groups.size(); i++) {
+                List<String> group = groups.get(i);
+                Set<String> changed = getChangedSubmissions(group, treeIds, store);
+                if (changed.isEmpty()) {
+                    continue;
+                }
+                Path newSubmissions = staging.resolve(String.valueOf(i)).resolve("new");
+                Path oldSubmissions = staging.resolve(String.valueOf(i)).resolve("old");
+                for (String nickname : group) {
+                    this.stage(
+                            task,
+                            nickname,
+                            sources.get(nickname),
+                            changed.contains(nickname) ? newSubmissions : oldSubmissions
+                    );
+                }
+
+                JPlagOptions options = new JPlagOptions(
+                        new JavaLanguage(),
+                        Set.of(newSubmissions.toFile()),
+                        changed.size() == group.size() ? Set.of() : Set.of(oldSubmissions.toFile())
+                );
+                long jplagStart = System.nanoTime();
+                JPlagResult jPlagResult = JPlag.run(options);
+                MetricsRegistry.getInstance().recordSince("jplag", null, task.id, jplagStart);
+                Path reportPath = reportFolder.resolve(
+                        groups.size() == 1 ? task.id + ".zip" : task.id + "-" + (i + 1) + ".zip"
+                );
+                new ReportObjectFactory(reportPath.toFile()).createAndSaveReport(jPlagResult);
+                result.reportPaths.add(reportPath.toString());
+
+                for (JPlagComparison comparison : jPlagResult.getAllComparisons()) {
+                    PlagiarismPair pair = toPair(comparison);
+                    comparedPairs.put(getPairKey(pair.firstStudent, pair.secondStudent), pair);
+                    store.put(
+                            treeIds.get(pair.firstStudent),
+                            treeIds.get(pair.secondStudent),
+                            pair.similarity,
+                            pair.maximalSimilarity
+                    );
+                }
+            }
+            result.comparisons = comparedPairs.size();
+
+            store.retain(treeIds.values());
+            store.save();
+            List<PlagiarismPair> pairs = getKnownPairs(groups, treeIds, store, comparedPairs);
+            result.reusedPairs = pairs.size() - result.comparisons;
+            pairs.stream()
+                    .sorted(Comparator.comparingDouble((PlagiarismPair pair) -> pair.similarity).reversed())
+                    .limit(this.settings.plagiarismTopPairs)
+                    .forEach(result.topPairs::add);
+        } catch (IOException | ExitException e) {
+            result.error = e.getMessage();
+            Logger.log(ERROR, "Error when checking " + task.id + " for plagiarism!", "PLAGIARISM SERVICE");
+        } finally {
+            result.durationMillis = (System.nanoTime() - start) / 1_000_000;
+            MetricsRegistry.getInstance().recordSince("plagiarism_task", null, task.id, start);
             try {
-                Files.createFile(path);
-            } catch (FileAlreadyExistsException e) {
-                Logger.log(INFO, "Directory for the plagiarism report already exists. Skipping creation...", "PLAGIARISM SERVICE");
+                deleteRecursively(staging);
+            } catch (IOException e) {
+                Logger.log(WARNING, "Cant delete " + staging, "PLAGIARISM SERVICE");
             }
+        }
 
-            File reportFile = new File(reportFilename);
-            ReportObjectFactory reportObjectFactory = new ReportObjectFactory(
-                    reportFile
-            );
-            reportObjectFactory.createAndSaveReport(result);
+        Logger.log(
+                INFO,
+                String.format(
+                        "Checked %s: %d submissions, %d comparisons, %d pairs reused in %d ms",
+                        task.id,
+                        result.submissions,
+                        result.comparisons,
+                        result.reusedPairs,
+                        result.durationMillis
+                ),
+                "PLAGIARISM SERVICE"
+        );
+        return result;
+    }
 
-            return reportFilename;
-        } else {
-            throw new NotEnoughPlagiarismCandidatesException(
-                    String.format(
-                            "Not enough plagiarism candidates provided: %s. Minimal amount is 2.",
-                            this.plagiarismCandidateList.size()
-                    )
-            );
+    /**
+     * Opens the similarity store of the task, a broken store is started anew.
+     *
+     * @param task task of the store.
+     * @return store.
+     * @throws IOException is thrown when the store cant be read even after deleting it.
+     */
+    private SimilarityStore openSimilarityStore(Task task) throws IOException {
+        try {
+            return new SimilarityStore(this.settings.plagiarismCachePath, task.id);
+        } catch (IOException e) {
+            Logger.log(WARNING, e.getMessage() + ", comparing all the pairs again", "PLAGIARISM SERVICE");
+            Files.deleteIfExists(Paths.get(this.settings.plagiarismCachePath, "similarity", task.id + ".bin"));
+            return new SimilarityStore(this.settings.plagiarismCachePath, task.id);
+        }
+    }
+
+    /**
+     * Picks the submissions that must be compared again, so that every pair
+     * of the group missing in the store has at least one changed submission.
+     *
+     * @param group   nicknames of the group.
+     * @param treeIds tree ids by the nickname.
+     * @param store   similarity store of the task.
+     * @return nicknames of the changed submissions.
+     */
+    private static Set<String> getChangedSubmissions(
+            List<String> group,
+            Map<String, String> treeIds,
+            SimilarityStore store
+    ) {
+        Set<String> changed = new HashSet<>();
+        for (int i = 0; i < group.size(); i++) {
+            for (int j = i + 1; j < group.size(); j++) {
+                String first = group.get(i);
+                String second = group.get(j);
+                if (changed.contains(first) || changed.contains(second)) {
+                    continue;
+                }
+                if (store.get(treeIds.get(first), treeIds.get(second)) == null) {
+                    changed.add(treeIds.get(first) == null ? first : second);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Collects the similarity of every pair of every group, either compared
+     * during this run or taken from the store. A pair of the submissions
+     * that are in several groups is reported once.
+     *
+     * @param groups        groups of the nicknames.
+     * @param treeIds       tree ids by the nickname.
+     * @param store         similarity store of the task.
+     * @param comparedPairs pairs compared during this run.
+     * @return known pairs.
+     */
+    private static List<PlagiarismPair> getKnownPairs(
+            List<List<String>> groups,
+            Map<String, String> treeIds,
+            SimilarityStore store,
+            Map<String, PlagiarismPair> comparedPairs
+    ) {
+        Map<String, PlagiarismPair> pairs = new LinkedHashMap<>();
+        for (List<String> group : groups) {
+            for (int i = 0; i < group.size(); i++) {
+                for (int j = i + 1; j < group.size(); j++) {
+                    String first = group.get(i);
+                    String second = group.get(j);
+                    PlagiarismPair pair = comparedPairs.get(getPairKey(first, second));
+                    float[] similarity = store.get(treeIds.get(first), treeIds.get(second));
+                    if (pair == null && similarity != null) {
+                        pair = new PlagiarismPair();
+                        pair.firstStudent = first;
+                        pair.secondStudent = second;
+                        pair.similarity = (double) similarity[0];
+                        pair.maximalSimilarity = (double) similarity[1];
+                    }
+                    if (pair != null) {
+                        pairs.putIfAbsent(getPairKey(first, second), pair);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(pairs.values());
+    }
+
+    /**
+     * Returns the key of an unordered pair of the nicknames.
+     *
+     * @param first  nickname.
+     * @param second nickname.
+     * @return key.
+     */
+    private static String getPairKey(String first, String second) {
+        return first.compareTo(second) <= 0 ? first + "/" + second : second + "/" + first;
+    }
+
+    /**
+     * Copies the sources of the submission into root/nickname.
+     *
+     * @param task     task of the submission.
+     * @param nickname nickname of the student.
+     * @param files    source files of the submission.
+     * @param root     root folder of the submissions.
+     * @throws IOException is thrown when a file cant be copied.
+     */
+    private void stage(Task task, String nickname, List<Path> files, Path root) throws IOException {
+        Path source = Paths.get(this.settings.repositoriesPath, nickname, task.id);
+        for (Path file : files) {
+            Path copy = root.resolve(nickname).resolve(source.relativize(file).toString());
+            Files.createDirectories(copy.getParent());
+            Files.copy(file, copy);
+        }
+    }
+
+    /**
+     * Finds the Java sources of the task of every candidate.
+     *
+     * @param task task to find.
+     * @return source files by the nickname, only for the submissions with at least one file.
+     * @throws IOException is thrown when a folder cant be read.
+     */
+    private Map<String, List<Path>> collectSources(Task task) throws IOException {
+        Map<String, List<Path>> sources = new LinkedHashMap<>();
+        for (Student candidate : this.candidates) {
+            Path source = Paths.get(this.settings.repositoriesPath, candidate.nickname, task.id);
+            if (!Files.isDirectory(source)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.walk(source)) {
+                List<Path> javaFiles = files
+                        .filter(PlagiarismChecker::isSource)
+                        .filter(file -> !isSkipped(source.relativize(file)))
+                        .sorted()
+                        .toList();
+                if (!javaFiles.isEmpty()) {
+                    sources.put(candidate.nickname, javaFiles);
+                }
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * Fingerprints the submissions, finds the candidate pairs with LSH
+     * and joins them into the groups of connected submissions. Groups
+     * larger than plagiarismMaxGroupSize are split into batches.
+     *
+     * @param sources source files by the nickname.
+     * @param treeIds tree ids by the nickname.
+     * @param result  result where the amounts of the pairs are written.
+     * @return groups of at least two nicknames.
+     * @throws IOException is thrown when a source cant be read.
+     */
+    private List<List<String>> getSimilarGroups(
+            Map<String, List<Path>> sources,
+            Map<String, String> treeIds,
+            PlagiarismResult result
+    ) throws IOException {
+        LshIndex index = new LshIndex(this.settings.plagiarismThreshold);
+        for (Map.Entry<String, List<Path>> entry : sources.entrySet()) {
+            String treeId = treeIds.get(entry.getKey());
+            int[] signature = this.signatureStore.get(treeId);
+            if (signature == null) {
+                signature = SourceFingerprint.compute(entry.getValue());
+                this.signatureStore.put(treeId, signature);
+            }
+            index.add(entry.getKey(), signature);
+        }
+
+        List<LshIndex.CandidatePair> pairs = index.getCandidatePairs();
+        result.screenedPairs = index.size() * (index.size() - 1) / 2;
+        result.candidatePairs = pairs.size();
+        List<List<String>> groups = LshIndex.getGroups(pairs, this.settings.plagiarismMaxGroupSize);
+        Logger.log(
+                INFO,
+                String.format(
+                        "%d candidate pairs of %d submissions (%d bands of %d rows) in %d groups",
+                        pairs.size(), index.size(), index.getBands(), index.getRowsPerBand(), groups.size()
+                ),
+                "PLAGIARISM SERVICE"
+        );
+        return groups;
+    }
+
+    /**
+     * Checks whether the file is a Java source.
+     *
+     * @param file file of the repository.
+     * @return true for a regular .java file.
+     */
+    private static boolean isSource(Path file) {
+        return file.getFileName().toString().endsWith(".java") && Files.isRegularFile(file);
+    }
+
+    /**
+     * Checks whether the file is inside a build or an IDE folder.
+     *
+     * @param relative path relative to the task folder.
+     * @return true if the file is not a part of the submission.
+     */
+    private static boolean isSkipped(Path relative) {
+        for (Path part : relative) {
+            if (SKIPPED_FOLDERS.contains(part.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Converts the comparison of JPlag.
+     *
+     * @param comparison comparison of two submissions.
+     * @return pair of the students.
+     */
+    private static PlagiarismPair toPair(JPlagComparison comparison) {
+        PlagiarismPair pair = new PlagiarismPair();
+        pair.firstStudent = comparison.firstSubmission().getName();
+        pair.secondStudent = comparison.secondSubmission().getName();
+        pair.similarity = comparison.similarity();
+        pair.maximalSimilarity = comparison.maximalSimilarity();
+        return pair;
+    }
+
+    /**
+     * Deletes the directory with all its content.
+     *
+     * @param directory directory to delete.
+     * @throws IOException is thrown when a file cant be deleted.
+     */
+    private static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
         }
     }
 }
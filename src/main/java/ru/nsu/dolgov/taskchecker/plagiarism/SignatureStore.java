@@ -0,0 +1,101 @@
+package ru.nsu.dolgov.taskchecker.plagiarism;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import ru.nsu.dolgov.taskchecker.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.WARNING;
+
+/**
+ * Persistent store of the MinHash signatures. A signature is keyed by the
+ * git tree id of the task directory, so only the changed submissions are
+ * fingerprinted again.
+ */
+public class SignatureStore {
+    private final Path storePath;
+    private final Gson gson = new Gson();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param cachePath folder where the signatures are stored.
+     */
+    public SignatureStore(String cachePath) {
+        this.storePath = Paths.get(cachePath, "signatures-v" + SourceFingerprint.FINGERPRINT_VERSION);
+    }
+
+    /**
+     * Returns the stored signature.
+     *
+     * @param treeId tree id of the task directory, null if it is unknown.
+     * @return signature or null on a miss.
+     */
+    public int[] get(String treeId) {
+        if (treeId == null) {
+            this.misses.incrementAndGet();
+            return null;
+        }
+        Path entry = this.storePath.resolve(treeId + ".json");
+        if (Files.exists(entry)) {
+            try {
+                int[] signature = this.gson.fromJson(Files.readString(entry), int[].class);
+                if (signature != null && signature.length == SourceFingerprint.SIGNATURE_SIZE) {
+                    this.hits.incrementAndGet();
+                    return signature;
+                }
+            } catch (IOException | JsonParseException e) {
+                Logger.log(WARNING, "Broken signature " + entry + ", computing again", "PLAGIARISM SERVICE");
+            }
+        }
+        this.misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the signature.
+     *
+     * @param treeId    tree id of the task directory, null if it is unknown.
+     * @param signature signature of the submission.
+     */
+    public void put(String treeId, int[] signature) {
+        if (treeId == null) {
+            return;
+        }
+        Path entry = this.storePath.resolve(treeId + ".json");
+        try {
+            Files.createDirectories(this.storePath);
+            Path temporary = Files.createTempFile(this.storePath, treeId, ".tmp");
+            Files.writeString(temporary, this.gson.toJson(signature));
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Logger.log(WARNING, "Unable to store the signature", "PLAGIARISM SERVICE");
+        }
+    }
+
+    /**
+     * Returns the amount of the signatures read from the store.
+     *
+     * @return hits of the store.
+     */
+    public int getHits() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the amount of the signatures that were computed.
+     *
+     * @return misses of the store.
+     */
+    public int getMisses() {
+        return this.misses.get();
+    }
+}
@@ -0,0 +1,158 @@
+package ru.nsu.dolgov.taskchecker.plagiarism;
+
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persistent sparse list of the compared pairs of a single task. A pair is
+ * keyed by the git tree ids of both submissions, so the similarity of two
+ * unchanged submissions is never computed again. The file holds the raw
+ * 20 byte ids and two floats per pair.
+ */
+public class SimilarityStore {
+    private static final int FORMAT_VERSION = 1;
+    private final Path storePath;
+    private final Map<PairKey, float[]> pairs = new HashMap<>();
+
+    /**
+     * Constructor. Reads the pairs of the task if they were stored.
+     *
+     * @param cachePath folder where the pairs are stored.
+     * @param taskId    id of the task.
+     * @throws IOException is thrown when the store is broken or cant be read.
+     */
+    public SimilarityStore(String cachePath, String taskId) throws IOException {
+        this.storePath = Paths.get(cachePath, "similarity", taskId + ".bin");
+        if (!Files.exists(this.storePath)) {
+            return;
+        }
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(this.storePath)
+        ))) {
+            if (input.readInt() != FORMAT_VERSION) {
+                return;
+            }
+            int size = input.readInt();
+            byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+            for (int i = 0; i < size; i++) {
+                input.readFully(raw);
+                String first = ObjectId.fromRaw(raw).name();
+                input.readFully(raw);
+                String second = ObjectId.fromRaw(raw).name();
+                this.pairs.put(new PairKey(first, second), new float[]{input.readFloat(), input.readFloat()});
+            }
+        } catch (EOFException | IllegalArgumentException e) {
+            this.pairs.clear();
+            throw new IOException("Broken similarity store " + this.storePath, e);
+        }
+    }
+
+    /**
+     * Returns the similarity of two submissions.
+     *
+     * @param first  tree id of the first submission.
+     * @param second tree id of the second submission.
+     * @return similarity and maximal similarity, or null if the pair was not compared.
+     */
+    public float[] get(String first, String second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        return this.pairs.get(PairKey.of(first, second));
+    }
+
+    /**
+     * Stores the similarity of two submissions.
+     *
+     * @param first             tree id of the first submission.
+     * @param second            tree id of the second submission.
+     * @param similarity        average similarity.
+     * @param maximalSimilarity maximal similarity.
+     */
+    public void put(String first, String second, double similarity, double maximalSimilarity) {
+        if (first == null || second == null) {
+            return;
+        }
+        this.pairs.put(PairKey.of(first, second), new float[]{(float) similarity, (float) maximalSimilarity});
+    }
+
+    /**
+     * Removes the pairs of the submissions that are not current anymore.
+     *
+     * @param treeIds tree ids of the current submissions.
+     */
+    public void retain(Collection<String> treeIds) {
+        Set<String> current = new HashSet<>(treeIds);
+        this.pairs.keySet().removeIf(key -> !current.contains(key.first) || !current.contains(key.second));
+    }
+
+    /**
+     * Returns the amount of the stored pairs.
+     *
+     * @return amount of the pairs.
+     */
+    public int size() {
+        return this.pairs.size();
+    }
+
+    /**
+     * Writes the pairs to a temporary file and moves it over the store.
+     *
+     * @throws IOException is thrown when the store cant be written.
+     */
+    public void save() throws IOException {
+        Files.createDirectories(this.storePath.getParent());
+        Path temporary = Files.createTempFile(this.storePath.getParent(), "similarity", ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temporary)
+        ))) {
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(this.pairs.size());
+            byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+            for (Map.Entry<PairKey, float[]> entry : this.pairs.entrySet()) {
+                ObjectId.fromString(entry.getKey().first).copyRawTo(raw, 0);
+                output.write(raw);
+                ObjectId.fromString(entry.getKey().second).copyRawTo(raw, 0);
+                output.write(raw);
+                output.writeFloat(entry.getValue()[0]);
+                output.writeFloat(entry.getValue()[1]);
+            }
+        }
+        Files.move(temporary, this.storePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Unordered pair of tree ids, the smaller id is always the first.
+     *
+     * @param first  smaller tree id.
+     * @param second greater tree id.
+     */
+    private record PairKey(String first, String second) {
+        /**
+         * Creates the key regardless of the order of the ids.
+         *
+         * @param first  tree id.
+         * @param second tree id.
+         * @return key.
+         */
+        private static PairKey of(String first, String second) {
+            return first.compareTo(second) <= 0 ? new PairKey(first, second) : new PairKey(second, first);
+        }
+    }
+}
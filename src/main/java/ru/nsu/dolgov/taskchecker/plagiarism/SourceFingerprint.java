@@ -0,0 +1,190 @@
+package ru.nsu.dolgov.taskchecker.plagiarism;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * MinHash signature of the Java sources of a submission. The sources are
+ * tokenized with the identifiers and the literals normalized, so renaming
+ * does not hide a copy, and every shingle of consecutive tokens is hashed.
+ * The share of equal positions of two signatures estimates the Jaccard
+ * similarity of their shingle sets.
+ */
+public class SourceFingerprint {
+    /**
+     * Must be changed whenever the tokens, the shingles or the hashes change.
+     */
+    public static final String FINGERPRINT_VERSION = "1";
+    public static final int SIGNATURE_SIZE = 128;
+    private static final int SHINGLE_SIZE = 5;
+    private static final long[] SEEDS = createSeeds();
+    private static final Set<String> KEYWORDS = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile", "while", "var", "record", "yield", "true", "false", "null"
+    );
+
+    private SourceFingerprint() {
+    }
+
+    /**
+     * Computes the signature of the source files.
+     *
+     * @param files Java source files of the submission.
+     * @return signature, all values are Integer.MAX_VALUE if there are no shingles.
+     * @throws IOException is thrown when a file cant be read.
+     */
+    public static int[] compute(List<Path> files) throws IOException {
+        int[] signature = new int[SIGNATURE_SIZE];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (Path file : files) {
+            int[] tokens = tokenize(Files.readString(file, StandardCharsets.UTF_8));
+            for (int start = 0; start + SHINGLE_SIZE <= tokens.length; start++) {
+                long shingle = 0;
+                for (int i = start; i < start + SHINGLE_SIZE; i++) {
+                    shingle = shingle * 31 + tokens[i];
+                }
+                for (int i = 0; i < SIGNATURE_SIZE; i++) {
+                    int hash = (int) (mix(shingle ^ SEEDS[i]) >>> 33);
+                    if (hash < signature[i]) {
+                        signature[i] = hash;
+                    }
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimates the Jaccard similarity of two submissions.
+     *
+     * @param first  signature of the first submission.
+     * @param second signature of the second submission.
+     * @return share of the equal positions, from 0 to 1.
+     */
+    public static double similarity(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (first[i] == second[i] && first[i] != Integer.MAX_VALUE) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    /**
+     * Splits the source into tokens. Comments and whitespace are dropped,
+     * identifiers, numbers and string literals are replaced by their kind.
+     *
+     * @param source text of a Java file.
+     * @return hashes of the tokens.
+     */
+    static int[] tokenize(String source) {
+        List<String> tokens = new ArrayList<>();
+        int length = source.length();
+        int position = 0;
+        while (position < length) {
+            char current = source.charAt(position);
+            char next = position + 1 < length ? source.charAt(position + 1) : '\0';
+            if (Character.isWhitespace(current)) {
+                position++;
+            } else if (current == '/' && next == '/') {
+                while (position < length && source.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (current == '/' && next == '*') {
+                int end = source.indexOf("*/", position + 2);
+                position = end < 0 ? length : end + 2;
+            } else if (current == '"' || current == '\'') {
+                position = skipLiteral(source, position, current);
+                tokens.add("S");
+            } else if (Character.isDigit(current)) {
+                while (position < length &&
+                        (Character.isLetterOrDigit(source.charAt(position)) || source.charAt(position) == '.' ||
+                                source.charAt(position) == '_')) {
+                    position++;
+                }
+                tokens.add("N");
+            } else if (Character.isJavaIdentifierStart(current)) {
+                int start = position;
+                while (position < length && Character.isJavaIdentifierPart(source.charAt(position))) {
+                    position++;
+                }
+                String word = source.substring(start, position);
+                tokens.add(KEYWORDS.contains(word) ? word : "I");
+            } else {
+                tokens.add(String.valueOf(current));
+                position++;
+            }
+        }
+
+        int[] hashes = new int[tokens.size()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = tokens.get(i).hashCode();
+        }
+        return hashes;
+    }
+
+    /**
+     * Skips a string, a text block or a char literal.
+     *
+     * @param source   text of a Java file.
+     * @param position position of the opening quote.
+     * @param quote    opening quote.
+     * @return position after the closing quote.
+     */
+    private static int skipLiteral(String source, int position, char quote) {
+        if (quote == '"' && source.startsWith("\"\"\"", position)) {
+            int end = source.indexOf("\"\"\"", position + 3);
+            return end < 0 ? source.length() : end + 3;
+        }
+        position++;
+        while (position < source.length()) {
+            char current = source.charAt(position);
+            if (current == '\\') {
+                position += 2;
+            } else if (current == quote || current == '\n') {
+                return position + 1;
+            } else {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Mixes the bits of the value, the finalizer of SplitMix64.
+     *
+     * @param value value to mix.
+     * @return mixed value.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Creates the fixed seeds of the hash functions, so signatures of different runs are comparable.
+     *
+     * @return one seed per position of the signature.
+     */
+    private static long[] createSeeds() {
+        long[] seeds = new long[SIGNATURE_SIZE];
+        long state = 0x5DEECE66DL;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            state += 0x9e3779b97f4a7c15L;
+            seeds[i] = mix(state);
+        }
+        return seeds;
+    }
+}
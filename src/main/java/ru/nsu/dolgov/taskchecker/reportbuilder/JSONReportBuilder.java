@@ -2,21 +2,41 @@ package ru.nsu.dolgov.taskchecker.reportbuilder;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
 import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.metrics.MetricsRegistry;
 import ru.nsu.dolgov.taskchecker.models.core.JSONReportObject;
 
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
 
 import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
 
 /**
- * Class that is used to make a JSON output of the app.
+ * Class that is used to make a JSON output of the app. The report is
+ * streamed to the file, so it is never held in memory as a whole.
  */
 public class JSONReportBuilder {
+    private static final String REPORT_NAME = "task-checker-report.json";
+    private static final int BUFFER_SIZE = 64 * 1024;
     private final String path;
+    private final boolean prettyPrint;
+    private final boolean gzip;
+    private final Gson gson = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter())
+            .create();
 
     /**
      * Constructor, accepts the path where to save the report.
@@ -24,7 +44,20 @@ public class JSONReportBuilder {
      * @param path path where to save the report.
      */
     public JSONReportBuilder(String path) {
+        this(path, true, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param path        path where to save the report.
+     * @param prettyPrint true to indent the report, false to write it compact.
+     * @param gzip        true to compress the report.
+     */
+    public JSONReportBuilder(String path, boolean prettyPrint, boolean gzip) {
         this.path = path;
+        this.prettyPrint = prettyPrint;
+        this.gzip = gzip;
     }
 
     /**
@@ -33,17 +66,85 @@ public class JSONReportBuilder {
      * @param payload JSONReportObject with the data.
      */
     public void serialize(JSONReportObject payload) {
-        GsonBuilder gsonBuilder = new GsonBuilder();
-        gsonBuilder.registerTypeAdapter(LocalDate.class, new LocalDateTypeAdapter());
-        Gson gson = gsonBuilder.setPrettyPrinting().create();
-
-        String jsonString = gson.toJson(payload);
-        try (Writer writer = new FileWriter(this.path + "task-checker-report.json")) {
-            writer.write(jsonString);
+        Path reportPath = Paths.get(this.path + REPORT_NAME + (this.gzip ? ".gz" : ""));
+        long start = System.nanoTime();
+        try (OutputStream outputStream = Files.newOutputStream(reportPath)) {
+            this.write(payload, outputStream);
+            MetricsRegistry.getInstance().recordSince("report_serialize", null, null, start);
+            Logger.log(
+                    INFO,
+                    String.format(
+                            "Wrote %s: %d bytes in %d ms",
+                            reportPath,
+                            Files.size(reportPath),
+                            (System.nanoTime() - start) / 1_000_000
+                    ),
+                    "JSON BUILDER"
+            );
         } catch (IOException e) {
             Logger.log(ERROR, "Error when creating json report!", "JSON BUILDER");
         }
     }
-}
 
+    /**
+     * Streams the report. Every field of the payload is written as soon as
+     * it is serialized, and the lists are written element by element.
+     *
+     * @param payload      JSONReportObject with the data.
+     * @param outputStream stream the report is written to, it is not closed.
+     * @throws IOException is thrown when the stream cant be written.
+     */
+    public void write(JSONReportObject payload, OutputStream outputStream) throws IOException {
+        OutputStream target = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+        GZIPOutputStream gzipStream = null;
+        if (this.gzip) {
+            gzipStream = new GZIPOutputStream(target, BUFFER_SIZE);
+            target = gzipStream;
+        }
+
+        JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(target, StandardCharsets.UTF_8),
+                BUFFER_SIZE
+        ));
+        if (this.prettyPrint) {
+            writer.setIndent("  ");
+        }
+        writer.beginObject();
+        for (Field field : JSONReportObject.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                continue;
+            }
+            Object value;
+            try {
+                value = field.get(payload);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            if (value == null) {
+                continue;
+            }
 
+            writer.name(field.getName());
+            if (value instanceof Iterable<?> iterable) {
+                writer.beginArray();
+                for (Object element : iterable) {
+                    if (element == null) {
+                        writer.nullValue();
+                    } else {
+                        this.gson.toJson(element, element.getClass(), writer);
+                    }
+                }
+                writer.endArray();
+            } else {
+                this.gson.toJson(value, field.getGenericType(), writer);
+            }
+        }
+        writer.endObject();
+        writer.flush();
+
+        if (gzipStream != null) {
+            gzipStream.finish();
+        }
+        target.flush();
+    }
+}
@@ -0,0 +1,25 @@
+package ru.nsu.dolgov.taskchecker.scheduler;
+
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+
+/**
+ * Class used to describe a single unit of work: one task of one student.
+ */
+public class CheckUnit {
+    public final StudentWithTasks studentWithTasks;
+    public final Task task;
+    public final int taskIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param studentWithTasks student and the list of his tasks.
+     * @param taskIndex        index of the task in the student's task list.
+     */
+    public CheckUnit(StudentWithTasks studentWithTasks, int taskIndex) {
+        this.studentWithTasks = studentWithTasks;
+        this.task = studentWithTasks.tasks.get(taskIndex);
+        this.taskIndex = taskIndex;
+    }
+}
@@ -0,0 +1,16 @@
+package ru.nsu.dolgov.taskchecker.scheduler;
+
+/**
+ * Handler that is called by the scheduler for every unit of work.
+ */
+@FunctionalInterface
+public interface CheckUnitHandler {
+    /**
+     * Processes a single unit.
+     *
+     * @param unit       unit to process.
+     * @param workerName name of the worker used to achieve appropriate logging.
+     * @throws Exception is thrown when the unit can not be processed.
+     */
+    void handle(CheckUnit unit, String workerName) throws Exception;
+}
@@ -0,0 +1,307 @@
+package ru.nsu.dolgov.taskchecker.scheduler;
+
+import ru.nsu.dolgov.taskchecker.Logger;
+import ru.nsu.dolgov.taskchecker.models.results.SchedulerStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.SchedulerStatistics.WorkerStatistics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.ERROR;
+import static ru.nsu.dolgov.taskchecker.Logger.LogLevel.INFO;
+
+/**
+ * Work-stealing scheduler which unit of work is a single (student, task) pair.
+ * All units of a student are put to the same worker so his repository and
+ * Gradle daemon are reused. The queues hold the units of a student as one
+ * element, so idle workers steal whole students from the tail of the other
+ * workers' queues and a student is never split between two workers.
+ */
+public class WorkStealingScheduler {
+    private static final long IDLE_WAIT_MILLIS = 100;
+    private final int workersQuantity;
+    private final List<ConcurrentLinkedDeque<List<CheckUnit>>> queues = new ArrayList<>();
+    private final AtomicInteger[] pendingUnits;
+    private final AtomicInteger totalUnits = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = this.lock.newCondition();
+    private final List<Future<?>> futures = new ArrayList<>();
+    private ExecutorService threadPool;
+    private WorkerStatistics[] workerStatistics;
+    private long startTime;
+    private volatile boolean closed = false;
+
+    /**
+     * Constructor.
+     *
+     * @param workersQuantity amount of the workers.
+     */
+    public WorkStealingScheduler(int workersQuantity) {
+        this.workersQuantity = workersQuantity;
+        this.pendingUnits = new AtomicInteger[workersQuantity];
+        for (int i = 0; i < workersQuantity; i++) {
+            this.queues.add(new ConcurrentLinkedDeque<>());
+            this.pendingUnits[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * Submits all units of a single student. They are put
+     * to the queue of the least loaded worker.
+     *
+     * @param units units of the same student.
+     */
+    public void submit(List<CheckUnit> units) {
+        if (units.isEmpty()) {
+            return;
+        }
+        int worker = this.leastLoadedWorker();
+        this.queues.get(worker).addLast(List.copyOf(units));
+        this.pendingUnits[worker].addAndGet(units.size());
+        this.totalUnits.addAndGet(units.size());
+        this.signalWorkers();
+    }
+
+    /**
+     * Tells the scheduler that no more units will be submitted.
+     * Workers finish as soon as all the queues are empty.
+     */
+    public void close() {
+        this.closed = true;
+        this.signalWorkers();
+    }
+
+    /**
+     * Starts the workers. Units can be submitted before and after the start.
+     *
+     * @param handler handler that processes a single unit.
+     */
+    public void start(CheckUnitHandler handler) {
+        this.threadPool = Executors.newFixedThreadPool(this.workersQuantity);
+        this.workerStatistics = new WorkerStatistics[this.workersQuantity];
+        this.startTime = System.nanoTime();
+
+        for (int i = 0; i < this.workersQuantity; i++) {
+            int workerIndex = i;
+            this.workerStatistics[i] = new WorkerStatistics();
+            this.futures.add(this.threadPool.submit(
+                    () -> this.work(workerIndex, handler, this.workerStatistics[workerIndex])
+            ));
+        }
+        Logger.log(INFO, "Started " + this.workersQuantity + " workers", "SCHEDULER");
+    }
+
+    /**
+     * Waits until the scheduler is closed and all units are processed.
+     *
+     * @return statistics of the run.
+     */
+    public SchedulerStatistics await() {
+        try {
+            for (Future<?> future : this.futures) {
+                future.get();
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            Logger.log(ERROR, "Error when waiting for the workers!", "SCHEDULER");
+        } finally {
+            this.threadPool.shutdownNow();
+        }
+
+        SchedulerStatistics statistics = new SchedulerStatistics();
+        statistics.makespanMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime);
+        statistics.totalUnits = this.totalUnits.get();
+        for (WorkerStatistics worker : this.workerStatistics) {
+            worker.utilization = statistics.makespanMillis == 0 ?
+                    0.0 : (double) worker.busyMillis / statistics.makespanMillis;
+            statistics.workers.add(worker);
+        }
+        this.logStatistics(statistics);
+
+        return statistics;
+    }
+
+    /**
+     * Getter for the amount of units waiting in the queues.
+     *
+     * @return amount of the pending units.
+     */
+    public int getPendingUnits() {
+        int pending = 0;
+        for (AtomicInteger workerPendingUnits : this.pendingUnits) {
+            pending += workerPendingUnits.get();
+        }
+        return pending;
+    }
+
+    /**
+     * Worker loop. Takes students from its own queue or steals them and
+     * checks their units one by one until everything is done.
+     *
+     * @param workerIndex index of the worker.
+     * @param handler     handler that processes a single unit.
+     * @param statistics  statistics of this worker that are filled during the run.
+     */
+    private void work(int workerIndex, CheckUnitHandler handler, WorkerStatistics statistics) {
+        String workerName = Integer.toString(workerIndex + 1);
+        int units = 0;
+        int stolenUnits = 0;
+        long busyNanos = 0;
+        Deque<CheckUnit> current = new ArrayDeque<>();
+
+        while (true) {
+            CheckUnit unit = current.pollFirst();
+            if (unit == null) {
+                List<CheckUnit> student = this.queues.get(workerIndex).pollFirst();
+                if (student == null) {
+                    student = this.steal(workerIndex);
+                    if (student != null) {
+                        stolenUnits += student.size();
+                        this.pendingUnits[workerIndex].addAndGet(student.size());
+                    } else if (this.awaitWork()) {
+                        continue;
+                    } else {
+                        break;
+                    }
+                }
+                current.addAll(student);
+                continue;
+            }
+            this.pendingUnits[workerIndex].decrementAndGet();
+
+            long startTime = System.nanoTime();
+            try {
+                handler.handle(unit, workerName);
+            } catch (Exception e) {
+                Logger.log(
+                        ERROR,
+                        "Error when checking " + unit.task.id + " for " + unit.studentWithTasks.student.nickname,
+                        "TASK CHECKER " + workerName
+                );
+            }
+            busyNanos += System.nanoTime() - startTime;
+            units++;
+        }
+
+        statistics.worker = workerName;
+        statistics.units = units;
+        statistics.stolenUnits = stolenUnits;
+        statistics.busyMillis = TimeUnit.NANOSECONDS.toMillis(busyNanos);
+    }
+
+    /**
+     * Steals the last student from the tail of another worker's queue. The
+     * units of a student are a single element of the queue, so taking it is
+     * atomic and nobody else can get a part of them.
+     *
+     * @param thiefIndex index of the worker that steals.
+     * @return stolen units in the original order, null if there is nothing to steal.
+     */
+    private List<CheckUnit> steal(int thiefIndex) {
+        for (int i = 1; i < this.workersQuantity; i++) {
+            int victimIndex = (thiefIndex + i) % this.workersQuantity;
+            List<CheckUnit> stolen = this.queues.get(victimIndex).pollLast();
+            if (stolen != null) {
+                this.pendingUnits[victimIndex].addAndGet(-stolen.size());
+                return stolen;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Waits until new units are submitted.
+     *
+     * @return false if the scheduler is closed and there is no work left, true otherwise.
+     */
+    private boolean awaitWork() {
+        this.lock.lock();
+        try {
+            if (this.closed && this.allQueuesEmpty()) {
+                return false;
+            }
+            this.workAvailable.await(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up all the waiting workers.
+     */
+    private void signalWorkers() {
+        this.lock.lock();
+        try {
+            this.workAvailable.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether all the queues are empty.
+     *
+     * @return true if there are no units left.
+     */
+    private boolean allQueuesEmpty() {
+        for (ConcurrentLinkedDeque<List<CheckUnit>> queue : this.queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the worker with the least amount of pending units.
+     *
+     * @return index of the worker.
+     */
+    private int leastLoadedWorker() {
+        int worker = 0;
+        for (int i = 1; i < this.workersQuantity; i++) {
+            if (this.pendingUnits[i].get() < this.pendingUnits[worker].get()) {
+                worker = i;
+            }
+        }
+        return worker;
+    }
+
+    /**
+     * Logs makespan and utilization of every worker.
+     *
+     * @param statistics statistics of the run.
+     */
+    private void logStatistics(SchedulerStatistics statistics) {
+        Logger.log(
+                INFO,
+                "Makespan: " + statistics.makespanMillis + " ms for " + statistics.totalUnits + " units",
+                "SCHEDULER"
+        );
+        for (WorkerStatistics worker : statistics.workers) {
+            Logger.log(
+                    INFO,
+                    String.format(
+                            "Worker %s: %d units (%d stolen), busy %d ms, utilization %.1f%%",
+                            worker.worker, worker.units, worker.stolenUnits,
+                            worker.busyMillis, worker.utilization * 100
+                    ),
+                    "SCHEDULER"
+            );
+        }
+    }
+}
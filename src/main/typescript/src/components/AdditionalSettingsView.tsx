@@ -149,10 +149,10 @@ const AdditionalSettingsView: React.FC<{ additionalSettings: AdditionalSettings
                         <Row>
                             <Space direction="horizontal">
                                 <Col>
-                                    <Typography.Text strong>Параллельное выполнение</Typography.Text>
+                                    <Typography.Text strong>Режим выполнения</Typography.Text>
                                 </Col>
                                 <Col>
-                                    {additionalSettings.runInParallel ? 'Да' : 'Нет'}
+                                    {additionalSettings.executionMode ?? 'SEQUENTIAL'}
                                 </Col>
                             </Space>
                         </Row>
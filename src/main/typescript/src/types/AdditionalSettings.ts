@@ -7,7 +7,8 @@ export interface AdditionalSettings {
     plagiarismReportFolder: string;
     controlPoints: string[];
     pointsForActivenessPerWeek: number;
-    runInParallel: boolean;
+    executionMode: 'SEQUENTIAL' | 'PLATFORM' | 'VIRTUAL';
+    buildThreads: number;
     cleanUp: boolean;
     githubToken: string;
     marksMap: {
@@ -13,7 +13,8 @@ export interface Report {
     plagiarismReportFolder: string;
     controlPoints: string[];
     pointsForActivenessPerWeek: number;
-    runInParallel: boolean;
+    executionMode: 'SEQUENTIAL' | 'PLATFORM' | 'VIRTUAL';
+    buildThreads: number;
     cleanUp: boolean;
     githubToken: string;
     repositoriesPath: string;
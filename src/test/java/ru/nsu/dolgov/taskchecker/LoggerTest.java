@@ -0,0 +1,117 @@
+package ru.nsu.dolgov.taskchecker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the ring buffer of the Logger neither drops nor reorders
+ * messages and that flushing and reconfiguring are safe while others log.
+ */
+public class LoggerTest {
+    private static final Pattern LINE = Pattern.compile("\"source\":\"(T\\d+)\".*\"message\":\"(\\d+)\"}");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Closes the JSON lines file so the other tests do not write into it.
+     */
+    @AfterEach
+    public void tearDown() {
+        Logger.configure(Logger.LogLevel.INFO, null);
+    }
+
+    /**
+     * More messages than the buffer holds are all written, in the order of every thread.
+     */
+    @Test
+    public void writesEveryMessageInOrder() throws Exception {
+        int threads = 4;
+        int messages = 6000;
+        Path path = this.directory.resolve("log.jsonl");
+        Logger.configure(Logger.LogLevel.INFO, path.toString());
+
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            String source = "T" + i;
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < messages; j++) {
+                    Logger.log(Logger.LogLevel.INFO, String.valueOf(j), source);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        Logger.flush();
+
+        int[] next = new int[threads];
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            Matcher matcher = LINE.matcher(line);
+            if (!matcher.find()) {
+                continue;
+            }
+            int thread = Integer.parseInt(matcher.group(1).substring(1));
+            assertEquals(next[thread], Integer.parseInt(matcher.group(2)), line);
+            next[thread]++;
+        }
+        for (int i = 0; i < threads; i++) {
+            assertEquals(messages, next[i]);
+        }
+    }
+
+    /**
+     * Flush returns although another thread never stops logging, and switching
+     * the JSON lines file meanwhile leaves only complete lines behind.
+     */
+    @Test
+    public void flushesAndReconfiguresWhileLogging() throws Exception {
+        Path first = this.directory.resolve("first.jsonl");
+        Path second = this.directory.resolve("second.jsonl");
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread producer = new Thread(() -> {
+            int i = 0;
+            while (running.get()) {
+                Logger.log(Logger.LogLevel.INFO, String.valueOf(i++), "T0");
+            }
+        });
+        producer.start();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+                for (int i = 0; i < 20; i++) {
+                    Logger.configure(Logger.LogLevel.INFO, (i % 2 == 0 ? first : second).toString());
+                    Logger.flush();
+                }
+            });
+        } finally {
+            running.set(false);
+            producer.join();
+        }
+        Logger.configure(Logger.LogLevel.INFO, null);
+
+        for (Path path : List.of(first, second)) {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            assertTrue(lines.size() > 0);
+            for (String line : lines) {
+                assertTrue(line.startsWith("{\"time\":\"") && line.endsWith("}"), line);
+            }
+        }
+    }
+}
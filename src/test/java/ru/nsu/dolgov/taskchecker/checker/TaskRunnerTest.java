@@ -0,0 +1,141 @@
+package ru.nsu.dolgov.taskchecker.checker;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.nsu.dolgov.taskchecker.cache.CheckCache;
+import ru.nsu.dolgov.taskchecker.gradle.GradleConnectionPool;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.GradleSettings;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings.TimeoutSettings;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.DeadlinesCheckResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a cached result shared by students with the same task tree
+ * gets the deadlines and the points of every student's own history.
+ */
+public class TaskRunnerTest {
+    private static final String SOURCE = "public class Main {\n}\n";
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Two students commit the same files before and after the deadlines.
+     */
+    @Test
+    public void countsDeadlinesOfEveryStudentOnCacheHit() throws Exception {
+        Task task = new Task();
+        task.id = "Task_1_1";
+        task.title = "Task";
+        task.points = 1;
+        task.softDeadline = LocalDate.of(2024, 9, 20);
+        task.hardDeadline = LocalDate.of(2024, 10, 1);
+        Path repositories = this.directory.resolve("repositories");
+        commit(repositories.resolve("early"), task.id, LocalDate.of(2024, 9, 5));
+        commit(repositories.resolve("late"), task.id, LocalDate.of(2024, 10, 20));
+
+        CheckCache cache = new CheckCache(this.directory.resolve("cache").toString(), true);
+        String key = cache.getKey(repositories.resolve("early").toFile(), task);
+        assertNotNull(key);
+        assertEquals(key, cache.getKey(repositories.resolve("late").toFile(), task));
+
+        TaskTestResult built = new TaskTestResult();
+        built.task = task;
+        built.build = true;
+        built.javadoc = true;
+        built.passedTests = 2;
+        built.totalTests = 2;
+        built.deadlinesCheckResult = new DeadlinesCheckResult();
+        built.deadlinesCheckResult.softDeadlinePass = true;
+        built.deadlinesCheckResult.hardDeadlinePass = true;
+        built.points = 0.5F;
+        cache.put(key, built);
+        try (Stream<Path> entries = Files.walk(this.directory.resolve("cache"))) {
+            for (Path entry : entries.filter(Files::isRegularFile).toList()) {
+                assertFalse(Files.readString(entry).contains("deadlinesCheckResult"));
+            }
+        }
+
+        TaskTestResult early = check(repositories, "early", task, cache);
+        TaskTestResult late = check(repositories, "late", task, cache);
+
+        assertTrue(early.cacheHit && late.cacheHit);
+        assertTrue(early.build && late.build);
+        assertEquals(2, late.passedTests);
+        assertTrue(early.deadlinesCheckResult.softDeadlinePass);
+        assertTrue(early.deadlinesCheckResult.hardDeadlinePass);
+        assertEquals(0.5F, early.points);
+        assertFalse(late.deadlinesCheckResult.softDeadlinePass);
+        assertFalse(late.deadlinesCheckResult.hardDeadlinePass);
+        assertEquals(-0.5F, late.points);
+    }
+
+    /**
+     * Checks the task of a student with a cache that is expected to hit.
+     *
+     * @param repositories folder with the repositories.
+     * @param nickname     nickname of the student.
+     * @param task         task to check.
+     * @param cache        check cache.
+     * @return result of the task.
+     */
+    private static TaskTestResult check(Path repositories, String nickname, Task task, CheckCache cache) {
+        Student student = new Student();
+        student.nickname = nickname;
+        GradleConnectionPool pool = new GradleConnectionPool(new GradleSettings());
+        try {
+            return new TaskRunner(
+                    student,
+                    repositories.toString(),
+                    List.of(task),
+                    pool,
+                    cache,
+                    new TimeoutSettings(),
+                    false
+            ).checkTask(task);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Creates a repository with a single commit of the same task files.
+     *
+     * @param repository folder of the repository.
+     * @param taskId     id of the task.
+     * @param date       date of the commit.
+     */
+    private static void commit(Path repository, String taskId, LocalDate date) throws Exception {
+        Path source = repository.resolve(taskId).resolve("src").resolve("Main.java");
+        Files.createDirectories(source.getParent());
+        Files.writeString(source, SOURCE);
+        PersonIdent author = new PersonIdent(
+                "student",
+                "student@example.com",
+                Date.from(date.atTime(12, 0).toInstant(ZoneOffset.UTC)),
+                TimeZone.getTimeZone("UTC")
+        );
+        try (Git git = Git.init().setDirectory(repository.toFile()).call()) {
+            git.add().addFilepattern(".").call();
+            git.commit().setMessage("Solve " + taskId).setAuthor(author).setCommitter(author).call();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package ru.nsu.dolgov.taskchecker.checker;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator.TaskSpec;
+import ru.nsu.dolgov.taskchecker.models.core.AdditionalSettings;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.TaskRunnerResult;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks what the pipeline does with the students whose repository can not
+ * be downloaded and with the students submitted to an opened wrapper.
+ */
+public class TaskRunnerWrapperTest {
+    private static final LocalDate SEMESTER_START = LocalDate.of(2024, 9, 2);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * A missing repository and a stale clone whose remote is gone are not
+     * built, and nothing about them is written to the journal.
+     */
+    @Test
+    public void skipsFailedDownloads() throws Exception {
+        Task task = new Task();
+        task.id = "Task_1_1";
+        Path remote = this.directory.resolve("remotes").resolve("stale");
+        new StudentRepositoryGenerator(List.of(), SEMESTER_START, 0, 0).generate(
+                remote,
+                "stale",
+                List.of(new TaskSpec(task.id, SEMESTER_START.plusWeeks(2))),
+                new Random(1)
+        );
+        Path repositories = this.directory.resolve("repositories");
+        Git.cloneRepository()
+                .setURI(remote.toUri().toString())
+                .setDirectory(repositories.resolve("stale").toFile())
+                .call()
+                .close();
+        try (Stream<Path> paths = Files.walk(remote)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+
+        AdditionalSettings settings = new AdditionalSettings();
+        settings.repositoriesPath = repositories.toString();
+        settings.journalPath = this.directory.resolve("journal.jsonl").toString();
+        settings.useCheckCache = false;
+        settings.controlPoints = List.of(SEMESTER_START, SEMESTER_START.plusMonths(4));
+        for (String nickname : List.of("missing", "stale")) {
+            Student student = new Student();
+            student.nickname = nickname;
+            student.repository = this.directory.resolve("remotes").resolve(nickname).toUri().toString();
+            settings.toCheck.put(student, List.of(task));
+            StudentWithTasks studentWithTasks = new StudentWithTasks();
+            studentWithTasks.student = student;
+            studentWithTasks.tasks = List.of(task);
+            settings.toCheckList.add(studentWithTasks);
+        }
+
+        List<TaskRunnerResult> results = new TaskRunnerWrapper(settings).checkTasks();
+
+        assertEquals(2, results.size());
+        for (TaskRunnerResult result : results) {
+            assertNull(result.student.commitsCheckResult, result.student.nickname);
+            TaskTestResult taskResult = result.tasksResults.get(0);
+            assertEquals(task, taskResult.task);
+            assertFalse(taskResult.build, result.student.nickname);
+        }
+        Path journal = this.directory.resolve("journal.jsonl");
+        assertTrue(!Files.exists(journal) || Files.readAllLines(journal).isEmpty());
+    }
+
+    /**
+     * An opened wrapper reports every submitted student to its listener,
+     * and downloads a student again when it is submitted once more after
+     * its remote appeared, as the coordinator does with a failed student.
+     */
+    @Test
+    public void reportsStudentsOfAnOpenSession() throws Exception {
+        Path remotes = this.directory.resolve("remotes");
+        StudentRepositoryGenerator generator = new StudentRepositoryGenerator(List.of(), SEMESTER_START, 0, 0);
+        List<TaskSpec> tasks = List.of(new TaskSpec("Task_1_1", SEMESTER_START.plusWeeks(2)));
+        generator.generate(remotes.resolve("present"), "present", tasks, new Random(1));
+        AdditionalSettings settings = new AdditionalSettings();
+        settings.repositoriesPath = this.directory.resolve("repositories").toString();
+        settings.journalPath = this.directory.resolve("journal.jsonl").toString();
+        settings.useCheckCache = false;
+        settings.controlPoints = List.of(SEMESTER_START, SEMESTER_START.plusMonths(4));
+        BlockingQueue<String> reports = new LinkedBlockingQueue<>();
+        StudentCheckListener listener = (studentWithTasks, result, failure) -> reports.add(
+                studentWithTasks.student.nickname + " " + (failure == null) + " "
+                        + (result.student.commitsCheckResult != null)
+        );
+
+        TaskRunnerWrapper wrapper = new TaskRunnerWrapper(settings);
+        assertTrue(wrapper.open());
+        try {
+            wrapper.submit(getStudent(remotes, "present"), listener);
+            wrapper.submit(getStudent(remotes, "late"), listener);
+            Set<String> first = new HashSet<>();
+            first.add(reports.poll(60, TimeUnit.SECONDS));
+            first.add(reports.poll(60, TimeUnit.SECONDS));
+            assertEquals(Set.of("present true true", "late false false"), first);
+
+            generator.generate(remotes.resolve("late"), "late", tasks, new Random(2));
+            wrapper.submit(getStudent(remotes, "late"), listener);
+            assertEquals("late true true", reports.poll(60, TimeUnit.SECONDS));
+        } finally {
+            wrapper.close();
+        }
+        assertTrue(reports.isEmpty());
+    }
+
+    /**
+     * Creates a student without tasks, so it is downloaded but nothing is built.
+     *
+     * @param remotes  folder with the remote repositories.
+     * @param nickname nickname of the student.
+     * @return student.
+     */
+    private static StudentWithTasks getStudent(Path remotes, String nickname) {
+        Student student = new Student();
+        student.nickname = nickname;
+        student.repository = remotes.resolve(nickname).toUri().toString();
+        StudentWithTasks studentWithTasks = new StudentWithTasks();
+        studentWithTasks.student = student;
+        studentWithTasks.tasks = List.of();
+        return studentWithTasks;
+    }
+}
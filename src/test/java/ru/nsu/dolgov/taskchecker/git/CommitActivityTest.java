@@ -0,0 +1,191 @@
+package ru.nsu.dolgov.taskchecker.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator.TaskSpec;
+import ru.nsu.dolgov.taskchecker.models.results.CommitsCheckResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the commit activity counted in one walk over the local repository
+ * with the way it was counted before: one request per week for the commits
+ * between 00:00:00 of its first day and 23:59:59 of its last day (UTC).
+ */
+public class CommitActivityTest {
+    private static final LocalDate SEMESTER_START = LocalDate.of(2024, 9, 2);
+
+    @TempDir
+    Path temporaryDirectory;
+
+    /**
+     * Checks several generated students against several pairs of control points,
+     * including the ones whose end is in the middle of a week and a period
+     * shorter than a week.
+     */
+    @Test
+    public void matchesWeeklyRequests() throws IOException, GitAPIException {
+        LocalDate[][] controlPoints = {
+                {SEMESTER_START, SEMESTER_START.plusWeeks(16)},
+                {SEMESTER_START.minusDays(3), SEMESTER_START.plusDays(75)},
+                {SEMESTER_START.plusDays(10), SEMESTER_START.plusDays(40)},
+                {SEMESTER_START, SEMESTER_START.plusDays(9)},
+                {SEMESTER_START, SEMESTER_START.plusDays(3)},
+        };
+
+        for (int seed = 0; seed < 5; seed++) {
+            Path repository = this.generate("student" + seed, seed);
+            List<Integer> commitTimes = readCommitTimes(repository);
+            for (LocalDate[] points : controlPoints) {
+                CommitActivity activity = new CommitActivity(points[0], points[1]);
+                CommitsCheckResult actual = activity.toResult(activity.countCommits(repository.toFile()));
+                CommitsCheckResult expected = countPerWeek(commitTimes, points[0], points[1]);
+                assertSameResult(expected, actual, "seed " + seed + ", " + points[0] + " - " + points[1]);
+            }
+        }
+    }
+
+    /**
+     * Generates the repository of a student with eight tasks, two weeks apart.
+     *
+     * @param nickname nickname of the student.
+     * @param seed     seed of the commit times.
+     * @return root of the repository.
+     */
+    private Path generate(String nickname, long seed) throws IOException, GitAPIException {
+        List<TaskSpec> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(new TaskSpec("Task_1_" + (i + 1), SEMESTER_START.plusWeeks(2L * (i + 1))));
+        }
+        Path repository = this.temporaryDirectory.resolve(nickname);
+        new StudentRepositoryGenerator(List.of(), SEMESTER_START, 0, 0)
+                .generate(repository, nickname, tasks, new Random(seed));
+        return repository;
+    }
+
+    /**
+     * Reads the commit times of the whole history.
+     *
+     * @param repository root of the repository.
+     * @return commit times in seconds since the epoch.
+     */
+    private static List<Integer> readCommitTimes(Path repository) throws IOException, GitAPIException {
+        List<Integer> commitTimes = new ArrayList<>();
+        try (Git git = Git.open(repository.toFile())) {
+            for (RevCommit commit : git.log().call()) {
+                commitTimes.add(commit.getCommitTime());
+            }
+        }
+        return commitTimes;
+    }
+
+    /**
+     * Counts the activity the same way the weekly GitHub requests did.
+     *
+     * @param commitTimes commit times of the repository.
+     * @param startDate   first control point.
+     * @param endDate     second control point.
+     * @return expected result.
+     */
+    private static CommitsCheckResult countPerWeek(List<Integer> commitTimes, LocalDate startDate, LocalDate endDate) {
+        LocalDate currentEndDate = startDate.plusDays(7);
+        List<CommitsCheckResult.CommitsPerWeek> commitsPerWeekList = new ArrayList<>();
+        int commitCount = 0;
+        int maxCommitsCount = -1;
+        int weeksCount = 0;
+        int totalActiveWeeks = 0;
+
+        while (currentEndDate.isBefore(endDate)) {
+            LocalDate weekStart = currentEndDate.plusDays(1);
+            currentEndDate = currentEndDate.plusDays(7);
+            int currentCommitsCount = countBetween(commitTimes, weekStart, currentEndDate);
+            commitsPerWeekList.add(week(currentEndDate, currentCommitsCount));
+            if (currentCommitsCount > 0) {
+                totalActiveWeeks++;
+            }
+            commitCount += currentCommitsCount;
+            maxCommitsCount = Math.max(maxCommitsCount, currentCommitsCount);
+            weeksCount++;
+        }
+
+        if (ChronoUnit.DAYS.between(endDate, currentEndDate) > 1) {
+            int currentCommitsCount = countBetween(commitTimes, currentEndDate, endDate);
+            commitCount += currentCommitsCount;
+            commitsPerWeekList.add(week(endDate, currentCommitsCount));
+            maxCommitsCount = Math.max(maxCommitsCount, currentCommitsCount);
+        }
+
+        CommitsCheckResult result = new CommitsCheckResult();
+        result.maximumCommitsPerWeek = maxCommitsCount;
+        result.totalCommits = commitCount;
+        result.totalWeeks = weeksCount;
+        result.totalActiveWeeks = totalActiveWeeks;
+        result.commitsPerWeekList = commitsPerWeekList;
+        return result;
+    }
+
+    /**
+     * Counts the commits the GitHub request with since and until would return.
+     *
+     * @param commitTimes commit times of the repository.
+     * @param since       first day.
+     * @param until       last day.
+     * @return amount of commits.
+     */
+    private static int countBetween(List<Integer> commitTimes, LocalDate since, LocalDate until) {
+        long from = since.toEpochSecond(LocalTime.MIN, ZoneOffset.UTC);
+        long to = until.toEpochSecond(LocalTime.of(23, 59, 59), ZoneOffset.UTC);
+        return (int) commitTimes.stream().filter(time -> time >= from && time <= to).count();
+    }
+
+    /**
+     * Creates an entry of the weekly activity.
+     *
+     * @param end     last day of the week.
+     * @param commits amount of commits.
+     * @return entry.
+     */
+    private static CommitsCheckResult.CommitsPerWeek week(LocalDate end, int commits) {
+        CommitsCheckResult.CommitsPerWeek commitsPerWeek = new CommitsCheckResult.CommitsPerWeek();
+        commitsPerWeek.week = end;
+        commitsPerWeek.commits = commits;
+        return commitsPerWeek;
+    }
+
+    /**
+     * Compares two results field by field.
+     *
+     * @param expected expected result.
+     * @param actual   actual result.
+     * @param message  description of the case.
+     */
+    private static void assertSameResult(CommitsCheckResult expected, CommitsCheckResult actual, String message) {
+        assertEquals(expected.totalCommits, actual.totalCommits, message);
+        assertEquals(expected.totalWeeks, actual.totalWeeks, message);
+        assertEquals(expected.totalActiveWeeks, actual.totalActiveWeeks, message);
+        assertEquals(expected.maximumCommitsPerWeek, actual.maximumCommitsPerWeek, message);
+        assertEquals(expected.commitsPerWeekList.size(), actual.commitsPerWeekList.size(), message);
+        for (int i = 0; i < expected.commitsPerWeekList.size(); i++) {
+            assertEquals(expected.commitsPerWeekList.get(i).week, actual.commitsPerWeekList.get(i).week, message);
+            assertEquals(
+                    expected.commitsPerWeekList.get(i).commits,
+                    actual.commitsPerWeekList.get(i).commits,
+                    message + ", week " + expected.commitsPerWeekList.get(i).week
+            );
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.nsu.dolgov.taskchecker.git;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator;
+import ru.nsu.dolgov.taskchecker.loadtest.StudentRepositoryGenerator.TaskSpec;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.DeadlinesCheckResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the deadlines found in one history walk with the way they were
+ * found before: a git log of every task directory, the newest commit checked
+ * against the soft deadline and the oldest one against the hard deadline.
+ */
+public class DeadlineAnalyzerTest {
+    private static final LocalDate SEMESTER_START = LocalDate.of(2024, 9, 2);
+
+    @TempDir
+    Path temporaryDirectory;
+
+    /**
+     * Checks the tasks of several generated students with deadlines before,
+     * inside and after the period their commits are spread over.
+     */
+    @Test
+    public void matchesLogPerTask() throws IOException, GitAPIException {
+        int passedSoft = 0;
+        int failedSoft = 0;
+        for (int seed = 0; seed < 5; seed++) {
+            List<TaskSpec> specs = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                specs.add(new TaskSpec("Task_1_" + (i + 1), SEMESTER_START.plusWeeks(2L * (i + 1))));
+            }
+            Path repository = this.temporaryDirectory.resolve("student" + seed);
+            new StudentRepositoryGenerator(List.of(), SEMESTER_START, 0, 0)
+                    .generate(repository, "student" + seed, specs, new Random(seed));
+
+            List<Task> tasks = new ArrayList<>();
+            for (TaskSpec spec : specs) {
+                for (int shift : new int[]{-22, -7, 0, 2, 4}) {
+                    tasks.add(task(spec.id(), spec.deadline().plusDays(shift), spec.deadline().plusDays(shift - 10)));
+                }
+            }
+            tasks.add(task("Task_9_9", SEMESTER_START.plusYears(1), SEMESTER_START.plusYears(1)));
+
+            DeadlineAnalyzer analyzer = new DeadlineAnalyzer(
+                    repository.toFile(),
+                    tasks.stream().map(task -> task.id).distinct().toList()
+            );
+            for (Task task : tasks) {
+                DeadlinesCheckResult expected = checkWithLog(repository, task);
+                DeadlinesCheckResult actual = analyzer.check(task);
+                String message = "seed " + seed + ", " + task.id + " " + task.softDeadline;
+                assertEquals(expected.softDeadlinePass, actual.softDeadlinePass, message);
+                assertEquals(expected.hardDeadlinePass, actual.hardDeadlinePass, message);
+                if (actual.softDeadlinePass) {
+                    passedSoft++;
+                } else {
+                    failedSoft++;
+                }
+            }
+        }
+        assertTrue(passedSoft > 0 && failedSoft > 0, "both outcomes are covered");
+    }
+
+    /**
+     * Checks that the empty analyzer fails every deadline.
+     */
+    @Test
+    public void emptyAnalyzerFailsDeadlines() {
+        DeadlinesCheckResult result = DeadlineAnalyzer.empty().check(
+                task("Task_1_1", SEMESTER_START.plusYears(1), SEMESTER_START.plusYears(1))
+        );
+        assertFalse(result.softDeadlinePass);
+        assertFalse(result.hardDeadlinePass);
+    }
+
+    /**
+     * Finds the deadlines of the task with a git log of its directory.
+     *
+     * @param repository root of the repository.
+     * @param task       task.
+     * @return expected result.
+     */
+    private static DeadlinesCheckResult checkWithLog(Path repository, Task task) throws IOException,
+            GitAPIException {
+        DeadlinesCheckResult result = new DeadlinesCheckResult();
+        try (Git git = Git.open(repository.toFile())) {
+            LocalDate newestDate = null;
+            int oldestCommitTime = 0;
+            for (RevCommit commit : git.log().addPath(task.id).call()) {
+                if (newestDate == null) {
+                    newestDate = toLocalDate(commit.getCommitTime());
+                }
+                oldestCommitTime = commit.getCommitTime();
+            }
+            if (newestDate == null) {
+                return result;
+            }
+            result.softDeadlinePass = newestDate.isBefore(task.softDeadline);
+            result.hardDeadlinePass = toLocalDate(oldestCommitTime).isBefore(task.hardDeadline);
+        }
+        return result;
+    }
+
+    /**
+     * Creates a task.
+     *
+     * @param id           id of the task.
+     * @param softDeadline soft deadline.
+     * @param hardDeadline hard deadline.
+     * @return task.
+     */
+    private static Task task(String id, LocalDate softDeadline, LocalDate hardDeadline) {
+        Task task = new Task();
+        task.id = id;
+        task.title = id;
+        task.points = 1;
+        task.softDeadline = softDeadline;
+        task.hardDeadline = hardDeadline;
+        return task;
+    }
+
+    /**
+     * Converts the commit time to the local date.
+     *
+     * @param commitTime seconds since the epoch.
+     * @return date in the system time zone.
+     */
+    private static LocalDate toLocalDate(int commitTime) {
+        return LocalDate.ofInstant(Instant.ofEpochSecond(commitTime), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,79 @@
+package ru.nsu.dolgov.taskchecker.gradle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+import ru.nsu.dolgov.taskchecker.models.results.TestCaseResult.Outcome;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the reports of all the test classes are summed up.
+ */
+public class JUnitXmlAggregatorTest {
+    @TempDir
+    Path reports;
+
+    /**
+     * Sums the counts and collects every test case, sequentially and in parallel.
+     */
+    @Test
+    public void aggregatesAllReports() throws Exception {
+        this.writeReports(50);
+        for (boolean parallel : new boolean[]{false, true}) {
+            TaskTestResult result = new TaskTestResult();
+            int files = new JUnitXmlAggregator(parallel, true).aggregate(this.reports.toFile(), result);
+
+            assertEquals(50, files);
+            assertEquals(200, result.totalTests);
+            assertEquals(100, result.failedTests);
+            assertEquals(50, result.ignoredTests);
+            assertEquals(50, result.passedTests);
+            assertEquals(200, result.testCases.size());
+            assertEquals(50, result.testCases.stream().filter(test -> test.outcome == Outcome.SKIPPED).count());
+        }
+    }
+
+    /**
+     * Only the counts are read when the test cases are not asked for.
+     */
+    @Test
+    public void skipsTestCasesWhenNotAsked() throws Exception {
+        this.writeReports(3);
+        TaskTestResult result = new TaskTestResult();
+        new JUnitXmlAggregator(false, false).aggregate(this.reports.toFile(), result);
+
+        assertEquals(12, result.totalTests);
+        assertTrue(result.testCases.isEmpty());
+    }
+
+    /**
+     * Writes reports with a passed, a failed, an erroneous and a skipped test each.
+     *
+     * @param count amount of the reports.
+     */
+    private void writeReports(int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            Files.writeString(this.reports.resolve("TEST-Test" + i + ".xml"), """
+                    <?xml version="1.0" encoding="UTF-8"?>
+                    <testsuite name="Test%1$d" tests="4" skipped="1" failures="1" errors="1" time="0.1">
+                      <testcase name="passes" classname="Test%1$d" time="0.01"/>
+                      <testcase name="fails" classname="Test%1$d" time="0.02">
+                        <failure message="expected">trace</failure>
+                      </testcase>
+                      <testcase name="throws" classname="Test%1$d" time="0.03">
+                        <error message="boom">trace</error>
+                      </testcase>
+                      <testcase name="skipped" classname="Test%1$d" time="0">
+                        <skipped/>
+                      </testcase>
+                    </testsuite>
+                    """.formatted(i));
+        }
+    }
+}
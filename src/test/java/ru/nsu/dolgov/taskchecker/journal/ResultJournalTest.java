@@ -0,0 +1,154 @@
+package ru.nsu.dolgov.taskchecker.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.TaskTestResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks what a resumed run takes from the journal of the previous one.
+ */
+public class ResultJournalTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Finished results are restored, timed out ones and a line broken by a crash are not.
+     */
+    @Test
+    public void resumesFinishedTasksOnly() throws Exception {
+        Path path = this.directory.resolve("journal.jsonl");
+        Student student = student("student");
+        Task built = task("Task_1_1");
+        Task hung = task("Task_1_2");
+        try (ResultJournal journal = new ResultJournal(path.toString(), false)) {
+            TaskTestResult builtResult = result(built);
+            builtResult.build = true;
+            builtResult.passedTests = 3;
+            journal.appendTaskResult(student, builtResult);
+            TaskTestResult hungResult = result(hung);
+            hungResult.timedOut = true;
+            hungResult.timedOutStage = "build";
+            journal.appendTaskResult(student, hungResult);
+        }
+        Files.writeString(path, "{\"student\":\"student\",\"task\":", StandardOpenOption.APPEND);
+
+        try (ResultJournal journal = new ResultJournal(path.toString(), true)) {
+            TaskTestResult restored = journal.getTaskResult(student, built);
+            assertNotNull(restored);
+            assertTrue(restored.build);
+            assertEquals(3, restored.passedTests);
+            assertEquals(built, restored.task);
+            assertNull(journal.getTaskResult(student, hung));
+        }
+    }
+
+    /**
+     * A run that does not resume starts with an empty journal.
+     */
+    @Test
+    public void truncatesWithoutResume() throws Exception {
+        Path path = this.directory.resolve("journal.jsonl");
+        Student student = student("student");
+        Task task = task("Task_1_1");
+        try (ResultJournal journal = new ResultJournal(path.toString(), false)) {
+            journal.appendTaskResult(student, result(task));
+        }
+        try (ResultJournal journal = new ResultJournal(path.toString(), false)) {
+            assertNull(journal.getTaskResult(student, task));
+        }
+        assertEquals(0, Files.size(path));
+    }
+
+    /**
+     * A process that exits without closing the journal, as on Ctrl-C,
+     * still leaves every appended result in it.
+     */
+    @Test
+    public void writesQueuedEntriesOnExit() throws Exception {
+        Path path = this.directory.resolve("journal.jsonl");
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp",
+                System.getProperty("java.class.path"),
+                ExitingRun.class.getName(),
+                path.toString()
+        ).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        assertEquals(0, process.waitFor());
+
+        Student student = student("student");
+        try (ResultJournal journal = new ResultJournal(path.toString(), true)) {
+            for (int i = 0; i < ExitingRun.TASKS; i++) {
+                assertNotNull(journal.getTaskResult(student, task("Task_" + i)), "Task_" + i);
+            }
+        }
+    }
+
+    /**
+     * Creates a student.
+     *
+     * @param nickname nickname.
+     * @return student.
+     */
+    private static Student student(String nickname) {
+        Student student = new Student();
+        student.nickname = nickname;
+        return student;
+    }
+
+    /**
+     * Creates a task.
+     *
+     * @param id id of the task.
+     * @return task.
+     */
+    private static Task task(String id) {
+        Task task = new Task();
+        task.id = id;
+        return task;
+    }
+
+    /**
+     * Creates an empty result of the task.
+     *
+     * @param task task.
+     * @return result.
+     */
+    private static TaskTestResult result(Task task) {
+        TaskTestResult result = new TaskTestResult();
+        result.task = task;
+        return result;
+    }
+
+    /**
+     * Run that appends the results and exits right away without closing the journal.
+     */
+    public static class ExitingRun {
+        static final int TASKS = 20_000;
+
+        /**
+         * Entrypoint of the run.
+         *
+         * @param args path of the journal.
+         */
+        public static void main(String[] args) throws Exception {
+            ResultJournal journal = new ResultJournal(args[0], false);
+            Student student = student("student");
+            for (int i = 0; i < TASKS; i++) {
+                journal.appendTaskResult(student, result(task("Task_" + i)));
+            }
+            System.exit(0);
+        }
+    }
+}
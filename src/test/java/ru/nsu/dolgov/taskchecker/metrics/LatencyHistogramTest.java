@@ -0,0 +1,86 @@
+package ru.nsu.dolgov.taskchecker.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the buckets of the histogram and the accuracy of its percentiles.
+ */
+public class LatencyHistogramTest {
+    /**
+     * Every bucket starts right after the upper bound of the previous one.
+     */
+    @Test
+    public void bucketsAreContiguous() {
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS - 1; bucket++) {
+            long upperBound = LatencyHistogram.getUpperBound(bucket);
+            assertEquals(bucket, LatencyHistogram.getBucket(upperBound));
+            assertEquals(bucket + 1, LatencyHistogram.getBucket(upperBound + 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+    }
+
+    /**
+     * The percentiles are within 1/16 of the exact ones, never below them and never above the maximum.
+     */
+    @Test
+    public void percentilesAreWithinTheBucketWidth() {
+        Random random = new Random(42);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] micros = new long[10_000];
+        for (int i = 0; i < micros.length; i++) {
+            micros[i] = (long) Math.exp(random.nextDouble() * Math.log(60_000_000));
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(micros[i]));
+        }
+        Arrays.sort(micros);
+
+        assertEquals(micros.length, histogram.getCount());
+        assertEquals(micros[micros.length - 1], histogram.getMaxMicros());
+        assertEquals(Arrays.stream(micros).sum(), histogram.getSumMicros());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long exact = micros[(int) Math.ceil(micros.length * percentile / 100) - 1];
+            long estimate = histogram.getPercentileMicros(percentile);
+            assertTrue(estimate >= exact, percentile + ": " + estimate + " < " + exact);
+            assertTrue(estimate <= exact + exact / 16 + 1, percentile + ": " + estimate + " > " + exact);
+            assertTrue(estimate <= histogram.getMaxMicros());
+        }
+    }
+
+    /**
+     * Concurrent recording loses no durations, and an empty histogram reports zeros.
+     */
+    @Test
+    public void countsConcurrentRecords() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMicros(99));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < 25_000; j++) {
+                    histogram.record(TimeUnit.MICROSECONDS.toNanos(j % 100));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(100_000, histogram.getCount());
+        long total = 0;
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            total += histogram.getBucketCount(bucket);
+        }
+        assertEquals(100_000, total);
+        assertEquals(99, histogram.getMaxMicros());
+    }
+}
@@ -0,0 +1,108 @@
+package ru.nsu.dolgov.taskchecker.plagiarism;
+
+import org.junit.jupiter.api.Test;
+import ru.nsu.dolgov.taskchecker.plagiarism.LshIndex.CandidatePair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the banding of the index and the groups built from the candidate pairs.
+ */
+public class LshIndexTest {
+    /**
+     * The bands get longer as the threshold grows.
+     */
+    @Test
+    public void choosesBandsByThreshold() {
+        assertEquals(2, new LshIndex(0.3).getRowsPerBand());
+        assertEquals(4, new LshIndex(0.5).getRowsPerBand());
+        assertEquals(8, new LshIndex(0.75).getRowsPerBand());
+        assertEquals(16, new LshIndex(0.75).getBands());
+    }
+
+    /**
+     * Near copies are found, unrelated submissions are not paired.
+     */
+    @Test
+    public void findsNearCopiesOnly() {
+        Random random = new Random(7);
+        LshIndex index = new LshIndex(0.5);
+        for (int i = 0; i < 20; i++) {
+            int[] original = randomSignature(random);
+            index.add("original" + i, original);
+            index.add("copy" + i, mutate(original, 0.1, random));
+        }
+        for (int i = 0; i < 100; i++) {
+            index.add("unrelated" + i, randomSignature(random));
+        }
+
+        List<CandidatePair> pairs = index.getCandidatePairs();
+        assertEquals(20, pairs.size());
+        for (CandidatePair pair : pairs) {
+            assertEquals(pair.first().replace("original", "copy"), pair.second().replace("original", "copy"));
+            assertTrue(pair.similarity() >= 0.5);
+        }
+    }
+
+    /**
+     * A long chain of similar submissions is split into small batches that still cover every pair.
+     */
+    @Test
+    public void splitsLargeGroups() {
+        List<CandidatePair> pairs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            pairs.add(new CandidatePair("chain" + i, "chain" + (i + 1), 0.5 + i / 100.0));
+        }
+        pairs.add(new CandidatePair("first", "second", 0.9));
+
+        List<List<String>> groups = LshIndex.getGroups(pairs, 8);
+        assertTrue(groups.contains(List.of("first", "second")));
+        for (List<String> group : groups) {
+            assertTrue(group.size() >= 2 && group.size() <= 8, group.toString());
+        }
+        for (CandidatePair pair : pairs) {
+            assertTrue(
+                    groups.stream().anyMatch(group -> group.contains(pair.first()) && group.contains(pair.second())),
+                    pair.toString()
+            );
+        }
+        assertEquals(2, LshIndex.getGroups(pairs, 100).size());
+    }
+
+    /**
+     * Creates the signature of an unrelated submission.
+     *
+     * @param random source of the values.
+     * @return signature.
+     */
+    private static int[] randomSignature(Random random) {
+        int[] signature = new int[SourceFingerprint.SIGNATURE_SIZE];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = random.nextInt(Integer.MAX_VALUE);
+        }
+        return signature;
+    }
+
+    /**
+     * Changes a share of the values of the signature.
+     *
+     * @param signature original signature.
+     * @param share     share of the values to change.
+     * @param random    source of the values.
+     * @return changed copy.
+     */
+    private static int[] mutate(int[] signature, double share, Random random) {
+        int[] copy = signature.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (random.nextDouble() < share) {
+                copy[i] = random.nextInt(Integer.MAX_VALUE);
+            }
+        }
+        return copy;
+    }
+}
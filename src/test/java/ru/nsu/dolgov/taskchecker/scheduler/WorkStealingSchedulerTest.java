@@ -0,0 +1,78 @@
+package ru.nsu.dolgov.taskchecker.scheduler;
+
+import org.junit.jupiter.api.Test;
+import ru.nsu.dolgov.taskchecker.models.core.Student;
+import ru.nsu.dolgov.taskchecker.models.core.StudentWithTasks;
+import ru.nsu.dolgov.taskchecker.models.core.Task;
+import ru.nsu.dolgov.taskchecker.models.results.SchedulerStatistics;
+import ru.nsu.dolgov.taskchecker.models.results.SchedulerStatistics.WorkerStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that stealing moves whole students between the workers.
+ */
+public class WorkStealingSchedulerTest {
+    /**
+     * Every unit is checked once and all the units of a student on the same worker,
+     * although the students are unevenly loaded and a lot of them are stolen.
+     */
+    @Test
+    public void keepsStudentsOnOneWorker() {
+        int workers = 4;
+        int students = 200;
+        int tasks = 5;
+        List<Task> taskList = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            Task task = new Task();
+            task.id = "Task_1_" + i;
+            taskList.add(task);
+        }
+
+        WorkStealingScheduler scheduler = new WorkStealingScheduler(workers);
+        Map<String, Set<String>> workersOfStudents = new ConcurrentHashMap<>();
+        Map<String, Integer> checkedUnits = new ConcurrentHashMap<>();
+        scheduler.start((unit, workerName) -> {
+            String nickname = unit.studentWithTasks.student.nickname;
+            workersOfStudents.computeIfAbsent(nickname, key -> ConcurrentHashMap.newKeySet()).add(workerName);
+            checkedUnits.merge(nickname + "/" + unit.task.id, 1, Integer::sum);
+            if (nickname.endsWith("0")) {
+                Thread.sleep(2);
+            }
+        });
+        for (int i = 0; i < students; i++) {
+            Student student = new Student();
+            student.nickname = "student" + i;
+            StudentWithTasks studentWithTasks = new StudentWithTasks();
+            studentWithTasks.student = student;
+            studentWithTasks.tasks = taskList;
+            List<CheckUnit> units = new ArrayList<>();
+            for (int j = 0; j < tasks; j++) {
+                units.add(new CheckUnit(studentWithTasks, j));
+            }
+            scheduler.submit(units);
+        }
+        scheduler.close();
+        SchedulerStatistics statistics = scheduler.await();
+
+        assertEquals(students * tasks, statistics.totalUnits);
+        assertEquals(students * tasks, checkedUnits.size());
+        assertTrue(checkedUnits.values().stream().allMatch(count -> count == 1));
+        assertEquals(students, workersOfStudents.size());
+        workersOfStudents.forEach((nickname, names) -> assertEquals(1, names.size(), nickname + " " + names));
+        int checked = 0;
+        for (WorkerStatistics worker : statistics.workers) {
+            assertEquals(0, worker.stolenUnits % tasks);
+            checked += worker.units;
+        }
+        assertEquals(students * tasks, checked);
+        assertEquals(0, scheduler.getPendingUnits());
+    }
+}